@@ -2,6 +2,7 @@ package org.netbeans.gradle.model;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Collections;
 import org.netbeans.gradle.model.internal.CustomSerializedMap;
 import org.netbeans.gradle.model.util.CollectionUtils;
 
@@ -11,17 +12,27 @@ final class ActionFetchedModels implements Serializable {
     private final CustomSerializedMap buildModels;
     private final ActionFetchedProjectModels defaultProjectModels;
     private final Collection<ActionFetchedProjectModels> otherProjectModels;
+    private final Collection<GenericProjectProperties> incompleteProjects;
 
     public ActionFetchedModels(
             CustomSerializedMap buildModels,
             ActionFetchedProjectModels defaultProjectModels,
             Collection<ActionFetchedProjectModels> otherProjectModels) {
+        this(buildModels, defaultProjectModels, otherProjectModels, Collections.<GenericProjectProperties>emptyList());
+    }
+
+    public ActionFetchedModels(
+            CustomSerializedMap buildModels,
+            ActionFetchedProjectModels defaultProjectModels,
+            Collection<ActionFetchedProjectModels> otherProjectModels,
+            Collection<GenericProjectProperties> incompleteProjects) {
         if (buildModels == null) throw new NullPointerException("buildModels");
         if (defaultProjectModels == null) throw new NullPointerException("defaultProjectModels");
 
         this.buildModels = buildModels;
         this.defaultProjectModels = defaultProjectModels;
         this.otherProjectModels = CollectionUtils.copyNullSafeList(otherProjectModels);
+        this.incompleteProjects = CollectionUtils.copyNullSafeList(incompleteProjects);
     }
 
     public CustomSerializedMap getBuildModels() {
@@ -35,4 +46,8 @@ final class ActionFetchedModels implements Serializable {
     public Collection<ActionFetchedProjectModels> getOtherProjectModels() {
         return otherProjectModels;
     }
+
+    public Collection<GenericProjectProperties> getIncompleteProjects() {
+        return incompleteProjects;
+    }
 }
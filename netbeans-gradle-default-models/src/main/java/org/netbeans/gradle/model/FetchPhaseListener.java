@@ -0,0 +1,45 @@
+package org.netbeans.gradle.model;
+
+/**
+ * Defines a listener which is notified when a phase of fetching models
+ * through {@link GenericModelFetcher} has completed. This is intended to be
+ * used for measuring where the time of fetching the models is spent.
+ * <P>
+ * The phases are reported in the following order:
+ * <ol>
+ * <li>{@link GenericModelFetcher#PHASE_BUILD_ACTION}: Executing the build
+ *   action in Gradle, including evaluating the build scripts.</li>
+ * <li>{@link GenericModelFetcher#PHASE_DESERIALIZE_RESULTS}: Deserializing
+ *   and transforming the models returned by the build action.</li>
+ * </ol>
+ * A phase is not reported if it did not complete normally (e.g.: the build
+ * action has thrown an exception).
+ * <P>
+ * The methods of this interface are called on the thread calling
+ * {@link GenericModelFetcher#getModels(org.gradle.tooling.ProjectConnection, OperationInitializer, FetchPhaseListener) GenericModelFetcher.getModels},
+ * before that method returns. Therefore implementations should return
+ * quickly and must not wait for the models being fetched.
+ *
+ * @see GenericModelFetcher#getModels(org.gradle.tooling.ProjectConnection, OperationInitializer, FetchPhaseListener, long)
+ */
+public interface FetchPhaseListener {
+    /**
+     * A {@code FetchPhaseListener} which does nothing when a phase has
+     * completed.
+     */
+    public static final FetchPhaseListener NO_OP = new FetchPhaseListener() {
+        public void onPhaseCompleted(String phaseName, long elapsedNanos) {
+        }
+    };
+
+    /**
+     * Called after a phase of fetching the models has completed.
+     *
+     * @param phaseName the name of the completed phase. This is one of the
+     *   {@code PHASE_*} constants of {@link GenericModelFetcher}. This
+     *   argument cannot be {@code null}.
+     * @param elapsedNanos the time the phase took in nanoseconds, measured by
+     *   {@code System.nanoTime()}
+     */
+    public void onPhaseCompleted(String phaseName, long elapsedNanos);
+}
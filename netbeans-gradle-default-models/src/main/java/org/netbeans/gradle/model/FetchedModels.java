@@ -14,11 +14,20 @@ public final class FetchedModels implements Serializable {
     private final FetchedBuildModels buildModels;
     private final FetchedProjectModels defaultProjectModels;
     private final Collection<FetchedProjectModels> otherProjectModels;
+    private final Collection<GenericProjectProperties> incompleteProjects;
 
     public FetchedModels(
             FetchedBuildModels buildModels,
             FetchedProjectModels defaultProjectModels,
             Collection<FetchedProjectModels> otherProjectModels) {
+        this(buildModels, defaultProjectModels, otherProjectModels, Collections.<GenericProjectProperties>emptyList());
+    }
+
+    public FetchedModels(
+            FetchedBuildModels buildModels,
+            FetchedProjectModels defaultProjectModels,
+            Collection<FetchedProjectModels> otherProjectModels,
+            Collection<GenericProjectProperties> incompleteProjects) {
         if (buildModels == null) throw new NullPointerException("buildModels");
         if (defaultProjectModels == null) throw new NullPointerException("defaultProjectModels");
 
@@ -26,6 +35,8 @@ public final class FetchedModels implements Serializable {
         this.defaultProjectModels = defaultProjectModels;
         this.otherProjectModels = Collections.unmodifiableList(new ArrayList<FetchedProjectModels>(otherProjectModels));
 
+        this.incompleteProjects = CollectionUtils.copyNullSafeList(incompleteProjects);
+
         CollectionUtils.checkNoNullElements(this.otherProjectModels, "otherProjectModels");
     }
 
@@ -44,4 +55,11 @@ public final class FetchedModels implements Serializable {
     public Collection<FetchedProjectModels> getOtherProjectModels() {
         return otherProjectModels;
     }
+
+    // The projects whose models were not fetched because the load did not
+    // complete before its deadline. These projects are not among the other
+    // project models.
+    public Collection<GenericProjectProperties> getIncompleteProjects() {
+        return incompleteProjects;
+    }
 }
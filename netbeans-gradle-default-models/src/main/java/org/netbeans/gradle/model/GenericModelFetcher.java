@@ -17,6 +17,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import org.gradle.tooling.BuildAction;
 import org.gradle.tooling.BuildActionExecuter;
@@ -43,6 +44,9 @@ public final class GenericModelFetcher {
     private static final Charset INIT_SCRIPT_ENCODING = Charset.forName("UTF-8");
     private static final String INIT_SCRIPT_LOCATION = "/org/netbeans/gradle/scripts/dynamic-model-init-script.gradle";
 
+    public static final String PHASE_BUILD_ACTION = "build-action";
+    public static final String PHASE_DESERIALIZE_RESULTS = "deserialize-results";
+
     private static final AtomicReference<String> INIT_SCRIPT_REF = new AtomicReference<String>(null);
 
     // key -> list of BuildInfoBuilder
@@ -92,13 +96,41 @@ public final class GenericModelFetcher {
         Collection<FetchedProjectModels> otherProjectModels
                 = transformActionModels(actionModels.getOtherProjectModels());
 
-        return new FetchedModels(new FetchedBuildModels(buildModels), defaultProjectModels, otherProjectModels);
+        return new FetchedModels(
+                new FetchedBuildModels(buildModels),
+                defaultProjectModels,
+                otherProjectModels,
+                actionModels.getIncompleteProjects());
     }
 
     public FetchedModels getModels(ProjectConnection connection, OperationInitializer init) throws IOException {
+        return getModels(connection, init, FetchPhaseListener.NO_OP);
+    }
+
+    public FetchedModels getModels(
+            ProjectConnection connection,
+            OperationInitializer init,
+            FetchPhaseListener phaseListener) throws IOException {
+        return getModels(connection, init, phaseListener, 0);
+    }
+
+    // If timeoutMillis is positive, the models of the projects other than the
+    // default project are only fetched until the given amount of time has
+    // elapsed since the build action was started. The projects left out are
+    // listed by FetchedModels.getIncompleteProjects(). Note that the deadline
+    // is only checked between projects, so it might be exceeded by the time
+    // needed to fetch the models of a single project.
+    public FetchedModels getModels(
+            ProjectConnection connection,
+            OperationInitializer init,
+            FetchPhaseListener phaseListener,
+            long timeoutMillis) throws IOException {
+        if (phaseListener == null) throw new NullPointerException("phaseListener");
+
         BuildActionExecuter<ActionFetchedModels> executer = connection.action(new ModelFetcherBuildAction(
                 buildInfoBuilders,
-                modelClasses));
+                modelClasses,
+                timeoutMillis));
 
         BuildOperationArgs buildOPArgs = new BuildOperationArgs();
         init.initOperation(buildOPArgs);
@@ -133,7 +165,14 @@ public final class GenericModelFetcher {
 
                 executer.withArguments(executerArgs);
 
-                return transformActionModels(executer.run());
+                long actionStartTime = System.nanoTime();
+                ActionFetchedModels actionModels = executer.run();
+                long deserializeStartTime = System.nanoTime();
+                phaseListener.onPhaseCompleted(PHASE_BUILD_ACTION, deserializeStartTime - actionStartTime);
+
+                FetchedModels result = transformActionModels(actionModels);
+                phaseListener.onPhaseCompleted(PHASE_DESERIALIZE_RESULTS, System.nanoTime() - deserializeStartTime);
+                return result;
             } finally {
                 initScriptRef.close();
             }
@@ -142,6 +181,29 @@ public final class GenericModelFetcher {
         }
     }
 
+    // Fetches only the project hierarchy. This is only cheap with Gradle
+    // versions executing build actions before configuring the projects:
+    // Older versions configure the whole build first, so this is as expensive
+    // as fetching the models. The returned trees do not contain the tasks of
+    // the projects.
+    public static GradleMultiProjectDef getProjectTree(
+            ProjectConnection connection,
+            OperationInitializer init,
+            File mainProjectDir) throws IOException {
+        if (connection == null) throw new NullPointerException("connection");
+        if (init == null) throw new NullPointerException("init");
+        if (mainProjectDir == null) throw new NullPointerException("mainProjectDir");
+
+        BuildActionExecuter<GradleMultiProjectDef> executer
+                = connection.action(new ProjectTreeBuildAction(mainProjectDir));
+
+        BuildOperationArgs buildOPArgs = new BuildOperationArgs();
+        init.initOperation(buildOPArgs);
+        buildOPArgs.setupLongRunningOP(executer);
+
+        return executer.run();
+    }
+
     private static String toPastableString(File file) {
         return toPastableString(file.getAbsolutePath());
     }
@@ -205,18 +267,50 @@ public final class GenericModelFetcher {
         return result;
     }
 
-    private static final class ModelFetcherBuildAction implements BuildAction<ActionFetchedModels> {
+    static final class ModelFetcherBuildAction implements BuildAction<ActionFetchedModels> {
         private static final long serialVersionUID = 1L;
 
         // key -> list of BuildInfoBuilder
         private final CustomSerializedMap.Deserializer serializedBuildInfoRequests;
         private final Set<Class<?>> modelClasses;
+        private final long timeoutMillis;
 
         public ModelFetcherBuildAction(
                 GradleInfoQueryMap buildInfoRequests,
                 Set<Class<?>> modelClasses) {
+            this(buildInfoRequests, modelClasses, 0);
+        }
+
+        public ModelFetcherBuildAction(
+                GradleInfoQueryMap buildInfoRequests,
+                Set<Class<?>> modelClasses,
+                long timeoutMillis) {
             this.serializedBuildInfoRequests = buildInfoRequests.getSerializableBuilderMap();
             this.modelClasses = modelClasses;
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        private boolean isTimedOut(long startTime) {
+            if (timeoutMillis <= 0) {
+                return false;
+            }
+
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            return elapsedMillis >= timeoutMillis;
+        }
+
+        private static GenericProjectProperties getProperties(
+                BasicGradleProject project,
+                Map<String, GradleProjectTree> projects) {
+            GradleProjectTree projectTree = projects.get(project.getPath());
+            if (projectTree != null) {
+                return projectTree.getGenericProperties();
+            }
+
+            return new GenericProjectProperties(
+                    project.getName(),
+                    project.getPath(),
+                    project.getProjectDirectory());
         }
 
         private ModelQueryOutput getModelOutput(ModelGetter getter) {
@@ -285,38 +379,13 @@ public final class GenericModelFetcher {
             return result;
         }
 
-        private static GradleProject findAssociatedGradleProject(
-                BasicGradleProject requiredProject,
-                GradleProject projectTree) {
-            String requiredPath = requiredProject.getPath();
-            if (requiredPath.equals(projectTree.getPath())) {
-                return projectTree;
-            }
-
-            return projectTree.findByPath(requiredPath);
-        }
-
-        // The reason why this method exists is because requesting
-        // GradleProject for a particular BasicGradleProject returns the
-        // root GradleProject instance (tested with 1.8 and 1.9).
-        private GradleProject getGradleProjectForBasicProject(
-                BuildController controller,
-                BasicGradleProject project) {
-            GradleProject gradleProject = controller.findModel(project, GradleProject.class);
-            if (gradleProject == null) {
-                return null;
-            }
-
-            return findAssociatedGradleProject(project, gradleProject);
-        }
-
         private Collection<GradleTaskID> getTasksOfProjects(
-                BuildController controller, BasicGradleProject project) {
+                GradleProjectIndex gradleProjects, BasicGradleProject project) {
 
             // TODO: Do not load tasks in later versions if the project is not
             //   evaluated.
 
-            GradleProject gradleProject = getGradleProjectForBasicProject(controller, project);
+            GradleProject gradleProject = gradleProjects.tryGetGradleProject(project);
             if (gradleProject == null) {
                 return Collections.emptyList();
             }
@@ -325,7 +394,7 @@ public final class GenericModelFetcher {
         }
 
         private GradleProjectTree parseTree(
-                BuildController controller,
+                GradleProjectIndex gradleProjects,
                 BasicGradleProject basicProject,
                 Map<String, GradleProjectTree> projects) {
 
@@ -333,7 +402,7 @@ public final class GenericModelFetcher {
             List<GradleProjectTree> children = new ArrayList<GradleProjectTree>(modelChildren.size());
 
             for (BasicGradleProject modelChild: modelChildren) {
-                children.add(parseTree(controller, modelChild, projects));
+                children.add(parseTree(gradleProjects, modelChild, projects));
             }
 
             GenericProjectProperties properties = new GenericProjectProperties(
@@ -341,7 +410,7 @@ public final class GenericModelFetcher {
                     basicProject.getPath(),
                     basicProject.getProjectDirectory());
 
-            Collection<GradleTaskID> tasks = getTasksOfProjects(controller, basicProject);
+            Collection<GradleTaskID> tasks = getTasksOfProjects(gradleProjects, basicProject);
 
             GradleProjectTree result = new GradleProjectTree(properties, tasks, children);
             projects.put(properties.getProjectFullName(), result);
@@ -349,6 +418,7 @@ public final class GenericModelFetcher {
         }
 
         public ActionFetchedModels execute(final BuildController controller) {
+            long startTime = System.nanoTime();
             GradleBuild buildModel = controller.getBuildModel();
 
             ClassLoader parentClassLoader = getClass().getClassLoader();
@@ -367,7 +437,8 @@ public final class GenericModelFetcher {
             }
 
             Map<String, GradleProjectTree> projectTrees = new HashMap<String, GradleProjectTree>(64);
-            GradleProjectTree rootTree = parseTree(controller, buildModel.getRootProject(), projectTrees);
+            GradleProjectIndex gradleProjects = new GradleProjectIndex(controller);
+            GradleProjectTree rootTree = parseTree(gradleProjects, buildModel.getRootProject(), projectTrees);
 
             ActionFetchedProjectModels defaultProjectModels = getFetchedProjectModels(rootTree, projectTrees, new ModelGetter() {
                 public <T> T findModel(Class<T> modelClass) {
@@ -375,8 +446,23 @@ public final class GenericModelFetcher {
                 }
             });
 
+            String defaultProjectPath = defaultProjectModels
+                    .getProjectDef()
+                    .getMainProject()
+                    .getGenericProperties()
+                    .getProjectFullName();
+
             List<ActionFetchedProjectModels> otherModels = new LinkedList<ActionFetchedProjectModels>();
+            List<GenericProjectProperties> incompleteProjects = new LinkedList<GenericProjectProperties>();
             for (final BasicGradleProject projectRef: buildModel.getProjects()) {
+                if (isTimedOut(startTime)) {
+                    // The models of the default project are already available.
+                    if (!defaultProjectPath.equals(projectRef.getPath())) {
+                        incompleteProjects.add(getProperties(projectRef, projectTrees));
+                    }
+                    continue;
+                }
+
                 ActionFetchedProjectModels otherModel = getFetchedProjectModels(rootTree, projectTrees, new ModelGetter() {
                     public <T> T findModel(Class<T> modelClass) {
                         return controller.findModel(projectRef, modelClass);
@@ -387,7 +473,117 @@ public final class GenericModelFetcher {
             }
 
             CustomSerializedMap buildModels = buildInfoResults.create();
-            return new ActionFetchedModels(buildModels, defaultProjectModels, otherModels);
+            return new ActionFetchedModels(buildModels, defaultProjectModels, otherModels, incompleteProjects);
+        }
+    }
+
+    static final class ProjectTreeBuildAction implements BuildAction<GradleMultiProjectDef> {
+        private static final long serialVersionUID = 1L;
+
+        private final File mainProjectDir;
+
+        public ProjectTreeBuildAction(File mainProjectDir) {
+            this.mainProjectDir = mainProjectDir;
+        }
+
+        private GradleProjectTree parseTree(BasicGradleProject basicProject, GradleProjectTree[] mainProjectRef) {
+            DomainObjectSet<? extends BasicGradleProject> modelChildren = basicProject.getChildren();
+            List<GradleProjectTree> children = new ArrayList<GradleProjectTree>(modelChildren.size());
+
+            for (BasicGradleProject modelChild: modelChildren) {
+                children.add(parseTree(modelChild, mainProjectRef));
+            }
+
+            GenericProjectProperties properties = new GenericProjectProperties(
+                    basicProject.getName(),
+                    basicProject.getPath(),
+                    basicProject.getProjectDirectory());
+
+            GradleProjectTree result = new GradleProjectTree(
+                    properties,
+                    Collections.<GradleTaskID>emptyList(),
+                    children);
+            if (mainProjectDir.equals(properties.getProjectDir())) {
+                mainProjectRef[0] = result;
+            }
+            return result;
+        }
+
+        public GradleMultiProjectDef execute(BuildController controller) {
+            GradleBuild buildModel = controller.getBuildModel();
+
+            GradleProjectTree[] mainProjectRef = new GradleProjectTree[1];
+            GradleProjectTree rootTree = parseTree(buildModel.getRootProject(), mainProjectRef);
+
+            GradleProjectTree mainProject = mainProjectRef[0];
+            return new GradleMultiProjectDef(rootTree, mainProject != null ? mainProject : rootTree);
+        }
+    }
+
+    // The reason why this class exists is because requesting GradleProject
+    // for a particular BasicGradleProject returns the root GradleProject
+    // instance (tested with 1.8 and 1.9). So it is enough to request it once
+    // and look up every other project by its path.
+    private static final class GradleProjectIndex {
+        private final BuildController controller;
+        private Map<String, GradleProject> projectsByPath;
+
+        public GradleProjectIndex(BuildController controller) {
+            this.controller = controller;
+            this.projectsByPath = null;
+        }
+
+        private static GradleProject getRoot(GradleProject project) {
+            GradleProject result = project;
+            GradleProject parent = result.getParent();
+            while (parent != null) {
+                result = parent;
+                parent = result.getParent();
+            }
+            return result;
+        }
+
+        private static void addToIndex(GradleProject project, Map<String, GradleProject> result) {
+            result.put(project.getPath(), project);
+            for (GradleProject child: project.getChildren()) {
+                addToIndex(child, result);
+            }
+        }
+
+        private static GradleProject findAssociatedGradleProject(
+                BasicGradleProject requiredProject,
+                GradleProject projectTree) {
+            String requiredPath = requiredProject.getPath();
+            if (requiredPath.equals(projectTree.getPath())) {
+                return projectTree;
+            }
+
+            return projectTree.findByPath(requiredPath);
+        }
+
+        public GradleProject tryGetGradleProject(BasicGradleProject project) {
+            if (projectsByPath == null) {
+                GradleProject gradleProject = controller.findModel(project, GradleProject.class);
+                if (gradleProject == null) {
+                    return null;
+                }
+
+                Map<String, GradleProject> index = new HashMap<String, GradleProject>(64);
+                addToIndex(getRoot(gradleProject), index);
+                projectsByPath = index;
+            }
+
+            GradleProject result = projectsByPath.get(project.getPath());
+            if (result != null) {
+                return result;
+            }
+
+            // Not expected but if the returned GradleProject was not the root
+            // after all, fall back to requesting the project itself.
+            GradleProject gradleProject = controller.findModel(project, GradleProject.class);
+            return gradleProject != null
+                    ? findAssociatedGradleProject(project, gradleProject)
+                    : null;
         }
     }
 
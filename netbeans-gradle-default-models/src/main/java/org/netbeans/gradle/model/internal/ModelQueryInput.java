@@ -1,8 +1,11 @@
 package org.netbeans.gradle.model.internal;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import org.netbeans.gradle.model.util.CollectionUtils;
 
 public final class ModelQueryInput implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -10,12 +13,33 @@ public final class ModelQueryInput implements Serializable {
     // Object -> List of ProjectInfoBuilder<?>
     private final CustomSerializedMap.Deserializer projectInfoRequests;
 
+    // The same input is used for every project of the build, so the builders
+    // are only deserialized once (for the last requested parent class loader).
+    private transient ClassLoader cachedParent;
+    private transient Map<Object, List<?>> cachedRequests;
+
     public ModelQueryInput(CustomSerializedMap.Deserializer projectInfoRequests) {
         if (projectInfoRequests == null) throw new NullPointerException("projectInfoRequests");
         this.projectInfoRequests = projectInfoRequests;
+        this.cachedParent = null;
+        this.cachedRequests = null;
+    }
+
+    private static Map<Object, List<?>> toUnmodifiable(Map<Object, List<?>> requests) {
+        Map<Object, List<?>> result = CollectionUtils.newHashMap(requests.size());
+        for (Map.Entry<Object, List<?>> entry: requests.entrySet()) {
+            result.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<Object>(entry.getValue())));
+        }
+        return Collections.unmodifiableMap(result);
     }
 
-    public Map<Object, List<?>> getProjectInfoRequests(ClassLoader parent) {
-        return projectInfoRequests.deserialize(parent);
+    // The returned builders are shared by all the projects, so they must not
+    // keep state between the projects.
+    public synchronized Map<Object, List<?>> getProjectInfoRequests(ClassLoader parent) {
+        if (cachedRequests == null || cachedParent != parent) {
+            cachedRequests = toUnmodifiable(projectInfoRequests.deserialize(parent));
+            cachedParent = parent;
+        }
+        return cachedRequests;
     }
 }
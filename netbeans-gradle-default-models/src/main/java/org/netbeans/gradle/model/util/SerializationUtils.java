@@ -2,18 +2,22 @@ package org.netbeans.gradle.model.util;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
 
 public final class SerializationUtils {
     public static byte[] serializeObject(Object object) {
         ByteArrayOutputStream output = new ByteArrayOutputStream(2048);
 
         try {
-            ObjectOutputStream objOutput = new ObjectOutputStream(output);
+            ObjectOutputStream objOutput = new InterningObjectOutputStream(output);
             objOutput.writeObject(object);
             objOutput.close();
         } catch (IOException ex) {
@@ -47,6 +51,41 @@ public final class SerializationUtils {
         }
     }
 
+    // Replaces strings and files with the first equal instance written to the
+    // stream, so that repeated values (e.g.: the paths of the dependencies of
+    // different source sets) are only written once and later occurrences are
+    // written as a reference. The output can be read by any ObjectInputStream.
+    private static final class InterningObjectOutputStream extends ObjectOutputStream {
+        private final Map<Object, Object> writtenValues;
+
+        public InterningObjectOutputStream(OutputStream output) throws IOException {
+            super(output);
+
+            this.writtenValues = new HashMap<Object, Object>();
+            enableReplaceObject(true);
+        }
+
+        private static boolean isInternable(Object obj) {
+            Class<?> objClass = obj.getClass();
+            return objClass == String.class || objClass == File.class;
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) throws IOException {
+            if (obj == null || !isInternable(obj)) {
+                return obj;
+            }
+
+            Object prevValue = writtenValues.get(obj);
+            if (prevValue != null) {
+                return prevValue;
+            }
+
+            writtenValues.put(obj, obj);
+            return obj;
+        }
+    }
+
     private static final class CustomClassObjectInputStream extends ObjectInputStream {
         private final ClassLoader classLoader;
 
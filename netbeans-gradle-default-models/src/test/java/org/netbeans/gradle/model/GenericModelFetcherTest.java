@@ -0,0 +1,230 @@
+package org.netbeans.gradle.model;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import org.gradle.tooling.BuildController;
+import org.gradle.tooling.model.DomainObjectSet;
+import org.gradle.tooling.model.GradleProject;
+import org.gradle.tooling.model.GradleTask;
+import org.gradle.tooling.model.gradle.BasicGradleProject;
+import org.gradle.tooling.model.gradle.GradleBuild;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.netbeans.gradle.model.internal.CustomSerializedMap;
+import org.netbeans.gradle.model.internal.ModelQueryOutput;
+import org.netbeans.gradle.model.internal.ModelQueryOutputRef;
+import org.netbeans.gradle.model.util.SerializationUtils;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+public class GenericModelFetcherTest {
+    @SuppressWarnings("unchecked")
+    private static <T> DomainObjectSet<T> domainObjectSet(final List<T> elements) {
+        DomainObjectSet<T> result = mock(DomainObjectSet.class);
+        when(result.iterator()).thenAnswer(new Answer<Iterator<T>>() {
+            public Iterator<T> answer(InvocationOnMock invocation) {
+                return elements.iterator();
+            }
+        });
+        when(result.size()).thenReturn(elements.size());
+        when(result.isEmpty()).thenReturn(elements.isEmpty());
+        when(result.getAll()).thenReturn(elements);
+        return result;
+    }
+
+    private static BasicGradleProject basicProject(String name, String path, List<BasicGradleProject> children) {
+        BasicGradleProject result = mock(BasicGradleProject.class);
+        when(result.getName()).thenReturn(name);
+        when(result.getPath()).thenReturn(path);
+        when(result.getProjectDirectory()).thenReturn(new File(name));
+        doReturn(domainObjectSet(children)).when(result).getChildren();
+        return result;
+    }
+
+    private static String buildTaskPath(String projectPath) {
+        return projectPath.endsWith(":") ? projectPath + "build" : projectPath + ":build";
+    }
+
+    private static GradleProject gradleProject(String path, GradleProject parent) {
+        GradleTask task = mock(GradleTask.class);
+        when(task.getName()).thenReturn("build");
+        when(task.getPath()).thenReturn(buildTaskPath(path));
+
+        GradleProject result = mock(GradleProject.class);
+        when(result.getPath()).thenReturn(path);
+        when(result.getParent()).thenReturn(parent);
+        doReturn(domainObjectSet(Collections.singletonList(task))).when(result).getTasks();
+        return result;
+    }
+
+    private static ModelQueryOutputRef queryOutputRef(String projectPath) {
+        CustomSerializedMap projectInfoResults = new CustomSerializedMap.Builder(0).create();
+        ModelQueryOutput output = new ModelQueryOutput(projectPath, projectInfoResults, null);
+        final byte[] serializedOutput = SerializationUtils.serializeObject(output);
+
+        return new ModelQueryOutputRef() {
+            public byte[] getSerializedModelQueryOutput() {
+                return serializedOutput;
+            }
+        };
+    }
+
+    private static Answer<ModelQueryOutputRef> delayedQueryOutputRef(String projectPath, final long delayMillis) {
+        final ModelQueryOutputRef result = queryOutputRef(projectPath);
+        return new Answer<ModelQueryOutputRef>() {
+            public ModelQueryOutputRef answer(InvocationOnMock invocation) throws InterruptedException {
+                Thread.sleep(delayMillis);
+                return result;
+            }
+        };
+    }
+
+    private static ActionFetchedModels executeForSubprojects(int subprojectCount, BuildController controller) {
+        return executeForSubprojects(subprojectCount, controller, 0, 0);
+    }
+
+    private static ActionFetchedModels executeForSubprojects(
+            int subprojectCount,
+            BuildController controller,
+            long fetchDelayMillis,
+            long timeoutMillis) {
+        List<BasicGradleProject> basicChildren = new ArrayList<BasicGradleProject>(subprojectCount);
+        for (int i = 0; i < subprojectCount; i++) {
+            String name = "sub" + i;
+            BasicGradleProject basicChild = basicProject(name, ":" + name, Collections.<BasicGradleProject>emptyList());
+            basicChildren.add(basicChild);
+
+            when(controller.findModel(basicChild, ModelQueryOutputRef.class))
+                    .thenAnswer(delayedQueryOutputRef(":" + name, fetchDelayMillis));
+        }
+        BasicGradleProject basicRoot = basicProject("root", ":", basicChildren);
+
+        List<BasicGradleProject> allBasicProjects = new ArrayList<BasicGradleProject>(basicChildren);
+        allBasicProjects.add(basicRoot);
+
+        GradleBuild buildModel = mock(GradleBuild.class);
+        when(buildModel.getRootProject()).thenReturn(basicRoot);
+        doReturn(domainObjectSet(allBasicProjects)).when(buildModel).getProjects();
+
+        GradleProject root = gradleProject(":", null);
+        List<GradleProject> children = new ArrayList<GradleProject>(subprojectCount);
+        for (int i = 0; i < subprojectCount; i++) {
+            GradleProject child = gradleProject(":sub" + i, root);
+            doReturn(domainObjectSet(Collections.<GradleProject>emptyList())).when(child).getChildren();
+            children.add(child);
+        }
+        doReturn(domainObjectSet(children)).when(root).getChildren();
+
+        when(controller.getBuildModel()).thenReturn(buildModel);
+        when(controller.findModel(ModelQueryOutputRef.class)).thenReturn(queryOutputRef(":"));
+        when(controller.findModel(basicRoot, ModelQueryOutputRef.class)).thenReturn(queryOutputRef(":"));
+        when(controller.findModel(any(BasicGradleProject.class), eq(GradleProject.class))).thenReturn(root);
+
+        GradleInfoQueryMap buildInfoRequests
+                = GradleInfoQueryMap.fromBuildInfos(new HashMap<Object, List<GradleBuildInfoQuery<?>>>());
+        GenericModelFetcher.ModelFetcherBuildAction action = new GenericModelFetcher.ModelFetcherBuildAction(
+                buildInfoRequests,
+                Collections.<Class<?>>emptySet(),
+                timeoutMillis);
+        return action.execute(controller);
+    }
+
+    @Test
+    public void testGradleProjectIsRequestedOnce() {
+        int subprojectCount = 100;
+
+        BuildController controller = mock(BuildController.class);
+        executeForSubprojects(subprojectCount, controller);
+
+        verify(controller, times(1)).findModel(any(BasicGradleProject.class), eq(GradleProject.class));
+    }
+
+    @Test
+    public void testTasksAreAssignedToTheirProjects() {
+        int subprojectCount = 10;
+
+        BuildController controller = mock(BuildController.class);
+        ActionFetchedModels models = executeForSubprojects(subprojectCount, controller);
+
+        GradleProjectTree rootTree = models.getDefaultProjectModels().getProjectDef().getRootProject();
+        assertEquals(":build", rootTree.getTasks().iterator().next().getFullName());
+
+        Collection<GradleProjectTree> childTrees = rootTree.getChildren();
+        assertEquals(subprojectCount, childTrees.size());
+        for (GradleProjectTree childTree: childTrees) {
+            String expectedTask = buildTaskPath(childTree.getGenericProperties().getProjectFullName());
+            assertEquals(expectedTask, childTree.getTasks().iterator().next().getFullName());
+        }
+
+        assertEquals(subprojectCount + 1, models.getOtherProjectModels().size());
+    }
+
+    @Test
+    public void testNoProjectIsIncompleteWithoutTimeout() {
+        BuildController controller = mock(BuildController.class);
+        ActionFetchedModels models = executeForSubprojects(5, controller, 1, 0);
+
+        assertEquals(6, models.getOtherProjectModels().size());
+        assertTrue(models.getIncompleteProjects().isEmpty());
+    }
+
+    @Test
+    public void testProjectsAfterTheDeadlineAreIncomplete() {
+        int subprojectCount = 10;
+
+        BuildController controller = mock(BuildController.class);
+        ActionFetchedModels models = executeForSubprojects(subprojectCount, controller, 20, 10);
+
+        Set<String> fetchedProjects = new HashSet<String>();
+        for (ActionFetchedProjectModels projectModels: models.getOtherProjectModels()) {
+            fetchedProjects.add(projectModels.getProjectDef().getMainProject().getGenericProperties().getProjectFullName());
+        }
+
+        Set<String> incompleteProjects = new HashSet<String>();
+        for (GenericProjectProperties properties: models.getIncompleteProjects()) {
+            incompleteProjects.add(properties.getProjectFullName());
+        }
+
+        assertFalse("Incomplete projects", incompleteProjects.isEmpty());
+        assertFalse("The default project is always fetched", incompleteProjects.contains(":"));
+        assertEquals(":", models.getDefaultProjectModels().getProjectDef().getMainProject().getGenericProperties().getProjectFullName());
+
+        for (int i = 0; i < subprojectCount; i++) {
+            String path = ":sub" + i;
+            assertTrue(path, fetchedProjects.contains(path) ^ incompleteProjects.contains(path));
+        }
+    }
+
+    @Test
+    public void testProjectTreeDoesNotRequireGradleProject() {
+        BasicGradleProject basicChild = basicProject("sub", ":sub", Collections.<BasicGradleProject>emptyList());
+        BasicGradleProject basicRoot = basicProject("root", ":", Collections.singletonList(basicChild));
+
+        GradleBuild buildModel = mock(GradleBuild.class);
+        when(buildModel.getRootProject()).thenReturn(basicRoot);
+
+        BuildController controller = mock(BuildController.class);
+        when(controller.getBuildModel()).thenReturn(buildModel);
+
+        GenericModelFetcher.ProjectTreeBuildAction action
+                = new GenericModelFetcher.ProjectTreeBuildAction(new File("sub"));
+        GradleMultiProjectDef projectDef = action.execute(controller);
+
+        assertEquals(":", projectDef.getRootProject().getGenericProperties().getProjectFullName());
+        assertEquals(":sub", projectDef.getMainProject().getGenericProperties().getProjectFullName());
+        assertTrue(projectDef.getMainProject().getTasks().isEmpty());
+
+        verify(controller, never()).findModel(any(BasicGradleProject.class), eq(GradleProject.class));
+        verify(controller, never()).findModel(eq(GradleProject.class));
+    }
+}
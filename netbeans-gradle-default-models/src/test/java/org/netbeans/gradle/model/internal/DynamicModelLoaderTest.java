@@ -0,0 +1,84 @@
+package org.netbeans.gradle.model.internal;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.gradle.api.Project;
+import org.junit.Test;
+import org.netbeans.gradle.model.api.ProjectInfoBuilder;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class DynamicModelLoaderTest {
+    private static Project mockProject(String path) {
+        Project project = mock(Project.class);
+        when(project.getPath()).thenReturn(path);
+        return project;
+    }
+
+    // Simulates the init script which registers a separate loader for every
+    // project but with the same input.
+    private static void buildAllProjects(ModelQueryInput input, int projectCount) {
+        ClassLoader classLoader = DynamicModelLoaderTest.class.getClassLoader();
+        for (int i = 0; i < projectCount; i++) {
+            DynamicModelLoader loader = new DynamicModelLoader(input, classLoader);
+            assertNotNull(loader.buildAll(ModelQueryOutputRef.class.getName(), mockProject(":project" + i)));
+        }
+    }
+
+    private static void testDeserializedOnce(int projectCount) {
+        CountingBuilder builder = new CountingBuilder();
+        CountingDeserializer deserializer = new CountingDeserializer(builder);
+
+        buildAllProjects(new ModelQueryInput(deserializer), projectCount);
+
+        assertEquals(1, deserializer.deserializeCount.get());
+        assertEquals(projectCount, builder.callCount.get());
+    }
+
+    @Test
+    public void testBuildersAreDeserializedOnceForSingleProject() {
+        testDeserializedOnce(1);
+    }
+
+    @Test
+    public void testBuildersAreDeserializedOnceForManyProjects() {
+        testDeserializedOnce(100);
+    }
+
+    private static final class CountingDeserializer implements CustomSerializedMap.Deserializer {
+        private final ProjectInfoBuilder<?> builder;
+        private final AtomicInteger deserializeCount;
+
+        public CountingDeserializer(ProjectInfoBuilder<?> builder) {
+            this.builder = builder;
+            this.deserializeCount = new AtomicInteger(0);
+        }
+
+        public Map<Object, List<?>> deserialize(ClassLoader parent) {
+            deserializeCount.incrementAndGet();
+
+            Map<Object, List<?>> result = new HashMap<Object, List<?>>();
+            result.put("key", Collections.singletonList(builder));
+            return result;
+        }
+    }
+
+    private static final class CountingBuilder implements ProjectInfoBuilder<String> {
+        private static final long serialVersionUID = 1L;
+
+        private final AtomicInteger callCount = new AtomicInteger(0);
+
+        public String getProjectInfo(Project project) {
+            callCount.incrementAndGet();
+            return project.getPath();
+        }
+
+        public String getName() {
+            return "CountingBuilder";
+        }
+    }
+}
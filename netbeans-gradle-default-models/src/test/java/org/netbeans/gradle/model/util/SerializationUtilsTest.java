@@ -0,0 +1,139 @@
+package org.netbeans.gradle.model.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.junit.Test;
+import org.netbeans.gradle.model.GradleTaskID;
+import org.netbeans.gradle.model.java.JavaClassPaths;
+import org.netbeans.gradle.model.java.JavaOutputDirs;
+import org.netbeans.gradle.model.java.JavaSourceGroup;
+import org.netbeans.gradle.model.java.JavaSourceGroupName;
+import org.netbeans.gradle.model.java.JavaSourceSet;
+import org.netbeans.gradle.model.java.JavaSourcesModel;
+
+import static org.junit.Assert.*;
+
+public class SerializationUtilsTest {
+    private static final Logger LOGGER = Logger.getLogger(SerializationUtilsTest.class.getName());
+
+    private static final int JAR_COUNT = 200;
+    private static final int PROJECT_COUNT = 20;
+
+    private static final File PROJECT_DIR = new File("project");
+    private static final File CACHE_DIR = new File(new File(".gradle", "caches"), "modules-2");
+
+    // Creates new File instances on every call, like the models built by
+    // Gradle do.
+    private static List<File> createClassPath() {
+        List<File> result = new ArrayList<File>(JAR_COUNT);
+        for (int i = 0; i < JAR_COUNT; i++) {
+            File artifactDir = new File(new File(CACHE_DIR, "org.example" + i), "artifact" + i);
+            result.add(new File(artifactDir, "artifact" + i + "-1.0.jar"));
+        }
+        return result;
+    }
+
+    private static JavaSourceSet createSourceSet(String name) {
+        File buildDir = new File(PROJECT_DIR, "build");
+        JavaOutputDirs outputDirs = new JavaOutputDirs(
+                new File(new File(buildDir, "classes"), name),
+                new File(new File(buildDir, "resources"), name),
+                Collections.<File>emptyList());
+
+        JavaSourceSet.Builder result = new JavaSourceSet.Builder(name, outputDirs);
+        File sourceDir = new File(new File(PROJECT_DIR, "src"), name);
+        result.addSourceGroup(new JavaSourceGroup(
+                JavaSourceGroupName.JAVA,
+                Collections.singleton(new File(sourceDir, "java"))));
+        result.setClasspaths(new JavaClassPaths(createClassPath(), createClassPath()));
+        return result.create();
+    }
+
+    private static List<Object> createModels() {
+        List<Object> result = new ArrayList<Object>();
+        result.add(new JavaSourcesModel(Arrays.asList(
+                createSourceSet(JavaSourceSet.NAME_MAIN),
+                createSourceSet(JavaSourceSet.NAME_TEST))));
+
+        List<GradleTaskID> tasks = new ArrayList<GradleTaskID>();
+        for (int i = 0; i < PROJECT_COUNT; i++) {
+            for (String taskName: Arrays.asList("build", "clean", "compileJava", "test", "javadoc")) {
+                tasks.add(new GradleTaskID(new String(taskName), ":project" + i + ":" + taskName));
+            }
+        }
+        result.add(tasks);
+        return result;
+    }
+
+    private static byte[] serializeWithoutInterning(Object object) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(2048);
+        ObjectOutputStream objOutput = new ObjectOutputStream(output);
+        objOutput.writeObject(object);
+        objOutput.close();
+        return output.toByteArray();
+    }
+
+    private static long measureDecodeNanos(byte[] serialized) throws Exception {
+        long startTime = System.nanoTime();
+        SerializationUtils.deserializeObject(serialized);
+        return System.nanoTime() - startTime;
+    }
+
+    private static Collection<File> getClassPaths(List<?> models) {
+        JavaSourcesModel sourcesModel = (JavaSourcesModel)models.get(0);
+        List<File> result = new ArrayList<File>();
+        for (JavaSourceSet sourceSet: sourcesModel.getSourceSets()) {
+            result.addAll(sourceSet.getClasspaths().getCompileClasspaths());
+            result.addAll(sourceSet.getClasspaths().getRuntimeClasspaths());
+        }
+        return result;
+    }
+
+    @Test
+    public void testRepeatedValuesAreWrittenOnce() throws Exception {
+        List<Object> models = createModels();
+
+        byte[] plain = serializeWithoutInterning(models);
+        byte[] interned = SerializationUtils.serializeObject(models);
+
+        // Decode both once before measuring, so that class loading is not
+        // included in the measured times.
+        measureDecodeNanos(plain);
+        measureDecodeNanos(interned);
+
+        LOGGER.log(Level.INFO, "Serialized models: {0} bytes (decoded in {1} us), without interning: {2} bytes (decoded in {3} us)",
+                new Object[]{
+                    interned.length, TimeUnit.NANOSECONDS.toMicros(measureDecodeNanos(interned)),
+                    plain.length, TimeUnit.NANOSECONDS.toMicros(measureDecodeNanos(plain))});
+
+        assertTrue("Interned size " + interned.length + " vs. " + plain.length,
+                interned.length * 2 < plain.length);
+
+        List<?> deserialized = (List<?>)SerializationUtils.deserializeObject(interned);
+        Collection<File> classPaths = getClassPaths(deserialized);
+        assertEquals(new ArrayList<File>(getClassPaths(models)), classPaths);
+
+        Map<File, Boolean> distinctInstances = new IdentityHashMap<File, Boolean>();
+        for (File file: classPaths) {
+            distinctInstances.put(file, Boolean.TRUE);
+        }
+        assertEquals(JAR_COUNT, distinctInstances.size());
+
+        @SuppressWarnings("unchecked")
+        List<GradleTaskID> tasks = (List<GradleTaskID>)deserialized.get(1);
+        assertEquals(PROJECT_COUNT * 5, tasks.size());
+        assertEquals(":project3:test", tasks.get(3 * 5 + 3).getFullName());
+    }
+}
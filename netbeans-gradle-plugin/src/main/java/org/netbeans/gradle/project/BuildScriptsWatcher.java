@@ -0,0 +1,294 @@
+package org.netbeans.gradle.project;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.netbeans.gradle.project.model.NbGradleModel;
+import org.netbeans.gradle.project.properties.GlobalGradleSettings;
+import org.openide.filesystems.FileAttributeEvent;
+import org.openide.filesystems.FileChangeListener;
+import org.openide.filesystems.FileEvent;
+import org.openide.filesystems.FileRenameEvent;
+import org.openide.filesystems.FileUtil;
+import org.openide.util.RequestProcessor;
+
+// Reloads an opened project when one of the files which might affect its
+// model changes. Changes are collected per root build and the reload is only
+// started after no changes were seen for QUIET_PERIOD_MS milliseconds, so that
+// saving many build scripts at once (e.g.: VCS update) causes only a single
+// reload of the build.
+final class BuildScriptsWatcher {
+    private static final Logger LOGGER = Logger.getLogger(BuildScriptsWatcher.class.getName());
+
+    private static final int QUIET_PERIOD_MS = 2000;
+
+    private static final ReloadScheduler RELOAD_SCHEDULER = new ReloadScheduler(
+            new RequestProcessor("Gradle-Script-Change-Reloader", 1, true),
+            QUIET_PERIOD_MS);
+
+    private final NbGradleProject project;
+    private final FileChangeListener listener;
+
+    private final Lock mainLock;
+    private final List<File> watchedFiles;
+    private File watchedBuildSrc;
+
+    public BuildScriptsWatcher(NbGradleProject project) {
+        if (project == null) throw new NullPointerException("project");
+
+        this.project = project;
+        this.mainLock = new ReentrantLock();
+        this.watchedFiles = new ArrayList<File>();
+        this.watchedBuildSrc = null;
+        this.listener = new ScriptChangeListener();
+    }
+
+    private static File getRootBuildKey(File projectDir) {
+        File settingsFile = NbGradleModel.findSettingsGradle(projectDir);
+        return settingsFile != null ? settingsFile : projectDir;
+    }
+
+    private static File getRootDir(File rootBuildKey) {
+        return rootBuildKey.isDirectory() ? rootBuildKey : rootBuildKey.getParentFile();
+    }
+
+    // The files are watched even if they do not exist, because creating them
+    // might change the model (e.g.: a settings file might turn the project
+    // into a subproject). The build script of the root project is watched as
+    // well because it might configure the subprojects.
+    static List<File> getWatchedFiles(File projectDir, File rootDir) {
+        if (projectDir == null) throw new NullPointerException("projectDir");
+
+        List<File> files = new ArrayList<File>();
+        files.add(new File(projectDir, GradleProjectConstants.BUILD_FILE_NAME));
+        files.add(new File(projectDir, projectDir.getName() + GradleProjectConstants.DEFAULT_GRADLE_EXTENSION));
+        files.add(new File(projectDir, GradleProjectConstants.GRADLE_PROPERTIES_NAME));
+        files.add(new File(projectDir, GradleProjectConstants.SETTINGS_FILE_NAME));
+        if (rootDir != null && !rootDir.equals(projectDir)) {
+            files.add(new File(rootDir, GradleProjectConstants.BUILD_FILE_NAME));
+            files.add(new File(rootDir, GradleProjectConstants.SETTINGS_FILE_NAME));
+            files.add(new File(rootDir, GradleProjectConstants.GRADLE_PROPERTIES_NAME));
+        }
+        return files;
+    }
+
+    public void start() {
+        File projectDir = project.getProjectDirectoryAsFile();
+        File rootDir = getRootDir(getRootBuildKey(projectDir));
+
+        List<File> files = getWatchedFiles(projectDir, rootDir);
+
+        File buildSrc = new File(rootDir != null ? rootDir : projectDir, GradleProjectConstants.BUILD_SRC_NAME);
+
+        mainLock.lock();
+        try {
+            stopUnlocked();
+
+            for (File file: files) {
+                FileUtil.addFileChangeListener(listener, file);
+                watchedFiles.add(file);
+            }
+
+            // buildSrc is watched even if it does not exist yet because
+            // creating it changes the build.
+            FileUtil.addRecursiveListener(listener, buildSrc);
+            watchedBuildSrc = buildSrc;
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    public void stop() {
+        mainLock.lock();
+        try {
+            stopUnlocked();
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    private void stopUnlocked() {
+        for (File file: watchedFiles) {
+            try {
+                FileUtil.removeFileChangeListener(listener, file);
+            } catch (IllegalArgumentException ex) {
+                LOGGER.log(Level.FINE, "Listener was not registered for " + file, ex);
+            }
+        }
+        watchedFiles.clear();
+
+        if (watchedBuildSrc != null) {
+            try {
+                FileUtil.removeRecursiveListener(listener, watchedBuildSrc);
+            } catch (IllegalArgumentException ex) {
+                LOGGER.log(Level.FINE, "Listener was not registered for " + watchedBuildSrc, ex);
+            }
+            watchedBuildSrc = null;
+        }
+    }
+
+    // A null changedFile means that the changed file is unknown.
+    static boolean isRelevantChange(File changedFile, List<File> watchedFiles, File buildSrc) {
+        if (changedFile == null || watchedFiles.contains(changedFile)) {
+            return true;
+        }
+        if (buildSrc == null) {
+            return false;
+        }
+        if (changedFile.equals(buildSrc)) {
+            return true;
+        }
+
+        // Loading the project builds buildSrc, so changes in its output
+        // directories must not trigger another reload.
+        String buildSrcPath = buildSrc.getPath() + File.separator;
+        String changedPath = changedFile.getPath();
+        if (changedPath.startsWith(buildSrcPath)) {
+            String relativePath = changedPath.substring(buildSrcPath.length());
+            return !relativePath.startsWith("build" + File.separator)
+                    && !relativePath.startsWith(".gradle" + File.separator)
+                    && !relativePath.equals("build")
+                    && !relativePath.equals(".gradle");
+        }
+        return false;
+    }
+
+    private boolean isRelevantChange(FileEvent event) {
+        File changedFile = FileUtil.toFile(event.getFile());
+
+        mainLock.lock();
+        try {
+            return isRelevantChange(changedFile, watchedFiles, watchedBuildSrc);
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    private void scheduleReload() {
+        if (!GlobalGradleSettings.getReloadOnScriptChange().getValue()) {
+            return;
+        }
+
+        File rootBuildKey = getRootBuildKey(project.getProjectDirectoryAsFile());
+        RELOAD_SCHEDULER.scheduleReload(rootBuildKey, new Runnable() {
+            @Override
+            public void run() {
+                LOGGER.log(Level.INFO, "Reloading {0} because its build scripts have changed.",
+                        project.getProjectDirectoryAsFile());
+                project.reloadProject();
+            }
+        });
+    }
+
+    // Runs the last reload task scheduled for a root build after no reload
+    // was scheduled for that build for quietPeriodMs milliseconds. Only one
+    // project of the build needs to be reloaded because a load provides the
+    // models of all the projects of the build.
+    static final class ReloadScheduler {
+        private final RequestProcessor processor;
+        private final int quietPeriodMs;
+
+        private final Lock mainLock;
+        private final Map<File, PendingReload> pendingReloads;
+
+        public ReloadScheduler(RequestProcessor processor, int quietPeriodMs) {
+            if (processor == null) throw new NullPointerException("processor");
+
+            this.processor = processor;
+            this.quietPeriodMs = quietPeriodMs;
+            this.mainLock = new ReentrantLock();
+            this.pendingReloads = new HashMap<File, PendingReload>();
+        }
+
+        public void scheduleReload(File rootBuildKey, Runnable reloadTask) {
+            if (rootBuildKey == null) throw new NullPointerException("rootBuildKey");
+            if (reloadTask == null) throw new NullPointerException("reloadTask");
+
+            mainLock.lock();
+            try {
+                PendingReload pendingReload = pendingReloads.get(rootBuildKey);
+                if (pendingReload == null) {
+                    pendingReload = new PendingReload(rootBuildKey);
+                    pendingReloads.put(rootBuildKey, pendingReload);
+                }
+                pendingReload.reloadTask = reloadTask;
+                pendingReload.task.schedule(quietPeriodMs);
+            } finally {
+                mainLock.unlock();
+            }
+        }
+
+        private final class PendingReload implements Runnable {
+            private final File rootBuildKey;
+            private final RequestProcessor.Task task;
+            private Runnable reloadTask;
+
+            public PendingReload(File rootBuildKey) {
+                this.rootBuildKey = rootBuildKey;
+                this.task = processor.create(this);
+                this.reloadTask = null;
+            }
+
+            @Override
+            public void run() {
+                Runnable toRun;
+                mainLock.lock();
+                try {
+                    if (pendingReloads.get(rootBuildKey) == this) {
+                        pendingReloads.remove(rootBuildKey);
+                    }
+                    toRun = reloadTask;
+                } finally {
+                    mainLock.unlock();
+                }
+
+                if (toRun != null) {
+                    toRun.run();
+                }
+            }
+        }
+    }
+
+    private final class ScriptChangeListener implements FileChangeListener {
+        private void onChange(FileEvent event) {
+            if (isRelevantChange(event)) {
+                scheduleReload();
+            }
+        }
+
+        @Override
+        public void fileFolderCreated(FileEvent fe) {
+            onChange(fe);
+        }
+
+        @Override
+        public void fileDataCreated(FileEvent fe) {
+            onChange(fe);
+        }
+
+        @Override
+        public void fileChanged(FileEvent fe) {
+            onChange(fe);
+        }
+
+        @Override
+        public void fileDeleted(FileEvent fe) {
+            onChange(fe);
+        }
+
+        @Override
+        public void fileRenamed(FileRenameEvent fe) {
+            onChange(fe);
+        }
+
+        @Override
+        public void fileAttributeChanged(FileAttributeEvent fe) {
+        }
+    }
+}
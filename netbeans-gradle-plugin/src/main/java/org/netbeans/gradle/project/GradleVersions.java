@@ -6,6 +6,7 @@ public final class GradleVersions {
     public static final GradleVersion VERSION_1_7 = GradleVersion.version("1.7");
     public static final GradleVersion VERSION_1_8_RC_1 = GradleVersion.version("1.8-rc-1");
     public static final GradleVersion VERSION_1_8 = GradleVersion.version("1.8");
+    public static final GradleVersion VERSION_8_0 = GradleVersion.version("8.0");
 
     private GradleVersions() {
         throw new AssertionError();
@@ -1,6 +1,8 @@
 package org.netbeans.gradle.project;
 
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.netbeans.gradle.project.api.entry.GradleProjectExtension2;
@@ -19,6 +21,7 @@ public final class NbGradleExtensionRef {
     private final DynamicLookup extensionLookup;
     private final DynamicLookup projectLookup;
     private final AtomicBoolean activeState;
+    private final Lock parseLock;
 
     public <ModelType> NbGradleExtensionRef(
             GradleProjectExtensionDef<ModelType> extensionDef,
@@ -36,6 +39,7 @@ public final class NbGradleExtensionRef {
         this.projectLookup = new DynamicLookup(extension.getPermanentProjectLookup());
         this.extensionLookup = new DynamicLookup();
         this.activeState = new AtomicBoolean(false);
+        this.parseLock = new ReentrantLock();
     }
 
     private static void checkExtensionName(String name, GradleProjectExtensionDef<?> def) {
@@ -93,10 +97,23 @@ public final class NbGradleExtensionRef {
         }
     }
 
+    // The projects of a build might be parsed concurrently but only the
+    // bundled extensions are known to support this, so the calls of other
+    // extensions are serialized.
     public ParsedModel<?> parseModel(ModelLoadResult retrievedModels) {
         if (retrievedModels == null) throw new NullPointerException("retrievedModels");
 
-        return safelyReturn(getExtensionDef().parseModel(retrievedModels));
+        GradleProjectExtensionDef<?> extensionDef = getExtensionDef();
+        if (extensionDef instanceof ThreadSafeExtensionDef) {
+            return safelyReturn(extensionDef.parseModel(retrievedModels));
+        }
+
+        parseLock.lock();
+        try {
+            return safelyReturn(extensionDef.parseModel(retrievedModels));
+        } finally {
+            parseLock.unlock();
+        }
     }
 
     public void setModelForExtension(Object model) {
@@ -122,6 +139,10 @@ public final class NbGradleExtensionRef {
                 defWithExtension.deactivate();
             }
         }
+        else if (active) {
+            // The extension is already active but its model was reloaded.
+            defWithExtension.activate(model);
+        }
     }
 
     private static final class DefWithExtension<ModelType> {
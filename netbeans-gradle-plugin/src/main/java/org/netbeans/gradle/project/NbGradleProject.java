@@ -8,6 +8,7 @@ import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -28,9 +29,13 @@ import org.netbeans.gradle.project.api.task.GradleTaskVariableQuery;
 import org.netbeans.gradle.project.api.task.TaskVariable;
 import org.netbeans.gradle.project.api.task.TaskVariableMap;
 import org.netbeans.gradle.project.model.GradleModelLoader;
+import org.netbeans.gradle.project.model.ModelChangeEvent;
 import org.netbeans.gradle.project.model.ModelLoadListener;
 import org.netbeans.gradle.project.model.ModelRetrievedListener;
 import org.netbeans.gradle.project.model.NbGradleModel;
+import org.netbeans.gradle.project.model.NbGradleModelDiff;
+import org.netbeans.gradle.project.model.PartialModelListener;
+import org.netbeans.gradle.project.model.StartupModelPrefetcher;
 import org.netbeans.gradle.project.properties.GradleAuxiliaryConfiguration;
 import org.netbeans.gradle.project.properties.GradleAuxiliaryProperties;
 import org.netbeans.gradle.project.properties.GradleCustomizer;
@@ -58,7 +63,6 @@ import org.netbeans.spi.project.ProjectState;
 import org.netbeans.spi.project.ui.ProjectOpenedHook;
 import org.openide.filesystems.FileObject;
 import org.openide.filesystems.FileUtil;
-import org.openide.util.ChangeSupport;
 import org.openide.util.Lookup;
 import org.openide.util.RequestProcessor;
 import org.openide.util.lookup.Lookups;
@@ -85,9 +89,10 @@ public final class NbGradleProject implements Project {
 
     private final String name;
     private final ExceptionDisplayer exceptionDisplayer;
-    private final ChangeSupport modelChanges;
+    private final List<ChangeListener> modelChangeListeners;
     private final AtomicBoolean hasModelBeenLoaded;
     private final AtomicReference<NbGradleModel> currentModelRef;
+    private volatile boolean openedInIde;
     private final ProjectPropertiesProxy properties;
     private final ProjectInfoManager projectInfoManager;
 
@@ -117,9 +122,10 @@ public final class NbGradleProject implements Project {
 
         this.hasModelBeenLoaded = new AtomicBoolean(false);
         this.loadErrorRef = new AtomicReference<ProjectInfoRef>(null);
-        this.modelChanges = new ChangeSupport(this);
+        this.modelChangeListeners = new CopyOnWriteArrayList<ChangeListener>();
         this.currentModelRef = new AtomicReference<NbGradleModel>(
                 GradleModelLoader.createEmptyModel(projectDirAsFile));
+        this.openedInIde = false;
 
         this.loadedAtLeastOnceSignal = new WaitableSignal();
         this.name = projectDir.getNameExt();
@@ -256,12 +262,15 @@ public final class NbGradleProject implements Project {
         return projectInfoManager;
     }
 
+    // The listeners are notified with a ModelChangeEvent, which tells what has
+    // changed in the model (see ModelChangeEvent.tryGetModelDiff).
     public void addModelChangeListener(ChangeListener listener) {
-        modelChanges.addChangeListener(listener);
+        if (listener == null) throw new NullPointerException("listener");
+        modelChangeListeners.add(listener);
     }
 
     public void removeModelChangeListener(ChangeListener listener) {
-        modelChanges.removeChangeListener(listener);
+        modelChangeListeners.remove(listener);
     }
 
     public NbGradleModel getAvailableModel() {
@@ -294,6 +303,12 @@ public final class NbGradleProject implements Project {
         return loadedAtLeastOnceSignal.isSignaled();
     }
 
+    // Returns true if the project is opened in the IDE (and not just loaded
+    // because another project needs it).
+    public boolean isOpened() {
+        return openedInIde;
+    }
+
     private static void checkCanWaitForProjectLoad() {
         if (GradleDaemonManager.isRunningExclusiveTask()) {
             throw new IllegalStateException("Cannot wait for loading a project"
@@ -318,11 +333,14 @@ public final class NbGradleProject implements Project {
         return loadedAtLeastOnceSignal.tryWaitForSignal();
     }
 
-    private void onModelChange() {
+    private void onModelChange(NbGradleModelDiff diff) {
         assert SwingUtilities.isEventDispatchThread();
 
         try {
-            modelChanges.fireChange();
+            ModelChangeEvent event = new ModelChangeEvent(this, diff);
+            for (ChangeListener listener: modelChangeListeners) {
+                listener.stateChanged(event);
+            }
         } finally {
             GradleCacheSourceForBinaryQuery.notifyCacheChange();
             GradleCacheBinaryForSourceQuery.notifyCacheChange();
@@ -378,7 +396,8 @@ public final class NbGradleProject implements Project {
         getPropertiesForProfile(getCurrentProfile().getProfileDef(), true, new PropertiesLoadListener() {
             @Override
             public void loadedProperties(ProjectProperties properties) {
-                GradleModelLoader.fetchModel(NbGradleProject.this, mayUseCache, new ModelRetrievedListenerImpl());
+                ModelRetrievedListenerImpl listener = new ModelRetrievedListenerImpl();
+                GradleModelLoader.fetchModel(NbGradleProject.this, mayUseCache, listener, listener);
             }
         });
     }
@@ -529,6 +548,7 @@ public final class NbGradleProject implements Project {
     // convenient to use because registering paths is cheap enough).
     private class OpenHook extends ProjectOpenedHook {
         private final ModelLoadListener modelLoadListener;
+        private final BuildScriptsWatcher scriptsWatcher;
         private ChangeListener licenseChangeListener;
         private LicenseManager.Ref licenseRef;
         private boolean opened;
@@ -538,6 +558,7 @@ public final class NbGradleProject implements Project {
 
             this.licenseRef = null;
             this.licenseChangeListener = null;
+            this.scriptsWatcher = new BuildScriptsWatcher(NbGradleProject.this);
 
             this.modelLoadListener = new ModelLoadListener() {
                 @Override
@@ -574,8 +595,11 @@ public final class NbGradleProject implements Project {
 
         @Override
         protected void projectOpened() {
+            openedInIde = true;
             GradleModelLoader.addModelLoadedListener(modelLoadListener);
             reloadProject(true);
+            scriptsWatcher.start();
+            StartupModelPrefetcher.recordOpenedProject(getProjectDirectoryAsFile());
 
             if (licenseChangeListener != null) {
                 LOGGER.warning("projectOpened() without close.");
@@ -618,16 +642,19 @@ public final class NbGradleProject implements Project {
                 licenseChangeListener = null;
             }
 
+            scriptsWatcher.stop();
+            StartupModelPrefetcher.recordClosedProject(getProjectDirectoryAsFile());
             GradleModelLoader.removeModelLoadedListener(modelLoadListener);
+            openedInIde = false;
         }
     }
 
-    private class ModelRetrievedListenerImpl implements ModelRetrievedListener {
-        private void fireModelChangeEvent() {
+    private class ModelRetrievedListenerImpl implements ModelRetrievedListener, PartialModelListener {
+        private void fireModelChangeEvent(final NbGradleModelDiff diff) {
             SwingUtilities.invokeLater(new Runnable() {
                 @Override
                 public void run() {
-                    onModelChange();
+                    onModelChange(diff);
                 }
             });
         }
@@ -647,23 +674,26 @@ public final class NbGradleProject implements Project {
                 safelyLoadExtensions(extensionRef, null);
             }
 
-            fireModelChangeEvent();
+            fireModelChangeEvent(null);
         }
 
-        private void notifyModelChange(NbGradleModel model) {
+        private void notifyModelChange(NbGradleModel model, NbGradleModelDiff diff) {
             // TODO: Consider conflicts
             //   GradleProjectExtensionDef.getSuppressedExtensions()
             for (NbGradleExtensionRef extensionRef: extensionRefs) {
-                safelyLoadExtensions(extensionRef, model.getModelOfExtension(extensionRef));
+                if (diff.hasExtensionChanged(extensionRef.getName())) {
+                    safelyLoadExtensions(extensionRef, model.getModelOfExtension(extensionRef));
+                }
             }
 
-            fireModelChangeEvent();
+            fireModelChangeEvent(diff);
         }
 
         private void applyModelLoadResults(NbGradleModel model, Throwable error) {
             boolean hasChanged = false;
+            NbGradleModel prevModel = null;
             if (model != null) {
-                NbGradleModel prevModel = currentModelRef.getAndSet(model);
+                prevModel = currentModelRef.getAndSet(model);
                 hasChanged = prevModel != model;
             }
 
@@ -684,11 +714,20 @@ public final class NbGradleProject implements Project {
                     notifyEmptyModelChange();
                 }
                 else {
-                    notifyModelChange(model);
+                    notifyModelChange(model, NbGradleModelDiff.compute(prevModel, model));
                 }
             }
         }
 
+        @Override
+        public void onPartialModel(NbGradleModel model) {
+            // The partial model has no extension models, so it must not
+            // replace a model which has.
+            if (!loadedAtLeastOnceSignal.isSignaled()) {
+                applyModelLoadResults(model, null);
+            }
+        }
+
         @Override
         public void onComplete(NbGradleModel model, Throwable error) {
             try {
@@ -139,6 +139,14 @@ public final class NbStrings {
         return NbBundle.getMessage(NbStrings.class, "NbStrings.ReloadProject");
     }
 
+    public static String getLoadedOfflineMessage(String projectName) {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.LoadedOffline", projectName);
+    }
+
+    public static String getExportModelSnapshotCaption() {
+        return NbBundle.getMessage(NbStrings.class, "NbStrings.ExportModelSnapshot");
+    }
+
     public static String getOpenImmediateSubProjectsCaption() {
         return NbBundle.getMessage(NbStrings.class, "NbStrings.OpenImmediateSubProjects");
     }
@@ -0,0 +1,8 @@
+package org.netbeans.gradle.project;
+
+// Implemented by the bundled GradleProjectExtensionDef implementations whose
+// parseModel method is known to be safe to call concurrently. The models of
+// other extensions are parsed one project after another (see
+// NbGradleExtensionRef.parseModel).
+public interface ThreadSafeExtensionDef {
+}
@@ -96,6 +96,10 @@ public interface GradleProjectExtensionDef<ModelType> {
      * Note: This method explicitly forbidden to wait for the result of
      * Gradle commands or model retrieval requests. Doing so might result in a
      * dead-lock.
+     * <P>
+     * Thread safety: This method is not called concurrently for the projects
+     * of the same Gradle build, but it might be called concurrently for
+     * projects of different Gradle builds.
      *
      * @param retrievedModels the models retrieved via the Tooling API of
      *   Gradle. This argument cannot be {@code null}.
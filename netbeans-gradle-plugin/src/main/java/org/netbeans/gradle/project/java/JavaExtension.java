@@ -14,6 +14,7 @@ import org.netbeans.api.project.FileOwnerQuery;
 import org.netbeans.api.project.Project;
 import org.netbeans.gradle.project.ProjectInitListener;
 import org.netbeans.gradle.project.api.entry.GradleProjectExtension2;
+import org.netbeans.gradle.project.java.model.JavaModelDiff;
 import org.netbeans.gradle.project.java.model.JavaSourceDirHandler;
 import org.netbeans.gradle.project.java.model.NbJavaModel;
 import org.netbeans.gradle.project.java.model.idea.IdeaJavaModelUtils;
@@ -210,9 +211,18 @@ public final class JavaExtension implements GradleProjectExtension2<NbJavaModel>
         return lookup;
     }
 
-    private void fireModelChange() {
+    // Listeners not implementing JavaModelDiffListener are always notified
+    // because they might rely on parts of the model not covered by the diff.
+    private void fireModelChange(JavaModelDiff diff) {
         for (JavaModelChangeListener listener: getCombinedLookup().lookupAll(JavaModelChangeListener.class)) {
-            listener.onModelChange();
+            if (listener instanceof JavaModelDiffListener) {
+                if (!diff.isEmpty()) {
+                    ((JavaModelDiffListener)listener).onModelChange(diff);
+                }
+            }
+            else {
+                listener.onModelChange();
+            }
         }
     }
 
@@ -220,10 +230,17 @@ public final class JavaExtension implements GradleProjectExtension2<NbJavaModel>
     public void activateExtension(NbJavaModel parsedModel) {
         if (parsedModel == null) throw new NullPointerException("parsedModel");
 
+        NbJavaModel prevModel = hasEverBeenLoaded ? currentModel : null;
+        if (prevModel == parsedModel) {
+            return;
+        }
+
+        JavaModelDiff diff = JavaModelDiff.compute(prevModel, parsedModel);
+
         currentModel = parsedModel;
         hasEverBeenLoaded = true;
 
-        fireModelChange();
+        fireModelChange(diff);
     }
 
     @Override
@@ -16,6 +16,7 @@ import org.netbeans.gradle.model.java.JavaCompatibilityModelBuilder;
 import org.netbeans.gradle.model.java.JavaSourcesModelBuilder;
 import org.netbeans.gradle.model.java.WarFoldersModelBuilder;
 import org.netbeans.gradle.model.util.CollectionUtils;
+import org.netbeans.gradle.project.ThreadSafeExtensionDef;
 import org.netbeans.gradle.project.api.entry.GradleProjectExtension2;
 import org.netbeans.gradle.project.api.entry.GradleProjectExtensionDef;
 import org.netbeans.gradle.project.api.entry.ModelLoadResult;
@@ -35,7 +36,7 @@ import org.openide.util.lookup.Lookups;
 import org.openide.util.lookup.ServiceProvider;
 
 @ServiceProvider(service = GradleProjectExtensionDef.class, position = 1000)
-public final class JavaExtensionDef implements GradleProjectExtensionDef<NbJavaModel> {
+public final class JavaExtensionDef implements GradleProjectExtensionDef<NbJavaModel>, ThreadSafeExtensionDef {
     private final Lookup lookup;
 
     public JavaExtensionDef() {
@@ -0,0 +1,12 @@
+package org.netbeans.gradle.project.java;
+
+import org.netbeans.gradle.project.java.model.JavaModelDiff;
+
+// Listeners implementing this interface are notified through
+// onModelChange(JavaModelDiff) instead of onModelChange() when a new model
+// is loaded, but only if the diff is not empty. The no-argument method is
+// still called when something other than the model changes (e.g.: the target
+// platform) and everything must be updated.
+public interface JavaModelDiffListener extends JavaModelChangeListener {
+    public void onModelChange(JavaModelDiff diff);
+}
@@ -0,0 +1,247 @@
+package org.netbeans.gradle.project.java.model;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.netbeans.gradle.model.GenericProjectProperties;
+import org.netbeans.gradle.model.java.JavaClassPaths;
+import org.netbeans.gradle.model.java.JavaOutputDirs;
+import org.netbeans.gradle.model.java.JavaSourceGroup;
+import org.netbeans.gradle.model.java.JavaSourceSet;
+
+// Describes the difference between two Java models of the same project.
+// Source sets are identified by their names.
+public final class JavaModelDiff {
+    private final boolean everythingChanged;
+    private final Set<String> addedSourceSets;
+    private final Set<String> removedSourceSets;
+    private final Set<String> changedSourceSets;
+    private final boolean sourceRootsChanged;
+    private final boolean dependenciesChanged;
+    private final boolean compatibilityChanged;
+    private final boolean listedDirsChanged;
+    private final boolean propertiesChanged;
+
+    private JavaModelDiff(
+            boolean everythingChanged,
+            Set<String> addedSourceSets,
+            Set<String> removedSourceSets,
+            Set<String> changedSourceSets,
+            boolean sourceRootsChanged,
+            boolean dependenciesChanged,
+            boolean compatibilityChanged,
+            boolean listedDirsChanged,
+            boolean propertiesChanged) {
+        this.everythingChanged = everythingChanged;
+        this.addedSourceSets = Collections.unmodifiableSet(addedSourceSets);
+        this.removedSourceSets = Collections.unmodifiableSet(removedSourceSets);
+        this.changedSourceSets = Collections.unmodifiableSet(changedSourceSets);
+        this.sourceRootsChanged = sourceRootsChanged;
+        this.dependenciesChanged = dependenciesChanged;
+        this.compatibilityChanged = compatibilityChanged;
+        this.listedDirsChanged = listedDirsChanged;
+        this.propertiesChanged = propertiesChanged;
+    }
+
+    // oldModel might be null, in which case everything is considered to be
+    // changed. The same is true if the models were parsed from different
+    // kinds of models.
+    public static JavaModelDiff compute(NbJavaModel oldModel, NbJavaModel newModel) {
+        if (newModel == null) throw new NullPointerException("newModel");
+
+        Map<String, JavaSourceSet> newSourceSets = sourceSetsByName(newModel.getMainModule());
+        if (oldModel == null || oldModel.getModelSource() != newModel.getModelSource()) {
+            return new JavaModelDiff(true,
+                    newSourceSets.keySet(),
+                    Collections.<String>emptySet(),
+                    Collections.<String>emptySet(),
+                    true, true, true, true, true);
+        }
+
+        Map<String, JavaSourceSet> oldSourceSets = sourceSetsByName(oldModel.getMainModule());
+
+        Set<String> added = new LinkedHashSet<String>(newSourceSets.keySet());
+        added.removeAll(oldSourceSets.keySet());
+
+        Set<String> removed = new LinkedHashSet<String>(oldSourceSets.keySet());
+        removed.removeAll(newSourceSets.keySet());
+
+        Set<String> changed = new LinkedHashSet<String>();
+        boolean sourceRootsChanged = !added.isEmpty() || !removed.isEmpty();
+        for (Map.Entry<String, JavaSourceSet> entry: newSourceSets.entrySet()) {
+            JavaSourceSet oldSourceSet = oldSourceSets.get(entry.getKey());
+            if (oldSourceSet == null) {
+                continue;
+            }
+
+            JavaSourceSet newSourceSet = entry.getValue();
+            boolean sameRoots = sameSourceGroups(oldSourceSet.getSourceGroups(), newSourceSet.getSourceGroups());
+            if (!sameRoots) {
+                sourceRootsChanged = true;
+            }
+
+            if (!sameRoots
+                    || !sameOutputDirs(oldSourceSet.getOutputDirs(), newSourceSet.getOutputDirs())
+                    || !sameClassPaths(oldSourceSet.getClasspaths(), newSourceSet.getClasspaths())) {
+                changed.add(entry.getKey());
+            }
+        }
+
+        NbJavaModule oldModule = oldModel.getMainModule();
+        NbJavaModule newModule = newModel.getMainModule();
+
+        boolean dependenciesChanged = !getDependencyDirs(oldModel).equals(getDependencyDirs(newModel));
+        boolean compatibilityChanged = !sameCompatibility(oldModule, newModule);
+        boolean listedDirsChanged = !sameListedDirs(oldModule.getListedDirs(), newModule.getListedDirs());
+        boolean propertiesChanged = !sameProperties(oldModule.getProperties(), newModule.getProperties());
+
+        return new JavaModelDiff(false,
+                added, removed, changed,
+                sourceRootsChanged, dependenciesChanged, compatibilityChanged, listedDirsChanged,
+                propertiesChanged);
+    }
+
+    private static Map<String, JavaSourceSet> sourceSetsByName(NbJavaModule module) {
+        Map<String, JavaSourceSet> result = new LinkedHashMap<String, JavaSourceSet>();
+        for (JavaSourceSet sourceSet: module.getSources()) {
+            result.put(sourceSet.getName(), sourceSet);
+        }
+        return result;
+    }
+
+    private static Set<File> getDependencyDirs(NbJavaModel model) {
+        Set<File> result = new HashSet<File>();
+        for (JavaProjectReference dependency: model.getAllDependencies()) {
+            result.add(dependency.getProjectDir());
+        }
+        return result;
+    }
+
+    private static boolean sameSourceGroups(Collection<JavaSourceGroup> groups1, Collection<JavaSourceGroup> groups2) {
+        if (groups1.size() != groups2.size()) {
+            return false;
+        }
+
+        Iterator<JavaSourceGroup> itr2 = groups2.iterator();
+        for (JavaSourceGroup group1: groups1) {
+            JavaSourceGroup group2 = itr2.next();
+            if (group1.getGroupName() != group2.getGroupName()) return false;
+            if (!group1.getSourceRoots().equals(group2.getSourceRoots())) return false;
+        }
+        return true;
+    }
+
+    private static boolean sameOutputDirs(JavaOutputDirs dirs1, JavaOutputDirs dirs2) {
+        return dirs1.getClassesDir().equals(dirs2.getClassesDir())
+                && dirs1.getResourcesDir().equals(dirs2.getResourcesDir())
+                && dirs1.getOtherDirs().equals(dirs2.getOtherDirs());
+    }
+
+    private static boolean sameClassPaths(JavaClassPaths classPaths1, JavaClassPaths classPaths2) {
+        return classPaths1.getCompileClasspaths().equals(classPaths2.getCompileClasspaths())
+                && classPaths1.getRuntimeClasspaths().equals(classPaths2.getRuntimeClasspaths());
+    }
+
+    private static boolean sameCompatibility(NbJavaModule module1, NbJavaModule module2) {
+        String source1 = module1.getCompatibilityModel().getSourceCompatibility();
+        String source2 = module2.getCompatibilityModel().getSourceCompatibility();
+        String target1 = module1.getCompatibilityModel().getTargetCompatibility();
+        String target2 = module2.getCompatibilityModel().getTargetCompatibility();
+        return source1.equals(source2) && target1.equals(target2);
+    }
+
+    private static boolean sameListedDirs(List<NbListedDir> dirs1, List<NbListedDir> dirs2) {
+        if (dirs1.size() != dirs2.size()) {
+            return false;
+        }
+
+        Iterator<NbListedDir> itr2 = dirs2.iterator();
+        for (NbListedDir dir1: dirs1) {
+            NbListedDir dir2 = itr2.next();
+            if (!dir1.getName().equals(dir2.getName())) return false;
+            if (!dir1.getDirectory().equals(dir2.getDirectory())) return false;
+        }
+        return true;
+    }
+
+    private static boolean sameProperties(GenericProjectProperties properties1, GenericProjectProperties properties2) {
+        return properties1.getProjectName().equals(properties2.getProjectName())
+                && properties1.getProjectFullName().equals(properties2.getProjectFullName())
+                && properties1.getProjectDir().equals(properties2.getProjectDir());
+    }
+
+    // True if the models could not be compared.
+    public boolean isEverythingChanged() {
+        return everythingChanged;
+    }
+
+    public Set<String> getAddedSourceSets() {
+        return addedSourceSets;
+    }
+
+    public Set<String> getRemovedSourceSets() {
+        return removedSourceSets;
+    }
+
+    // Source sets which exist in both models but whose source roots, output
+    // directories or classpaths are different.
+    public Set<String> getChangedSourceSets() {
+        return changedSourceSets;
+    }
+
+    public boolean hasSourceSetsChanged() {
+        return !addedSourceSets.isEmpty() || !removedSourceSets.isEmpty() || !changedSourceSets.isEmpty();
+    }
+
+    public boolean hasSourceRootsChanged() {
+        return sourceRootsChanged;
+    }
+
+    // True if the set of projects this project depends on has changed.
+    public boolean hasDependenciesChanged() {
+        return dependenciesChanged;
+    }
+
+    public boolean hasCompatibilityChanged() {
+        return compatibilityChanged;
+    }
+
+    public boolean hasListedDirsChanged() {
+        return listedDirsChanged;
+    }
+
+    // True if the name, full name or directory of the project has changed.
+    public boolean hasPropertiesChanged() {
+        return propertiesChanged;
+    }
+
+    public boolean isEmpty() {
+        return !everythingChanged
+                && !hasSourceSetsChanged()
+                && !sourceRootsChanged
+                && !dependenciesChanged
+                && !compatibilityChanged
+                && !listedDirsChanged
+                && !propertiesChanged;
+    }
+
+    @Override
+    public String toString() {
+        return "JavaModelDiff{" + "everythingChanged=" + everythingChanged
+                + ", addedSourceSets=" + addedSourceSets
+                + ", removedSourceSets=" + removedSourceSets
+                + ", changedSourceSets=" + changedSourceSets
+                + ", sourceRootsChanged=" + sourceRootsChanged
+                + ", dependenciesChanged=" + dependenciesChanged
+                + ", compatibilityChanged=" + compatibilityChanged
+                + ", listedDirsChanged=" + listedDirsChanged
+                + ", propertiesChanged=" + propertiesChanged + '}';
+    }
+}
@@ -3,6 +3,11 @@ package org.netbeans.gradle.project.java.model;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -13,7 +18,9 @@ import org.netbeans.gradle.project.java.JavaExtension;
 import org.openide.filesystems.FileObject;
 import org.openide.filesystems.FileUtil;
 
-public final class JavaProjectReference {
+public final class JavaProjectReference implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private static final Logger LOGGER = Logger.getLogger(JavaProjectReference.class.getName());
 
     private final File projectDir;
@@ -95,4 +102,37 @@ public final class JavaProjectReference {
         initialModule = null;
         return javaExt.getCurrentModel().getMainModule();
     }
+
+    private Object writeReplace() throws ObjectStreamException {
+        NbJavaModule module = initialModule;
+        if (module == null) {
+            module = tryGetModule();
+        }
+        if (module == null) {
+            throw new NotSerializableException("The referenced project is no longer available: " + projectDir);
+        }
+        return new SerializedFormat(projectDir, module);
+    }
+
+    private void readObject(ObjectInputStream stream) throws InvalidObjectException {
+        throw new InvalidObjectException("Use proxy.");
+    }
+
+    // Only the current state of the referenced module is saved, the project
+    // is looked up again after deserialization.
+    private static final class SerializedFormat implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final File projectDir;
+        private final NbJavaModule module;
+
+        public SerializedFormat(File projectDir, NbJavaModule module) {
+            this.projectDir = projectDir;
+            this.module = module;
+        }
+
+        private Object readResolve() {
+            return new JavaProjectReference(projectDir, module);
+        }
+    }
 }
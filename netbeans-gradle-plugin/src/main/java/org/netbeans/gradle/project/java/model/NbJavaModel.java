@@ -1,6 +1,9 @@
 package org.netbeans.gradle.project.java.model;
 
 import java.io.File;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -11,7 +14,9 @@ import java.util.concurrent.atomic.AtomicReference;
 import org.netbeans.gradle.model.java.JavaClassPaths;
 import org.netbeans.gradle.model.java.JavaSourceSet;
 
-public final class NbJavaModel {
+public final class NbJavaModel implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private final JavaModelSource modelSource;
     private final NbJavaModule mainModule;
     private final Map<File, JavaProjectDependency> projectDependencies;
@@ -90,4 +95,30 @@ public final class NbJavaModel {
         }
         return result;
     }
+
+    private Object writeReplace() {
+        return new SerializedFormat(this);
+    }
+
+    private void readObject(ObjectInputStream stream) throws InvalidObjectException {
+        throw new InvalidObjectException("Use proxy.");
+    }
+
+    private static final class SerializedFormat implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final JavaModelSource modelSource;
+        private final NbJavaModule mainModule;
+        private final Map<File, JavaProjectDependency> projectDependencies;
+
+        public SerializedFormat(NbJavaModel source) {
+            this.modelSource = source.modelSource;
+            this.mainModule = source.mainModule;
+            this.projectDependencies = new HashMap<File, JavaProjectDependency>(source.projectDependencies);
+        }
+
+        private Object readResolve() {
+            return new NbJavaModel(modelSource, mainModule, projectDependencies);
+        }
+    }
 }
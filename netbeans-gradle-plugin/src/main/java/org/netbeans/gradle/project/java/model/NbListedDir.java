@@ -1,8 +1,11 @@
 package org.netbeans.gradle.project.java.model;
 
 import java.io.File;
+import java.io.Serializable;
+
+public final class NbListedDir implements Serializable {
+    private static final long serialVersionUID = 1L;
 
-public final class NbListedDir {
     private final String name;
     private final File directory;
 
@@ -2,6 +2,7 @@ package org.netbeans.gradle.project.java.model.idea;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -14,6 +15,11 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.gradle.tooling.model.DomainObjectSet;
@@ -45,10 +51,16 @@ import org.netbeans.gradle.project.properties.AbstractProjectProperties;
 import org.openide.filesystems.FileObject;
 import org.openide.filesystems.FileUtil;
 import org.openide.util.Lookup;
+import org.openide.util.RequestProcessor;
 
 public final class IdeaJavaModelUtils {
     private static final Logger LOGGER = Logger.getLogger(IdeaJavaModelUtils.class.getName());
 
+    private static final int MIN_PARALLEL_MODULE_COUNT = 8;
+    private static final int MODULE_PARSER_THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+    private static final RequestProcessor MODULE_PARSER
+            = new RequestProcessor("Gradle-Idea-Module-Parser", MODULE_PARSER_THREAD_COUNT, true);
+
     public static NbJavaModel createEmptyModel(FileObject projectDir) {
         File projectDirAsFile = FileUtil.toFile(projectDir);
         if (projectDirAsFile == null) {
@@ -140,9 +152,9 @@ public final class IdeaJavaModelUtils {
     private static List<JavaSourceSet> parseSourceSets(
             IdeaModule module,
             File projectDir,
-            Map<String, IdeaDependencyBuilder> cache) {
+            ParseContext context) {
 
-        ProjectClassPaths classPaths = fetchAllDependencies(module, cache);
+        ProjectClassPaths classPaths = fetchAllDependencies(module, context);
         File buildOutputDir = getDefaultBuildDir(projectDir);
         File classesDir = new File(buildOutputDir, "classes");
         File resourcesDir = new File(buildOutputDir, "resources");
@@ -179,10 +191,10 @@ public final class IdeaJavaModelUtils {
 
     private static ProjectClassPaths fetchAllDependencies(
             IdeaModule module,
-            Map<String, IdeaDependencyBuilder> cache) {
+            ParseContext context) {
 
         IdeaDependencyBuilder result = new IdeaDependencyBuilder();
-        fetchAllDependencies(module, result, Collections.<String>emptySet(), cache);
+        fetchAllDependencies(module, result, Collections.<String>emptySet(), context);
 
         JavaClassPaths mainClassPath = new JavaClassPaths(result.mainCompile, result.mainRuntime);
         JavaClassPaths testClassPath = new JavaClassPaths(result.testCompile, result.testRuntime);
@@ -193,7 +205,7 @@ public final class IdeaJavaModelUtils {
             IdeaModule module,
             IdeaDependencyBuilder result,
             Set<String> projectsToSkip,
-            Map<String, IdeaDependencyBuilder> cache) {
+            ParseContext context) {
 
         String uniqueProjectName = module.getGradleProject().getPath();
 
@@ -201,7 +213,7 @@ public final class IdeaJavaModelUtils {
             return;
         }
 
-        IdeaDependencyBuilder parsed = cache.get(uniqueProjectName);
+        IdeaDependencyBuilder parsed = context.tryGetDependencies(uniqueProjectName);
         if (parsed != null) {
             result.setFrom(parsed);
             return;
@@ -209,7 +221,7 @@ public final class IdeaJavaModelUtils {
 
         File defaultMainBuildDir = getDefaultMainClasses(module);
         if (defaultMainBuildDir != null) {
-            result.addTestCompile(defaultMainBuildDir);
+            result.addTestCompile(context.internFile(defaultMainBuildDir));
         }
 
         Set<String> nextProjectsToSkip = null;
@@ -227,24 +239,24 @@ public final class IdeaJavaModelUtils {
                 IdeaModule moduleDep = ((IdeaModuleDependency)dependency).getDependencyModule();
 
                 IdeaDependencyBuilder subDependencies = new IdeaDependencyBuilder();
-                fetchAllDependencies(moduleDep, subDependencies, nextProjectsToSkip, cache);
+                fetchAllDependencies(moduleDep, subDependencies, nextProjectsToSkip, context);
 
                 File mainBuildDir = getDefaultMainClasses(moduleDep);
                 if (mainBuildDir != null) {
-                    result.add(dependencyType, mainBuildDir);
+                    result.add(dependencyType, context.internFile(mainBuildDir));
                 }
                 result.addAll(dependencyType, subDependencies);
             }
             else if (dependency instanceof ExternalDependency) {
                 ExternalDependency externalDep = (ExternalDependency)dependency;
-                result.add(dependencyType, externalDep.getFile());
+                result.add(dependencyType, context.internFile(externalDep.getFile()));
             }
             else {
                 LOGGER.log(Level.WARNING, "Unknown dependency: {0}", dependency);
             }
         }
 
-        cache.put(uniqueProjectName, result);
+        context.putDependencies(uniqueProjectName, result);
     }
 
     private static NbListedDir findWebAppDir(Collection<JavaSourceSet> sources) {
@@ -276,8 +288,7 @@ public final class IdeaJavaModelUtils {
         return result;
     }
 
-    private static NbJavaModule tryParseModule(IdeaModule module,
-            Map<String, IdeaDependencyBuilder> cache) {
+    private static NbJavaModule tryParseModule(IdeaModule module, ParseContext context) {
         String uniqueName = module.getGradleProject().getPath();
 
         File moduleDir = GradleModelLoader.tryGetModuleDir(module);
@@ -286,17 +297,15 @@ public final class IdeaJavaModelUtils {
             return null;
         }
 
-        List<JavaSourceSet> sourceSets = parseSourceSets(module, moduleDir, cache);
-
-        String defaultLevel = AbstractProjectProperties.getSourceLevelFromPlatform(JavaPlatform.getDefault());
+        List<JavaSourceSet> sourceSets = parseSourceSets(module, moduleDir, context);
 
         String sourceLevel = module.getProject().getLanguageLevel().getLevel();
         sourceLevel = sourceLevel != null
                 ? sourceLevel.replace("JDK_", "").replace("_", ".")
-                : defaultLevel;
+                : context.getDefaultLevel();
 
         String targetLevel = module.getProject().getJdkName();
-        if (targetLevel == null) targetLevel = defaultLevel;
+        if (targetLevel == null) targetLevel = context.getDefaultLevel();
 
         sourceLevel = sourceLevel.trim();
         targetLevel = targetLevel.trim();
@@ -312,6 +321,74 @@ public final class IdeaJavaModelUtils {
         return new NbJavaModule(properties, compatibilityModel, sourceSets, listedDirs);
     }
 
+    private static RuntimeException rethrowCause(ExecutionException ex) {
+        Throwable cause = ex.getCause();
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException)cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error)cause;
+        }
+        throw new RuntimeException(cause);
+    }
+
+    // Returns the parsed modules in the order of the given modules (null for
+    // the ones which could not be parsed). Modules are taken one by one by
+    // the threads, so a few large modules do not hold back the others.
+    private static NbJavaModule[] parseModules(
+            final List<IdeaModule> modules,
+            final ParseContext context) throws IOException {
+
+        final NbJavaModule[] result = new NbJavaModule[modules.size()];
+        final AtomicInteger nextIndex = new AtomicInteger(0);
+
+        Runnable parseTask = new Runnable() {
+            @Override
+            public void run() {
+                int index = nextIndex.getAndIncrement();
+                while (index < result.length) {
+                    result[index] = tryParseModule(modules.get(index), context);
+                    index = nextIndex.getAndIncrement();
+                }
+            }
+        };
+
+        if (modules.size() < MIN_PARALLEL_MODULE_COUNT || MODULE_PARSER_THREAD_COUNT <= 1) {
+            parseTask.run();
+            return result;
+        }
+
+        int threadCount = Math.min(MODULE_PARSER_THREAD_COUNT, modules.size());
+        List<FutureTask<Void>> tasks = new ArrayList<FutureTask<Void>>(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            tasks.add(new FutureTask<Void>(parseTask, null));
+        }
+
+        // The calling thread takes part in the parsing as well because it
+        // would be waiting anyway.
+        int lastIndex = tasks.size() - 1;
+        for (int i = 0; i < lastIndex; i++) {
+            MODULE_PARSER.execute(tasks.get(i));
+        }
+        tasks.get(lastIndex).run();
+
+        try {
+            for (FutureTask<Void> task: tasks) {
+                task.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Parsing the IDEA modules was canceled.");
+        } catch (ExecutionException ex) {
+            throw rethrowCause(ex);
+        } finally {
+            for (FutureTask<?> task: tasks) {
+                task.cancel(true);
+            }
+        }
+        return result;
+    }
+
     public static Map<File, NbJavaModel> parseFromIdeaModel(File projectDir, IdeaProject ideaModel) throws IOException {
         IdeaModule mainModule = GradleModelLoader.tryFindMainModule(projectDir, ideaModel);
         if (mainModule == null) {
@@ -321,11 +398,10 @@ public final class IdeaJavaModelUtils {
         DomainObjectSet<? extends IdeaModule> modules = ideaModel.getModules();
         int modulesCount = modules.size();
 
-        Map<String, IdeaDependencyBuilder> cache = CollectionUtils.newHashMap(modulesCount);
+        ParseContext context = new ParseContext(modulesCount);
 
         Map<File, NbJavaModule> parsedModules = CollectionUtils.newHashMap(modulesCount);
-        for (IdeaModule module: modules) {
-            NbJavaModule parsedModule = tryParseModule(module, cache);
+        for (NbJavaModule parsedModule: parseModules(new ArrayList<IdeaModule>(modules), context)) {
             if (parsedModule != null) {
                 parsedModules.put(parsedModule.getModuleDir(), parsedModule);
             }
@@ -359,6 +435,50 @@ public final class IdeaJavaModelUtils {
         return result;
     }
 
+    // State shared by the modules parsed from the same IdeaProject. Modules
+    // usually share most of their external dependencies and the Tooling API
+    // returns a new File object for each of them, so files are interned to
+    // have a single instance for each path.
+    private static final class ParseContext {
+        private final ConcurrentMap<String, IdeaDependencyBuilder> dependencies;
+        private final ConcurrentMap<File, File> files;
+        private volatile String defaultLevel;
+
+        public ParseContext(int modulesCount) {
+            this.dependencies = new ConcurrentHashMap<String, IdeaDependencyBuilder>(2 * modulesCount);
+            this.files = new ConcurrentHashMap<File, File>(16 * modulesCount);
+            this.defaultLevel = null;
+        }
+
+        public File internFile(File file) {
+            if (file == null) {
+                return null;
+            }
+
+            File prevFile = files.putIfAbsent(file, file);
+            return prevFile != null ? prevFile : file;
+        }
+
+        public IdeaDependencyBuilder tryGetDependencies(String uniqueProjectName) {
+            return dependencies.get(uniqueProjectName);
+        }
+
+        // The builder must not be modified after calling this method because
+        // other threads might read it.
+        public void putDependencies(String uniqueProjectName, IdeaDependencyBuilder projectDependencies) {
+            dependencies.putIfAbsent(uniqueProjectName, projectDependencies);
+        }
+
+        public String getDefaultLevel() {
+            String result = defaultLevel;
+            if (result == null) {
+                result = AbstractProjectProperties.getSourceLevelFromPlatform(JavaPlatform.getDefault());
+                defaultLevel = result;
+            }
+            return result;
+        }
+    }
+
     private static class ProjectClassPaths {
         public final JavaClassPaths main;
         public final JavaClassPaths test;
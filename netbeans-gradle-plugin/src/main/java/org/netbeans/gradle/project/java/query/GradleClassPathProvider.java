@@ -32,7 +32,8 @@ import org.netbeans.gradle.project.ProjectInitListener;
 import org.netbeans.gradle.project.api.entry.ProjectPlatform;
 import org.netbeans.gradle.project.api.property.GradleProperty;
 import org.netbeans.gradle.project.java.JavaExtension;
-import org.netbeans.gradle.project.java.JavaModelChangeListener;
+import org.netbeans.gradle.project.java.JavaModelDiffListener;
+import org.netbeans.gradle.project.java.model.JavaModelDiff;
 import org.netbeans.gradle.project.java.model.JavaProjectReference;
 import org.netbeans.gradle.project.java.model.NbJavaModel;
 import org.netbeans.gradle.project.java.model.NbJavaModule;
@@ -50,12 +51,13 @@ public final class GradleClassPathProvider
 implements
         ClassPathProvider,
         ProjectInitListener,
-        JavaModelChangeListener {
+        JavaModelDiffListener {
     private static final Logger LOGGER = Logger.getLogger(GradleClassPathProvider.class.getName());
 
     private final JavaExtension javaExt;
     private final ConcurrentMap<ClassPathKey, List<PathResourceImplementation>> classpathResources;
     private final ConcurrentMap<ClassPathKey, ClassPath> classpaths;
+    private final ConcurrentMap<String, Set<File>> invalidEntries;
 
     private final PropertyChangeSupport changes;
     private volatile ProjectPlatform currentPlatform;
@@ -77,6 +79,7 @@ implements
 
         this.classpathResources = new ConcurrentHashMap<ClassPathKey, List<PathResourceImplementation>>();
         this.classpaths = new ConcurrentHashMap<ClassPathKey, ClassPath>();
+        this.invalidEntries = new ConcurrentHashMap<String, Set<File>>();
         this.allSources = Collections.emptyList();
         this.allSourcesClassPathRef = new AtomicReference<ClassPath>(null);
 
@@ -145,6 +148,18 @@ implements
         });
     }
 
+    @Override
+    public void onModelChange(final JavaModelDiff diff) {
+        if (diff == null) throw new NullPointerException("diff");
+
+        NbGradleProject.PROJECT_PROCESSOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                updatePathResources(javaExt.getCurrentModel(), diff);
+            }
+        });
+    }
+
     private GradleProperty.BuildPlatform getPlatformProperty() {
         return javaExt.getOwnerProjectLookup().lookup(GradleProperty.BuildPlatform.class);
     }
@@ -288,6 +303,19 @@ implements
         classpathResources.put(classPathKey, Collections.unmodifiableList(paths));
     }
 
+    private void removePathResources(String sourceSetName) {
+        for (ClassPathType type: ClassPathType.values()) {
+            classpathResources.remove(new SourceSetClassPathType(sourceSetName, type));
+        }
+        invalidEntries.remove(sourceSetName);
+    }
+
+    private void loadPathResources(JavaSourceSet sourceSet) {
+        Set<File> invalid = new HashSet<File>();
+        loadPathResources(sourceSet, invalid);
+        invalidEntries.put(sourceSet.getName(), invalid);
+    }
+
     private void loadPathResources(JavaSourceSet sourceSet, Set<File> invalid) {
         Set<File> compileCP = sourceSet.getClasspaths().getCompileClasspaths();
         setClassPathResources(
@@ -395,26 +423,22 @@ implements
                 getPathResources(classPaths, new HashSet<File>()));
     }
 
-    private void loadPathResources(NbJavaModel projectModel) {
-        // TODO: This method must be called whenever any of the dependent projects
-        //   is reloaded.
-
-        Set<File> missing = new HashSet<File>();
-
-        NbJavaModule mainModule = projectModel.getMainModule();
-        for (JavaSourceSet sourceSet: mainModule.getSources()) {
-            loadPathResources(sourceSet, missing);
-        }
-
-        loadBootClassPath();
-        loadAllRuntimeClassPath(mainModule);
+    private void loadGlobalPathResources(NbJavaModel projectModel) {
+        loadAllRuntimeClassPath(projectModel.getMainModule());
         loadAllBuildOutputClassPath(projectModel);
 
         loadCompileForGlobalClassPath(projectModel);
         loadRuntimeForGlobalClassPath(projectModel);
+    }
 
+    private void updateInvalidEntriesInfo() {
         // TODO: Should we report all invalid?
 
+        Set<File> missing = new LinkedHashSet<File>();
+        for (Set<File> invalid: invalidEntries.values()) {
+            missing.addAll(invalid);
+        }
+
         if (missing.isEmpty()) {
             getInfoRef().setInfo(null);
         }
@@ -426,19 +450,79 @@ implements
             }
             getInfoRef().setInfo(new ProjectInfo(infos));
         }
+    }
 
-        updateAllSources();
-
+    private void fireResourcesChanged() {
         SwingUtilities.invokeLater(new Runnable() {
             @Override
             public void run() {
                 changes.firePropertyChange(ClassPathImplementation.PROP_RESOURCES, null, null);
             }
         });
+    }
+
+    private void loadPathResources(NbJavaModel projectModel) {
+        // TODO: This method must be called whenever any of the dependent projects
+        //   is reloaded.
+
+        NbJavaModule mainModule = projectModel.getMainModule();
+
+        Set<String> removedSourceSets = new HashSet<String>(invalidEntries.keySet());
+        for (JavaSourceSet sourceSet: mainModule.getSources()) {
+            loadPathResources(sourceSet);
+            removedSourceSets.remove(sourceSet.getName());
+        }
+
+        for (String sourceSetName: removedSourceSets) {
+            removePathResources(sourceSetName);
+        }
+
+        loadBootClassPath();
+        loadGlobalPathResources(projectModel);
+
+        updateInvalidEntriesInfo();
+        updateAllSources();
+        fireResourcesChanged();
 
         loadedOnce = true;
     }
 
+    // Only reloads the classpaths affected by the given change. The boot
+    // classpath does not depend on the model, so it is never reloaded here.
+    private void updatePathResources(NbJavaModel projectModel, JavaModelDiff diff) {
+        if (!loadedOnce || diff.isEverythingChanged()) {
+            loadPathResources(projectModel);
+            return;
+        }
+
+        if (!diff.hasSourceSetsChanged() && !diff.hasDependenciesChanged()) {
+            return;
+        }
+
+        for (String sourceSetName: diff.getRemovedSourceSets()) {
+            removePathResources(sourceSetName);
+        }
+
+        NbJavaModule mainModule = projectModel.getMainModule();
+
+        Set<String> toLoad = new LinkedHashSet<String>(diff.getAddedSourceSets());
+        toLoad.addAll(diff.getChangedSourceSets());
+        for (String sourceSetName: toLoad) {
+            JavaSourceSet sourceSet = mainModule.tryGetSourceSetByName(sourceSetName);
+            if (sourceSet != null) {
+                loadPathResources(sourceSet);
+            }
+        }
+
+        loadGlobalPathResources(projectModel);
+
+        updateInvalidEntriesInfo();
+        if (diff.hasSourceRootsChanged() || diff.hasDependenciesChanged()) {
+            updateAllSources();
+        }
+        fireResourcesChanged();
+    }
+
     private void loadClassPath(ClassPathKey classPathKey) {
         classpaths.putIfAbsent(
                 classPathKey,
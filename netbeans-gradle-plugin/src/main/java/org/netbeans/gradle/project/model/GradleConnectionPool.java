@@ -0,0 +1,298 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import org.gradle.tooling.GradleConnector;
+import org.gradle.tooling.ProjectConnection;
+import org.netbeans.api.project.Project;
+import org.netbeans.gradle.project.properties.GlobalGradleSettings;
+import org.netbeans.gradle.project.properties.GradleLocation;
+import org.openide.util.RequestProcessor;
+
+// Keeps ProjectConnection instances open for a while after they have been
+// used, so that subsequent operations on the same project do not have to
+// set up the connection (and resolve the Gradle distribution) again.
+//
+// ProjectConnection is thread-safe, so a pooled connection might be used by
+// multiple operations concurrently. A connection is only closed after every
+// user has released it.
+public final class GradleConnectionPool {
+    private static final Logger LOGGER = Logger.getLogger(GradleConnectionPool.class.getName());
+
+    private static final long DEFAULT_IDLE_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(3);
+
+    private static final RequestProcessor CONNECTION_CLOSER
+            = new RequestProcessor("Gradle-Connection-Closer", 1, false);
+
+    private static final AtomicReference<GradleConnectionPool> DEFAULT_REF
+            = new AtomicReference<GradleConnectionPool>(null);
+
+    private final long idleTimeoutMs;
+    private final ReentrantLock mainLock;
+    private final Map<ConnectionKey, PooledConnection> connections;
+    private final RequestProcessor.Task evictTask;
+
+    public GradleConnectionPool(long idleTimeout, TimeUnit unit) {
+        this.idleTimeoutMs = unit.toMillis(idleTimeout);
+        this.mainLock = new ReentrantLock();
+        this.connections = new HashMap<ConnectionKey, PooledConnection>();
+        this.evictTask = CONNECTION_CLOSER.create(new Runnable() {
+            @Override
+            public void run() {
+                evictIdleConnections();
+            }
+        });
+    }
+
+    public static GradleConnectionPool getDefault() {
+        GradleConnectionPool result = DEFAULT_REF.get();
+        if (result == null) {
+            result = new GradleConnectionPool(DEFAULT_IDLE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            if (DEFAULT_REF.compareAndSet(null, result)) {
+                final GradleConnectionPool pool = result;
+                GlobalGradleSettings.getGradleHome().addChangeListener(new ChangeListener() {
+                    @Override
+                    public void stateChanged(ChangeEvent e) {
+                        pool.invalidateAll();
+                    }
+                });
+            }
+            else {
+                result = DEFAULT_REF.get();
+            }
+        }
+        return result;
+    }
+
+    public ConnectionRef connect(Project project, File projectDir) {
+        if (project == null) throw new NullPointerException("project");
+        if (projectDir == null) throw new NullPointerException("projectDir");
+
+        GradleLocation gradleLocation = GradleModelLoader.getGradleLocation(project);
+        File gradleUserHome = GlobalGradleSettings.getGradleUserHomeDir().getValue();
+        ConnectionKey key = new ConnectionKey(projectDir, gradleLocation, gradleUserHome);
+
+        PooledConnection connection = tryAcquire(key);
+        if (connection != null) {
+            return new ConnectionRef(connection);
+        }
+
+        GradleConnector connector = GradleModelLoader.createGradleConnector(gradleLocation, gradleUserHome);
+        connector.forProjectDirectory(projectDir);
+        PooledConnection newConnection = new PooledConnection(key, connector.connect());
+
+        PooledConnection unusedConnection = null;
+        mainLock.lock();
+        try {
+            connection = connections.get(key);
+            if (connection == null) {
+                connection = newConnection;
+                connections.put(key, connection);
+            }
+            else {
+                unusedConnection = newConnection;
+            }
+            connection.leaseCount++;
+        } finally {
+            mainLock.unlock();
+        }
+
+        if (unusedConnection != null) {
+            closeConnection(unusedConnection);
+        }
+        return new ConnectionRef(connection);
+    }
+
+    private PooledConnection tryAcquire(ConnectionKey key) {
+        mainLock.lock();
+        try {
+            PooledConnection result = connections.get(key);
+            if (result != null) {
+                result.leaseCount++;
+            }
+            return result;
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    private void release(PooledConnection connection) {
+        boolean closeNow;
+        mainLock.lock();
+        try {
+            connection.leaseCount--;
+            connection.lastReleaseTime = System.currentTimeMillis();
+            closeNow = connection.leaseCount <= 0 && connection.invalidated;
+        } finally {
+            mainLock.unlock();
+        }
+
+        if (closeNow) {
+            closeConnection(connection);
+        }
+        else {
+            evictTask.schedule((int)idleTimeoutMs);
+        }
+    }
+
+    public void invalidateAll() {
+        List<PooledConnection> toClose = new ArrayList<PooledConnection>();
+        mainLock.lock();
+        try {
+            for (PooledConnection connection: connections.values()) {
+                connection.invalidated = true;
+                if (connection.leaseCount <= 0) {
+                    toClose.add(connection);
+                }
+            }
+            connections.clear();
+        } finally {
+            mainLock.unlock();
+        }
+
+        for (PooledConnection connection: toClose) {
+            closeConnection(connection);
+        }
+    }
+
+    private void evictIdleConnections() {
+        List<PooledConnection> toClose = new ArrayList<PooledConnection>();
+        long nextCheckDelay = -1;
+
+        mainLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            Iterator<PooledConnection> connectionItr = connections.values().iterator();
+            while (connectionItr.hasNext()) {
+                PooledConnection connection = connectionItr.next();
+                if (connection.leaseCount > 0) {
+                    continue;
+                }
+
+                long idleTime = now - connection.lastReleaseTime;
+                if (idleTime >= idleTimeoutMs) {
+                    connectionItr.remove();
+                    toClose.add(connection);
+                }
+                else {
+                    long remaining = idleTimeoutMs - idleTime;
+                    if (nextCheckDelay < 0 || remaining < nextCheckDelay) {
+                        nextCheckDelay = remaining;
+                    }
+                }
+            }
+        } finally {
+            mainLock.unlock();
+        }
+
+        for (PooledConnection connection: toClose) {
+            closeConnection(connection);
+        }
+
+        if (nextCheckDelay >= 0) {
+            evictTask.schedule((int)nextCheckDelay);
+        }
+    }
+
+    private static void closeConnection(final PooledConnection connection) {
+        CONNECTION_CLOSER.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    connection.connection.close();
+                } catch (Throwable ex) {
+                    LOGGER.log(Level.INFO, "Failed to close connection of " + connection.key.projectDir, ex);
+                }
+            }
+        });
+    }
+
+    public final class ConnectionRef implements Closeable {
+        private final PooledConnection connection;
+        private final AtomicBoolean closed;
+
+        private ConnectionRef(PooledConnection connection) {
+            this.connection = connection;
+            this.closed = new AtomicBoolean(false);
+        }
+
+        public ProjectConnection getConnection() {
+            return connection.connection;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                release(connection);
+            }
+        }
+    }
+
+    private static final class PooledConnection {
+        private final ConnectionKey key;
+        private final ProjectConnection connection;
+
+        // The following fields are guarded by mainLock.
+        private int leaseCount;
+        private long lastReleaseTime;
+        private boolean invalidated;
+
+        public PooledConnection(ConnectionKey key, ProjectConnection connection) {
+            this.key = key;
+            this.connection = connection;
+            this.leaseCount = 0;
+            this.lastReleaseTime = System.currentTimeMillis();
+            this.invalidated = false;
+        }
+    }
+
+    private static final class ConnectionKey {
+        private final File projectDir;
+        private final String gradleLocation;
+        private final File gradleUserHome;
+
+        public ConnectionKey(File projectDir, GradleLocation gradleLocation, File gradleUserHome) {
+            if (projectDir == null) throw new NullPointerException("projectDir");
+            if (gradleLocation == null) throw new NullPointerException("gradleLocation");
+
+            this.projectDir = projectDir;
+            this.gradleLocation = gradleLocation.getUniqueTypeName() + ":" + gradleLocation.asString();
+            this.gradleUserHome = gradleUserHome;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 5;
+            hash = 41 * hash + projectDir.hashCode();
+            hash = 41 * hash + gradleLocation.hashCode();
+            hash = 41 * hash + (gradleUserHome != null ? gradleUserHome.hashCode() : 0);
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) return true;
+            if (obj == null) return false;
+            if (getClass() != obj.getClass()) return false;
+
+            final ConnectionKey other = (ConnectionKey)obj;
+            return projectDir.equals(other.projectDir)
+                    && gradleLocation.equals(other.gradleLocation)
+                    && (gradleUserHome == other.gradleUserHome
+                    || (gradleUserHome != null && gradleUserHome.equals(other.gradleUserHome)));
+        }
+    }
+}
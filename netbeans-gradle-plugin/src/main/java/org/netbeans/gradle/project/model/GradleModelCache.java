@@ -4,10 +4,14 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.io.File;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 import javax.swing.event.ChangeEvent;
@@ -21,33 +25,66 @@ public final class GradleModelCache {
     private static final AtomicReference<GradleModelCache> DEFAULT_REF
             = new AtomicReference<GradleModelCache>(null);
 
+    private static final long BYTES_IN_MB = 1024L * 1024L;
+
+    private static final Comparator<CacheEntry> LEAST_RECENTLY_USED_FIRST = new Comparator<CacheEntry>() {
+        @Override
+        public int compare(CacheEntry entry1, CacheEntry entry2) {
+            long access1 = entry1.lastAccess;
+            long access2 = entry2.lastAccess;
+            return access1 < access2 ? -1 : (access1 == access2 ? 0 : 1);
+        }
+    };
+
+    // Readers do not need to lock, cacheLock only serializes modifications.
     private final ReentrantLock cacheLock;
-    private final Map<CacheKey, NbGradleModel> cache;
+    private final ConcurrentMap<CacheKey, CacheEntry> cache;
+    private final AtomicLong accessCounter;
     private final AtomicInteger maxCapacity;
+    private final AtomicLong maxWeight;
     private final PropertyChangeSupport updateListeners;
+    private final PersistentModelCache persistentCache;
+
+    // Guarded by cacheLock
+    private long totalWeight;
 
     public GradleModelCache(int maxCapacity) {
+        this(maxCapacity, Long.MAX_VALUE, null);
+    }
+
+    GradleModelCache(int maxCapacity, long maxWeight, PersistentModelCache persistentCache) {
         if (maxCapacity < 0) {
             throw new IllegalArgumentException("Illegal max. capacity value: " + maxCapacity);
         }
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("Illegal max. weight value: " + maxWeight);
+        }
 
         this.cacheLock = new ReentrantLock();
         this.maxCapacity = new AtomicInteger(maxCapacity);
-
-        float loadFactor = 0.75f;
-        int capacity = (int)Math.floor((float)(maxCapacity + 1) / loadFactor);
-        this.cache = new LinkedHashMap<CacheKey, NbGradleModel>(capacity, loadFactor, true);
+        this.maxWeight = new AtomicLong(maxWeight);
+        this.accessCounter = new AtomicLong(0);
+        this.cache = new ConcurrentHashMap<CacheKey, CacheEntry>();
         this.updateListeners = new PropertyChangeSupport(this);
+        this.persistentCache = persistentCache;
+        this.totalWeight = 0;
     }
 
     private static int getProjectCacheSize() {
         return GlobalGradleSettings.getProjectCacheSize().getValue();
     }
 
+    private static long getProjectCacheMemoryBudget() {
+        return GlobalGradleSettings.getProjectCacheMemoryBudget().getValue() * BYTES_IN_MB;
+    }
+
     public static GradleModelCache getDefault() {
         GradleModelCache result = DEFAULT_REF.get();
         if (result == null) {
-            result = new GradleModelCache(getProjectCacheSize());
+            result = new GradleModelCache(
+                    getProjectCacheSize(),
+                    getProjectCacheMemoryBudget(),
+                    PersistentModelCache.createDefault());
             if (DEFAULT_REF.compareAndSet(null, result)) {
                 final GradleModelCache cache = result;
                 GlobalGradleSettings.getProjectCacheSize().addChangeListener(new ChangeListener() {
@@ -56,7 +93,14 @@ public final class GradleModelCache {
                         cache.setMaxCapacity(getProjectCacheSize());
                     }
                 });
+                GlobalGradleSettings.getProjectCacheMemoryBudget().addChangeListener(new ChangeListener() {
+                    @Override
+                    public void stateChanged(ChangeEvent e) {
+                        cache.setMaxWeight(getProjectCacheMemoryBudget());
+                    }
+                });
                 cache.setMaxCapacity(getProjectCacheSize());
+                cache.setMaxWeight(getProjectCacheMemoryBudget());
             }
             else {
                 result = DEFAULT_REF.get();
@@ -65,20 +109,46 @@ public final class GradleModelCache {
         return result;
     }
 
+    private boolean isOverLimit(int size, long weight) {
+        return size > maxCapacity.get() || weight > maxWeight.get();
+    }
+
     private void cleanupCache() {
         assert cacheLock.isHeldByCurrentThread();
 
-        int currentMaxCapacity = maxCapacity.get();
-        // Don't create the iterator.
-        if (cache.size() <= currentMaxCapacity) {
+        int size = cache.size();
+        if (!isOverLimit(size, totalWeight)) {
             return;
         }
 
-        Iterator<?> itr = cache.entrySet().iterator();
-        while (cache.size() > currentMaxCapacity && itr.hasNext()) {
-            itr.next();
-            itr.remove();
+        List<CacheEntry> entries = new ArrayList<CacheEntry>(cache.values());
+        Collections.sort(entries, LEAST_RECENTLY_USED_FIRST);
+
+        // The most recently used model is kept even if it does not fit into
+        // the memory budget on its own.
+        int removableCount = entries.size() - 1;
+        for (int i = 0; i < removableCount && isOverLimit(size, totalWeight); i++) {
+            CacheEntry entry = entries.get(i);
+            if (cache.remove(entry.key, entry)) {
+                totalWeight -= entry.weight;
+                size--;
+            }
+        }
+    }
+
+    // Must be called while holding cacheLock.
+    private CacheEntry putEntry(CacheKey key, NbGradleModel model, long weight) {
+        assert cacheLock.isHeldByCurrentThread();
+
+        CacheEntry newEntry = new CacheEntry(key, model, weight, accessCounter.incrementAndGet());
+        CacheEntry prevEntry = cache.put(key, newEntry);
+        totalWeight += weight;
+        if (prevEntry != null) {
+            totalWeight -= prevEntry.weight;
         }
+
+        cleanupCache();
+        return prevEntry;
     }
 
     public void setMaxCapacity(int maxCapacity) {
@@ -97,6 +167,22 @@ public final class GradleModelCache {
         }
     }
 
+    public void setMaxWeight(long maxWeight) {
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("Illegal max. weight value: " + maxWeight);
+        }
+
+        long prevWeight = this.maxWeight.getAndSet(maxWeight);
+        if (prevWeight > maxWeight) {
+            cacheLock.lock();
+            try {
+                cleanupCache();
+            } finally {
+                cacheLock.unlock();
+            }
+        }
+    }
+
     private static CacheKey tryCreateKey(NbGradleModel model) {
         if (model == null) throw new NullPointerException("model");
 
@@ -151,23 +237,21 @@ public final class GradleModelCache {
             return;
         }
 
-        NbGradleModel newModel = model;
+        NbGradleModel newModel;
         NbGradleModel prevModel;
         cacheLock.lock();
         try {
-            prevModel = cache.get(key);
-            if (prevModel == null) {
-                cache.put(key, newModel);
-                cleanupCache();
-            }
-            else {
-                newModel = prevModel.updateEntry(newModel);
-                cache.put(key, newModel);
-            }
+            CacheEntry prevEntry = cache.get(key);
+            prevModel = prevEntry != null ? prevEntry.model : null;
+            newModel = prevModel != null ? prevModel.updateEntry(model) : model;
+
+            putEntry(key, newModel, ModelWeigher.estimateRetainedSize(newModel));
         } finally {
             cacheLock.unlock();
         }
 
+        persistModel(newModel);
+
         if (prevModel != null) {
             notifyUpdate(model);
         }
@@ -179,28 +263,101 @@ public final class GradleModelCache {
             return;
         }
 
+        long weight = ModelWeigher.estimateRetainedSize(model);
+
         NbGradleModel prevModel;
         cacheLock.lock();
         try {
-            prevModel = cache.put(key, model);
-            cleanupCache();
+            CacheEntry prevEntry = putEntry(key, model, weight);
+            prevModel = prevEntry != null ? prevEntry.model : null;
         } finally {
             cacheLock.unlock();
         }
 
+        persistModel(model);
+
         if (prevModel != null && prevModel != model) {
             notifyUpdate(model);
         }
     }
 
-    public NbGradleModel tryGet(File projectDir, File settingsFile) {
-        CacheKey key = new CacheKey(projectDir, settingsFile);
+    private void persistModel(NbGradleModel model) {
+        if (persistentCache != null && !model.isDirty()) {
+            persistentCache.storeLater(model);
+        }
+    }
+
+    private NbGradleModel tryGetFromPersistentCache(CacheKey key) {
+        if (persistentCache == null) {
+            return null;
+        }
+
+        NbGradleModel persistedModel = persistentCache.tryGet(key.projectDir, key.settingsFile);
+        if (persistedModel == null) {
+            return null;
+        }
+
+        long weight = ModelWeigher.estimateRetainedSize(persistedModel);
+
         cacheLock.lock();
         try {
-            return cache.get(key);
+            CacheEntry currentEntry = cache.get(key);
+            if (currentEntry != null) {
+                return currentEntry.model;
+            }
+
+            putEntry(key, persistedModel, weight);
         } finally {
             cacheLock.unlock();
         }
+        return persistedModel;
+    }
+
+    /**
+     * Returns the model of the given project from the memory cache or, if it
+     * is not available there, from the persistent cache. Models read from the
+     * persistent cache are {@link NbGradleModel#isDirty() dirty}.
+     */
+    public NbGradleModel tryGet(File projectDir, File settingsFile) {
+        CacheKey key = new CacheKey(projectDir, settingsFile);
+
+        NbGradleModel result = tryGetFromMemory(key);
+        if (result == null) {
+            result = tryGetFromPersistentCache(key);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the model of the given project only if it is available in the
+     * memory cache.
+     */
+    public NbGradleModel tryGetFromMemory(File projectDir, File settingsFile) {
+        return tryGetFromMemory(new CacheKey(projectDir, settingsFile));
+    }
+
+    private NbGradleModel tryGetFromMemory(CacheKey key) {
+        CacheEntry entry = cache.get(key);
+        if (entry == null) {
+            return null;
+        }
+
+        entry.lastAccess = accessCounter.incrementAndGet();
+        return entry.model;
+    }
+
+    private static final class CacheEntry {
+        private final CacheKey key;
+        private final NbGradleModel model;
+        private final long weight;
+        private volatile long lastAccess;
+
+        public CacheEntry(CacheKey key, NbGradleModel model, long weight, long lastAccess) {
+            this.key = key;
+            this.model = model;
+            this.weight = weight;
+            this.lastAccess = lastAccess;
+        }
     }
 
     private static class CacheKey {
@@ -3,16 +3,21 @@ package org.netbeans.gradle.project.model;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -36,6 +41,7 @@ import org.netbeans.api.java.platform.Specification;
 import org.netbeans.api.progress.ProgressHandle;
 import org.netbeans.api.project.Project;
 import org.netbeans.api.project.ProjectManager;
+import org.netbeans.api.project.ui.OpenProjects;
 import org.netbeans.gradle.model.BuildOperationArgs;
 import org.netbeans.gradle.model.OperationInitializer;
 import org.netbeans.gradle.model.util.CollectionUtils;
@@ -45,30 +51,48 @@ import org.netbeans.gradle.project.NbGradleProject;
 import org.netbeans.gradle.project.NbGradleProjectFactory;
 import org.netbeans.gradle.project.NbStrings;
 import org.netbeans.gradle.project.api.modelquery.GradleTarget;
+import org.netbeans.gradle.project.api.task.CommandCompleteListener;
 import org.netbeans.gradle.project.java.model.NamedFile;
 import org.netbeans.gradle.project.model.issue.ModelLoadIssueReporter;
 import org.netbeans.gradle.project.properties.GlobalGradleSettings;
 import org.netbeans.gradle.project.properties.GradleLocation;
 import org.netbeans.gradle.project.properties.ProjectProperties;
+import org.netbeans.gradle.project.properties.SettingsFiles;
 import org.netbeans.gradle.project.tasks.DaemonTask;
 import org.netbeans.gradle.project.tasks.GradleDaemonFailures;
 import org.netbeans.gradle.project.tasks.GradleDaemonManager;
 import org.netbeans.gradle.project.tasks.GradleTasks;
 import org.netbeans.gradle.project.view.GlobalErrorReporter;
+import org.openide.awt.StatusDisplayer;
 import org.openide.filesystems.FileObject;
 import org.openide.filesystems.FileUtil;
 import org.openide.modules.SpecificationVersion;
-import org.openide.util.RequestProcessor;
+import org.openide.util.NbPreferences;
 
 public final class GradleModelLoader {
     private static final Logger LOGGER = Logger.getLogger(GradleModelLoader.class.getName());
 
-    private static final RequestProcessor PROJECT_LOADER
-            = new RequestProcessor("Gradle-Project-Loader", 1, true);
+    private static final ProjectLoadScheduler PROJECT_LOADER
+            = new ProjectLoadScheduler("Gradle-Project-Loader");
+
+    private static final InFlightModelLoads IN_FLIGHT_LOADS = new InFlightModelLoads();
+    private static final OfflineModelLoads OFFLINE_LOADS = new OfflineModelLoads(5, TimeUnit.MINUTES);
+    private static final GradleTargetCache GRADLE_TARGETS = new GradleTargetCache();
+    private static final ModelLoadTuning LOAD_TUNING = new ModelLoadTuning(
+            ModelLoadTuning.DEFAULT_MIN_PROJECT_COUNT,
+            NbPreferences.forModule(GradleModelLoader.class).node("model-load-tuning"));
 
     private static final ModelLoadSupport LISTENERS = new ModelLoadSupport();
     private static final AtomicBoolean CACHE_INIT = new AtomicBoolean(false);
 
+    private static final Set<File> SNAPSHOT_IMPORTED_ROOTS
+            = Collections.newSetFromMap(new ConcurrentHashMap<File, Boolean>());
+
+    // The opened projects being reloaded because a load cut short by its
+    // deadline left them out.
+    private static final Set<File> INCOMPLETE_RETRIES
+            = Collections.newSetFromMap(new ConcurrentHashMap<File, Boolean>());
+
     public static void addModelLoadedListener(ModelLoadListener listener) {
         LISTENERS.addListener(listener);
     }
@@ -134,27 +158,35 @@ public final class GradleModelLoader {
         return GradleModelCache.getDefault();
     }
 
-    public static GradleConnector createGradleConnector(final Project project) {
-        final GradleConnector result = GradleConnector.newConnector();
-
+    public static GradleLocation getGradleLocation(Project project) {
         NbGradleProject gradleProject = project.getLookup().lookup(NbGradleProject.class);
         if (gradleProject == null) {
             throw new IllegalArgumentException("Not a Gradle project: " + project.getProjectDirectory());
         }
 
-        File gradleUserHome = GlobalGradleSettings.getGradleUserHomeDir().getValue();
-        if (gradleUserHome != null) {
-            result.useGradleUserHomeDir(gradleUserHome);
-        }
-
-        GradleLocation gradleLocation;
         ProjectProperties projectProperties = gradleProject.tryGetLoadedProperties();
         if (projectProperties == null) {
             LOGGER.warning("Could not wait for retrieving the project properties. Using the globally defined one");
-            gradleLocation = GlobalGradleSettings.getGradleHome().getValue();
+            return GlobalGradleSettings.getGradleHome().getValue();
         }
         else {
-            gradleLocation = projectProperties.getGradleLocation().getValue();
+            return projectProperties.getGradleLocation().getValue();
+        }
+    }
+
+    public static GradleConnector createGradleConnector(final Project project) {
+        GradleLocation gradleLocation = getGradleLocation(project);
+        File gradleUserHome = GlobalGradleSettings.getGradleUserHomeDir().getValue();
+        return createGradleConnector(gradleLocation, gradleUserHome);
+    }
+
+    public static GradleConnector createGradleConnector(GradleLocation gradleLocation, File gradleUserHome) {
+        if (gradleLocation == null) throw new NullPointerException("gradleLocation");
+
+        final GradleConnector result = GradleConnector.newConnector();
+
+        if (gradleUserHome != null) {
+            result.useGradleUserHomeDir(gradleUserHome);
         }
 
         gradleLocation.applyLocation(new GradleLocation.Applier() {
@@ -192,9 +224,96 @@ public final class GradleModelLoader {
                 ? getCache().tryGet(projectDir, settingsFile)
                 : null;
 
+        if (result == null && projectDir != null && trySeedCacheFromSnapshot(settingsFile.getParentFile())) {
+            result = getCache().tryGet(projectDir, settingsFile);
+        }
+
         return result;
     }
 
+    // The snapshot of a build is imported at most once per session, the
+    // cache is kept up-to-date by the actual loads afterwards.
+    private static boolean trySeedCacheFromSnapshot(File rootDir) {
+        if (rootDir == null) {
+            return false;
+        }
+
+        File snapshotFile = SettingsFiles.getModelSnapshotFile(rootDir);
+        if (!snapshotFile.isFile() || !SNAPSHOT_IMPORTED_ROOTS.add(rootDir)) {
+            return false;
+        }
+
+        List<NbGradleModel> models;
+        try {
+            models = new ModelCacheSnapshot(rootDir).importModels(snapshotFile);
+        } catch (IOException ex) {
+            LOGGER.log(Level.INFO, "Failed to import the model snapshot: " + snapshotFile, ex);
+            return false;
+        }
+
+        GradleModelCache cache = getCache();
+        for (NbGradleModel model: models) {
+            if (cache.tryGetFromMemory(model.getProjectDir(), model.getSettingsFile()) == null) {
+                cache.replaceEntry(model);
+            }
+        }
+        return !models.isEmpty();
+    }
+
+    private static void addModelsOfBuild(
+            NbGradleProjectTree project,
+            File settingsFile,
+            GradleModelCache cache,
+            List<NbGradleModel> result) {
+
+        NbGradleModel model = cache.tryGetFromMemory(project.getProjectDir(), settingsFile);
+        if (model != null && !model.isDirty()) {
+            result.add(model);
+        }
+
+        for (NbGradleProjectTree child: project.getChildren()) {
+            addModelsOfBuild(child, settingsFile, cache, result);
+        }
+    }
+
+    // Saves the loaded models of the whole build of the given project, so
+    // that others can import them instead of evaluating the build.
+    public static void exportModelSnapshot(final NbGradleProject project) {
+        if (project == null) throw new NullPointerException("project");
+
+        File projectDir = project.getProjectDirectoryAsFile();
+        PROJECT_LOADER.forProject(projectDir, ModelLoadPriority.VISIBLE).execute(new Runnable() {
+            @Override
+            public void run() {
+                NbGradleModel mainModel = project.getAvailableModel();
+                File settingsFile = mainModel.getSettingsFile();
+                File rootDir = SettingsFiles.getRootDirectory(project);
+
+                List<NbGradleModel> models = new ArrayList<NbGradleModel>();
+                addModelsOfBuild(mainModel.getProjectDef().getRootProject(), settingsFile, getCache(), models);
+
+                File snapshotFile = SettingsFiles.getModelSnapshotFile(rootDir);
+                try {
+                    new ModelCacheSnapshot(rootDir).exportModels(models, snapshotFile);
+                } catch (IOException ex) {
+                    LOGGER.log(Level.WARNING, "Failed to export the model snapshot: " + snapshotFile, ex);
+                }
+            }
+        });
+    }
+
+    private static ModelLoadPriority getLoadPriority(NbGradleProject project) {
+        if (!project.isOpened()) {
+            return ModelLoadPriority.BACKGROUND;
+        }
+
+        Project mainProject = OpenProjects.getDefault().getMainProject();
+        if (mainProject != null && project.getProjectDirectory().equals(mainProject.getProjectDirectory())) {
+            return ModelLoadPriority.VISIBLE;
+        }
+        return ModelLoadPriority.OPENED;
+    }
+
     public static void fetchModel(
             final NbGradleProject project,
             final ModelRetrievedListener listener) {
@@ -232,7 +351,8 @@ public final class GradleModelLoader {
 
         final File projectDir = project.getProjectDirectoryAsFile();
         String caption = NbStrings.getLoadingProjectText(project.getDisplayName());
-        GradleDaemonManager.submitGradleTask(PROJECT_LOADER, caption, new DaemonTask() {
+        Executor executor = PROJECT_LOADER.forProject(projectDir, getLoadPriority(project));
+        GradleDaemonManager.submitGradleTask(executor, caption, new DaemonTask() {
             @Override
             public void run(ProgressHandle progress) {
                 NbGradleModel model = tryGetFromCache(projectDir);
@@ -243,29 +363,109 @@ public final class GradleModelLoader {
                     listener.onComplete(model, null);
                 }
             }
-        }, true, GradleTasks.projectTaskCompleteListener(project));
+        }, true, false, GradleTasks.projectTaskCompleteListener(project));
+    }
+
+    private static NbGradleModel tryFindLoadedModel(NbModelLoader.Result loadedModels, File projectDir) {
+        NbGradleModel mainModel = loadedModels.getMainModel();
+        if (projectDir.equals(mainModel.getProjectDir())) {
+            return mainModel;
+        }
+
+        for (NbGradleModel model: loadedModels.getOtherModels()) {
+            if (projectDir.equals(model.getProjectDir())) {
+                return model;
+            }
+        }
+        return null;
+    }
+
+    private static void notifyWaiters(
+            List<InFlightModelLoads.Waiter> waiters,
+            NbModelLoader.Result loadedModels,
+            Throwable error) {
+
+        for (InFlightModelLoads.Waiter waiter: waiters) {
+            NbGradleProject project = waiter.getProject();
+            ModelRetrievedListener listener = waiter.getListener();
+
+            if (error != null) {
+                listener.onComplete(null, error);
+                continue;
+            }
+
+            NbGradleModel model = loadedModels != null
+                    ? tryFindLoadedModel(loadedModels, project.getProjectDirectoryAsFile())
+                    : null;
+
+            if (model != null && !hasUnloadedExtension(project, model)) {
+                listener.onComplete(model, null);
+            }
+            else {
+                fetchModel(project, waiter.isMayFetchFromCache(), listener);
+            }
+        }
     }
 
     public static void fetchModel(
             final NbGradleProject project,
             final boolean mayFetchFromCache,
             final ModelRetrievedListener listener) {
+        fetchModel(project, mayFetchFromCache, listener, null);
+    }
+
+    // partialModelListener might be null. If it is not, it is notified with
+    // the project hierarchy before the full model is available but only if
+    // the project does not have a model yet.
+    public static void fetchModel(
+            final NbGradleProject project,
+            final boolean mayFetchFromCache,
+            final ModelRetrievedListener listener,
+            final PartialModelListener partialModelListener) {
         if (project == null) throw new NullPointerException("project");
         if (listener == null) throw new NullPointerException("listener");
 
         final File projectDir = project.getProjectDirectoryAsFile();
+        File rootBuildKey = ProjectLoadScheduler.getRootBuildKey(projectDir);
+
+        ModelLoadPriority priority = getLoadPriority(project);
+        ProjectLoadScheduler.PrioritizedExecutor executor = PROJECT_LOADER.forRootBuild(rootBuildKey, priority);
+
+        final InFlightModelLoads.PendingLoad pendingLoad = IN_FLIGHT_LOADS.attachOrRegister(
+                rootBuildKey, project, mayFetchFromCache, listener, executor, priority);
+        if (pendingLoad == null) {
+            LOGGER.log(Level.FINE, "Waiting for the pending load of {0}", rootBuildKey);
+            return;
+        }
+
         String caption = NbStrings.getLoadingProjectText(project.getDisplayName());
-        GradleDaemonManager.submitGradleTask(PROJECT_LOADER, caption, new DaemonTask() {
+        GradleDaemonManager.submitGradleTask(executor, caption, new DaemonTask() {
             @Override
             public void run(ProgressHandle progress) {
+                IN_FLIGHT_LOADS.markStarted(pendingLoad);
+                boolean retryOfIncomplete = INCOMPLETE_RETRIES.remove(projectDir);
+
                 NbGradleModel model = null;
+                NbModelLoader.Result loadedModels = null;
                 Throwable error = null;
+                boolean needsRevalidation = false;
                 try {
                     if (mayFetchFromCache) {
                         model = tryGetFromCache(projectDir);
                     }
                     if (model == null || hasUnloadedExtension(project, model)) {
-                        model = loadModelWithProgress(project, progress, model);
+                        NbGradleModel cachedEntry = model != null && !model.isDirty() ? model : null;
+                        PartialModelListener appliedPartialListener = model == null && !project.hasLoadedProject()
+                                ? partialModelListener
+                                : null;
+                        loadedModels = loadModelWithProgress(
+                                project, progress, cachedEntry, appliedPartialListener, mayFetchFromCache);
+                        model = loadedModels.getMainModel();
+                    }
+                    else {
+                        // The model was read from the persistent cache, so it
+                        // is used until the actual model is loaded.
+                        needsRevalidation = model.isDirty();
                     }
                 } catch (IOException ex) {
                     error = ex;
@@ -274,13 +474,88 @@ public final class GradleModelLoader {
                 } catch (GradleConnectionException ex) {
                     error = ex;
                 } finally {
+                    List<InFlightModelLoads.Waiter> waiters = IN_FLIGHT_LOADS.complete(pendingLoad);
+
                     listener.onComplete(model, error);
                     if (error != null) {
                         GradleDaemonFailures.getDefaultHandler().tryHandleFailure(error);
                     }
+
+                    notifyWaiters(waiters, loadedModels, error);
+                }
+
+                if (loadedModels != null) {
+                    markIncompleteProjects(loadedModels, !retryOfIncomplete);
+                }
+
+                if (needsRevalidation) {
+                    fetchModel(project, false, listener);
+                }
+            }
+        }, true, false, pendingLoadCompleteListener(project, pendingLoad));
+    }
+
+    // The projects left out of a load cut short by its deadline keep their
+    // previous models but those are marked dirty, so that they are reloaded
+    // when they are needed. Opened projects are reloaded right away: As the
+    // main project of a load, their models are always fetched.
+    //
+    // A reload started this way must not start further reloads. Otherwise two
+    // opened projects could keep reloading each other if both loads run out
+    // of time before reaching the other project.
+    private static void markIncompleteProjects(NbModelLoader.Result loadedModels, boolean reloadOpened) {
+        List<File> incompleteProjectDirs = loadedModels.getIncompleteProjectDirs();
+        if (incompleteProjectDirs.isEmpty()) {
+            return;
+        }
+
+        File settingsFile = loadedModels.getMainModel().getSettingsFile();
+        GradleModelCache cache = getCache();
+        for (File projectDir: incompleteProjectDirs) {
+            NbGradleModel cachedModel = cache.tryGetFromMemory(projectDir, settingsFile);
+            if (cachedModel != null && !cachedModel.isDirty()) {
+                cache.replaceEntry(cachedModel.createDirtyCopy());
+            }
+        }
+
+        if (!reloadOpened) {
+            LOGGER.log(Level.FINE, "Not reloading the incompletely loaded projects {0} of a retried load.",
+                    incompleteProjectDirs);
+            return;
+        }
+
+        Set<File> remaining = new HashSet<File>(incompleteProjectDirs);
+        for (Project openedProject: OpenProjects.getDefault().getOpenProjects()) {
+            NbGradleProject gradleProject = openedProject.getLookup().lookup(NbGradleProject.class);
+            if (gradleProject == null) {
+                continue;
+            }
+
+            File projectDir = gradleProject.getProjectDirectoryAsFile();
+            if (remaining.remove(projectDir) && INCOMPLETE_RETRIES.add(projectDir)) {
+                LOGGER.log(Level.FINE, "Reloading the incompletely loaded project {0}", projectDir);
+                gradleProject.reloadProject();
+            }
+        }
+    }
+
+    private static CommandCompleteListener pendingLoadCompleteListener(
+            NbGradleProject project,
+            final InFlightModelLoads.PendingLoad pendingLoad) {
+
+        final CommandCompleteListener projectListener = GradleTasks.projectTaskCompleteListener(project);
+        return new CommandCompleteListener() {
+            @Override
+            public void onComplete(Throwable error) {
+                try {
+                    // The load task might have been canceled before it
+                    // could complete the pending load.
+                    notifyWaiters(IN_FLIGHT_LOADS.complete(pendingLoad), null, null);
+                } finally {
+                    projectListener.onComplete(error);
                 }
             }
-        }, true, GradleTasks.projectTaskCompleteListener(project));
+        };
     }
 
     private static JavaPlatform tryGetScriptJavaPlatform(Project project) {
@@ -408,40 +683,140 @@ public final class GradleModelLoader {
         return modelBuilderSetupImpl(project, progress);
     }
 
-    private static NbGradleModel loadModelWithProgress(
+    // If mayReuseParsedModels is false (i.e.: the user explicitly requested
+    // reloading the project), every model is parsed again even if its inputs
+    // seem to be unchanged.
+    private static NbModelLoader.Result loadModelWithProgress(
             final NbGradleProject project,
             final ProgressHandle progress,
-            final NbGradleModel cachedEntry) throws IOException {
+            final NbGradleModel cachedEntry,
+            final PartialModelListener partialModelListener,
+            final boolean mayReuseParsedModels) throws IOException {
         File projectDir = project.getProjectDirectoryAsFile();
 
         LOGGER.log(Level.INFO, "Loading Gradle project from directory: {0}", projectDir);
 
-        GradleConnector gradleConnector = createGradleConnector(project);
-        gradleConnector.forProjectDirectory(projectDir);
-        ProjectConnection projectConnection = null;
+        ModelLoadTimings timings = new ModelLoadTimings(projectDir);
+
+        long connectStartTime = System.nanoTime();
+        GradleConnectionPool.ConnectionRef connectionRef
+                = GradleConnectionPool.getDefault().connect(project, projectDir);
+        timings.recordPhase(ModelLoadTimings.PHASE_CONNECT, System.nanoTime() - connectStartTime);
+
+        File rootDir = null;
+        int projectCount = 0;
+        boolean tuned = false;
+        boolean loadedOnline = false;
 
         NbModelLoader.Result loadedModels;
         try {
-            projectConnection = gradleConnector.connect();
+            ProjectConnection projectConnection = connectionRef.getConnection();
 
             ModelBuilderSetup setup = modelBuilderSetupImpl(project, progress);
 
-            ModelBuilder<BuildEnvironment> modelBuilder = projectConnection.model(BuildEnvironment.class);
-            setupLongRunningOP(setup, modelBuilder);
+            rootDir = getRootBuildDir(projectDir);
+            GradleLocation gradleLocation = getGradleLocation(project);
+            GradleVersion gradleVersion
+                    = GRADLE_TARGETS.tryGetGradleVersion(rootDir, gradleLocation, setup.getJdkHome());
+            if (gradleVersion == null) {
+                long envStartTime = System.nanoTime();
+                ModelBuilder<BuildEnvironment> modelBuilder = projectConnection.model(BuildEnvironment.class);
+                setupLongRunningOP(setup, modelBuilder);
+
+                BuildEnvironment env = modelBuilder.get();
+                timings.recordPhase(ModelLoadTimings.PHASE_BUILD_ENVIRONMENT, System.nanoTime() - envStartTime);
+                reportKnownIssues(env);
+
+                gradleVersion = GradleVersion.version(env.getGradle().getGradleVersion());
+                GRADLE_TARGETS.setGradleVersion(rootDir, gradleLocation, setup.getJdkHome(), gradleVersion);
+            }
+            else {
+                LOGGER.log(Level.FINE, "Using the cached Gradle version {0} for {1}",
+                        new Object[]{gradleVersion.getVersion(), rootDir});
+            }
 
-            BuildEnvironment env = modelBuilder.get();
-            reportKnownIssues(env);
+            projectCount = countProjects(cachedEntry != null ? cachedEntry : project.getAvailableModel());
+            if (projectCount >= ModelLoadTuning.DEFAULT_MIN_PROJECT_COUNT
+                    && GlobalGradleSettings.getAutoTuneModelLoads().getValue()) {
+                List<String> tunedArgs = LOAD_TUNING.getTunedArguments(rootDir, projectCount, gradleVersion);
+                if (!tunedArgs.isEmpty()) {
+                    LOGGER.log(Level.INFO, "Loading the models of {0} projects with {1}",
+                            new Object[]{projectCount, tunedArgs});
+                    setup = setup.withArguments(tunedArgs);
+                    tuned = true;
+                }
+            }
 
-            GradleTarget gradleTarget = new GradleTarget(
-                    setup.getJDKVersion(),
-                    GradleVersion.version(env.getGradle().getGradleVersion()));
-            NbModelLoader modelLoader = chooseModel(gradleTarget, cachedEntry, setup);
+            GradleTarget gradleTarget = new GradleTarget(setup.getJDKVersion(), gradleVersion);
+            ModelLoadAttempt loadAttempt = new ModelLoadAttempt(
+                    project, projectConnection, progress, cachedEntry, gradleTarget, timings, mayReuseParsedModels);
+
+            NbModelLoader.Result offlineModels = OFFLINE_LOADS.isOfflinePreferred()
+                    ? tryLoadOffline(loadAttempt, setup, partialModelListener)
+                    : null;
+
+            // Dependencies added since the network became unreachable are not
+            // in the cache, so the network is tried again for them.
+            NbModelLoader.Result incompleteOfflineModels = null;
+            if (offlineModels != null && OfflineModelLoads.hasUnresolvedOfflineDependency(offlineModels.getIssues())) {
+                LOGGER.log(Level.INFO, "Some dependencies are not available offline, loading the models online.");
+                incompleteOfflineModels = offlineModels;
+                offlineModels = null;
+            }
 
-            loadedModels = modelLoader.loadModels(project, projectConnection, progress);
-        } finally {
-            if (projectConnection != null) {
-                projectConnection.close();
+            if (offlineModels != null) {
+                loadedModels = offlineModels;
             }
+            else {
+                NbModelLoader.Result onlineModels;
+                try {
+                    onlineModels = loadAttempt.load(setup, partialModelListener);
+                } catch (IOException ex) {
+                    offlineModels = tryRetryOffline(loadAttempt, setup, ex, incompleteOfflineModels);
+                    if (offlineModels == null) throw ex;
+                    onlineModels = null;
+                } catch (BuildException ex) {
+                    offlineModels = tryRetryOffline(loadAttempt, setup, ex, incompleteOfflineModels);
+                    if (offlineModels == null) throw ex;
+                    onlineModels = null;
+                } catch (GradleConnectionException ex) {
+                    offlineModels = tryRetryOffline(loadAttempt, setup, ex, incompleteOfflineModels);
+                    if (offlineModels == null) throw ex;
+                    onlineModels = null;
+                }
+
+                if (onlineModels != null && OfflineModelLoads.hasConnectivityIssue(onlineModels.getIssues())) {
+                    LOGGER.log(Level.INFO, "Some models could not be loaded due to a network problem, retrying offline.");
+                    OFFLINE_LOADS.recordConnectivityFailure();
+                    offlineModels = incompleteOfflineModels != null
+                            ? incompleteOfflineModels
+                            : tryLoadOffline(loadAttempt, setup, null);
+                    if (offlineModels != null && offlineModels.getIssues().size() > onlineModels.getIssues().size()) {
+                        offlineModels = null;
+                    }
+                }
+                else if (onlineModels != null) {
+                    OFFLINE_LOADS.recordOnlineSuccess();
+                }
+
+                loadedModels = offlineModels != null ? offlineModels : onlineModels;
+            }
+
+            if (loadedModels == offlineModels) {
+                LOGGER.log(Level.INFO, "The models of {0} were loaded offline.", projectDir);
+                StatusDisplayer.getDefault().setStatusText(
+                        NbStrings.getLoadedOfflineMessage(project.getDisplayName()));
+            }
+            else {
+                loadedOnline = true;
+            }
+        } finally {
+            connectionRef.close();
+            timings.finish();
+        }
+
+        if (loadedOnline && projectCount >= ModelLoadTuning.DEFAULT_MIN_PROJECT_COUNT) {
+            recordTuningResult(rootDir, tuned, timings);
         }
 
         ModelLoadIssueReporter.reportAllIssues(loadedModels.getIssues());
@@ -452,9 +827,83 @@ public final class GradleModelLoader {
 
         introduceProjects(loadedModels.getOtherModels(), result);
 
+        return new NbModelLoader.Result(
+                result,
+                loadedModels.getOtherModels(),
+                loadedModels.getIssues(),
+                loadedModels.getIncompleteProjectDirs());
+    }
+
+    private static int countProjects(NbGradleProjectTree tree) {
+        int result = 1;
+        for (NbGradleProjectTree child: tree.getChildren()) {
+            result += countProjects(child);
+        }
         return result;
     }
 
+    private static int countProjects(NbGradleModel model) {
+        return countProjects(model.getProjectDef().getRootProject());
+    }
+
+    // Loads done offline are not recorded because skipping the dependency
+    // resolution over the network would distort the comparison.
+    private static void recordTuningResult(File rootDir, boolean tuned, ModelLoadTimings timings) {
+        LOAD_TUNING.recordLoad(rootDir, tuned, timings.getTotalTimeMillis());
+
+        boolean autoTune = GlobalGradleSettings.getAutoTuneModelLoads().getValue();
+        if (autoTune || tuned) {
+            LOGGER.log(Level.INFO, "Model load times of {0} ({1}): {2}",
+                    new Object[]{rootDir, tuned ? "tuned" : "untuned", LOAD_TUNING.tryDescribe(rootDir)});
+        }
+        if (autoTune && tuned && !LOAD_TUNING.isTuningUseful(rootDir)) {
+            LOGGER.log(Level.INFO, "Tuned arguments did not speed up loading {0}, they will not be used anymore.", rootDir);
+        }
+    }
+
+    // Returns null if the models could not be loaded offline.
+    private static NbModelLoader.Result tryLoadOffline(
+            ModelLoadAttempt loadAttempt,
+            ModelBuilderSetup setup,
+            PartialModelListener partialModelListener) throws IOException {
+        try {
+            return loadAttempt.load(setup.toOffline(), partialModelListener);
+        } catch (BuildException ex) {
+            LOGGER.log(Level.INFO, "Failed to load the models offline.", ex);
+        } catch (GradleConnectionException ex) {
+            LOGGER.log(Level.INFO, "Failed to load the models offline.", ex);
+        } catch (InterruptedIOException ex) {
+            throw ex;
+        } catch (IOException ex) {
+            LOGGER.log(Level.INFO, "Failed to load the models offline.", ex);
+        }
+        return null;
+    }
+
+    // offlineModels is the result of an offline load already done (or null),
+    // which is returned instead of loading the models offline again.
+    private static NbModelLoader.Result tryRetryOffline(
+            ModelLoadAttempt loadAttempt,
+            ModelBuilderSetup setup,
+            Throwable onlineError,
+            NbModelLoader.Result offlineModels) throws IOException {
+        if (!OfflineModelLoads.isConnectivityFailure(onlineError)) {
+            return null;
+        }
+
+        LOGGER.log(Level.INFO, "Loading the models failed due to a network problem, retrying offline.", onlineError);
+        OFFLINE_LOADS.recordConnectivityFailure();
+        return offlineModels != null
+                ? offlineModels
+                : tryLoadOffline(loadAttempt, setup, null);
+    }
+
+    private static File getRootBuildDir(File projectDir) {
+        File rootBuildKey = ProjectLoadScheduler.getRootBuildKey(projectDir);
+        File result = rootBuildKey.isDirectory() ? rootBuildKey : rootBuildKey.getParentFile();
+        return result != null ? result : projectDir;
+    }
+
     private static void reportKnownIssues(BuildEnvironment env) {
         GradleVersion version = GradleVersion.version(env.getGradle().getGradleVersion());
         if (GradleVersions.VERSION_1_7.compareTo(version) < 0
@@ -469,13 +918,16 @@ public final class GradleModelLoader {
     private static NbModelLoader chooseModel(
             GradleTarget gradleTarget,
             NbGradleModel cachedModel,
-            OperationInitializer setup) {
+            OperationInitializer setup,
+            ModelLoadTimings timings,
+            PartialModelListener partialModelListener,
+            boolean mayReuseParsedModels) {
 
         GradleVersion version = gradleTarget.getGradleVersion();
 
         if (GlobalGradleSettings.getModelLoadingStrategy().getValue().canUse18Api(version)) {
             LOGGER.log(Level.INFO, "Using model loader: {0}", NbGradle18ModelLoader.class.getSimpleName());
-            return new NbGradle18ModelLoader(setup, gradleTarget);
+            return new NbGradle18ModelLoader(setup, gradleTarget, timings, partialModelListener, mayReuseParsedModels);
         }
         else {
             LOGGER.log(Level.INFO, "Using model loader: {0}", NbCompatibleModelLoader.class.getSimpleName());
@@ -584,9 +1036,11 @@ public final class GradleModelLoader {
         private final JavaPlatform jdkPlatform;
         private final File jdkHome;
         private final List<String> globalJvmArgs;
+        private final List<String> extraArgs;
 
         public ModelBuilderSetup(Project project, ProgressHandle progress) {
             this.progress = progress;
+            this.extraArgs = Collections.emptyList();
 
             JavaPlatform selectedPlatform = GradleModelLoader.tryGetScriptJavaPlatform(project);
             this.jdkHome = GradleModelLoader.getScriptJavaHome(selectedPlatform);
@@ -600,6 +1054,35 @@ public final class GradleModelLoader {
                     : Collections.<String>emptyList();
         }
 
+        private ModelBuilderSetup(ModelBuilderSetup base, List<String> extraArgs) {
+            this.progress = base.progress;
+            this.jdkPlatform = base.jdkPlatform;
+            this.jdkHome = base.jdkHome;
+            this.globalJvmArgs = base.globalJvmArgs;
+            this.extraArgs = extraArgs;
+        }
+
+        public ModelBuilderSetup withArguments(List<String> arguments) {
+            List<String> newExtraArgs = new ArrayList<String>(extraArgs);
+            for (String argument: arguments) {
+                if (!newExtraArgs.contains(argument)) {
+                    newExtraArgs.add(argument);
+                }
+            }
+
+            return newExtraArgs.size() != extraArgs.size()
+                    ? new ModelBuilderSetup(this, Collections.unmodifiableList(newExtraArgs))
+                    : this;
+        }
+
+        public ModelBuilderSetup toOffline() {
+            return withArguments(Collections.singletonList("--offline"));
+        }
+
+        public File getJdkHome() {
+            return jdkHome;
+        }
+
         public JavaPlatform getJdkPlatform() {
             return jdkPlatform;
         }
@@ -624,6 +1107,15 @@ public final class GradleModelLoader {
                 args.setJvmArguments(globalJvmArgs.toArray(new String[0]));
             }
 
+            if (!extraArgs.isEmpty()) {
+                String[] prevArgs = args.getArguments();
+                List<String> newArgs = prevArgs != null
+                        ? new ArrayList<String>(Arrays.asList(prevArgs))
+                        : new ArrayList<String>();
+                newArgs.addAll(extraArgs);
+                args.setArguments(newArgs.toArray(new String[newArgs.size()]));
+            }
+
             args.setProgressListeners(new ProgressListener[]{
                 new ProgressListener() {
                     @Override
@@ -634,4 +1126,45 @@ public final class GradleModelLoader {
             });
         }
     }
+
+    private static final class ModelLoadAttempt {
+        private final NbGradleProject project;
+        private final ProjectConnection connection;
+        private final ProgressHandle progress;
+        private final NbGradleModel cachedEntry;
+        private final GradleTarget gradleTarget;
+        private final ModelLoadTimings timings;
+        private final boolean mayReuseParsedModels;
+
+        public ModelLoadAttempt(
+                NbGradleProject project,
+                ProjectConnection connection,
+                ProgressHandle progress,
+                NbGradleModel cachedEntry,
+                GradleTarget gradleTarget,
+                ModelLoadTimings timings,
+                boolean mayReuseParsedModels) {
+            this.project = project;
+            this.connection = connection;
+            this.progress = progress;
+            this.cachedEntry = cachedEntry;
+            this.gradleTarget = gradleTarget;
+            this.timings = timings;
+            this.mayReuseParsedModels = mayReuseParsedModels;
+        }
+
+        public NbModelLoader.Result load(
+                ModelBuilderSetup setup,
+                PartialModelListener partialModelListener) throws IOException {
+            NbModelLoader modelLoader = chooseModel(
+                    gradleTarget, cachedEntry, setup, timings, partialModelListener, mayReuseParsedModels);
+
+            long loadStartTime = System.nanoTime();
+            try {
+                return modelLoader.loadModels(project, connection, progress);
+            } finally {
+                timings.recordPhase(ModelLoadTimings.PHASE_LOAD_MODELS, System.nanoTime() - loadStartTime);
+            }
+        }
+    }
 }
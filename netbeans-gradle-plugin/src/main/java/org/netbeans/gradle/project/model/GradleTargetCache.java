@@ -0,0 +1,109 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.gradle.util.GradleVersion;
+import org.netbeans.gradle.project.GradleProjectConstants;
+import org.netbeans.gradle.project.properties.GradleLocation;
+
+// Remembers the Gradle version of root builds, so that reloading a project
+// does not need an extra BuildEnvironment request. An entry is only used if
+// none of the files which might select a different Gradle distribution has
+// changed since the entry was stored. The Gradle location and the JDK are part
+// of the key, so changing them in the settings needs no explicit eviction.
+final class GradleTargetCache {
+    private static final String[] STAMPED_FILES = {
+        GradleProjectConstants.SETTINGS_FILE_NAME,
+        GradleProjectConstants.GRADLE_PROPERTIES_NAME,
+        "gradle" + File.separator + "wrapper" + File.separator + "gradle-wrapper.properties",
+    };
+
+    private final ConcurrentMap<CacheKey, CachedVersion> versions;
+
+    public GradleTargetCache() {
+        this.versions = new ConcurrentHashMap<CacheKey, CachedVersion>();
+    }
+
+    private static long[] getFileStamps(File rootDir) {
+        long[] result = new long[2 * STAMPED_FILES.length];
+        for (int i = 0; i < STAMPED_FILES.length; i++) {
+            File file = new File(rootDir, STAMPED_FILES[i]);
+            result[2 * i] = file.lastModified();
+            result[2 * i + 1] = file.length();
+        }
+        return result;
+    }
+
+    public GradleVersion tryGetGradleVersion(File rootDir, GradleLocation gradleLocation, File javaHome) {
+        CacheKey key = new CacheKey(rootDir, gradleLocation, javaHome);
+        CachedVersion cached = versions.get(key);
+        if (cached == null) {
+            return null;
+        }
+
+        if (!Arrays.equals(cached.fileStamps, getFileStamps(rootDir))) {
+            versions.remove(key, cached);
+            return null;
+        }
+        return cached.gradleVersion;
+    }
+
+    public void setGradleVersion(
+            File rootDir,
+            GradleLocation gradleLocation,
+            File javaHome,
+            GradleVersion gradleVersion) {
+        if (gradleVersion == null) throw new NullPointerException("gradleVersion");
+
+        CacheKey key = new CacheKey(rootDir, gradleLocation, javaHome);
+        versions.put(key, new CachedVersion(gradleVersion, getFileStamps(rootDir)));
+    }
+
+    private static final class CachedVersion {
+        private final GradleVersion gradleVersion;
+        private final long[] fileStamps;
+
+        public CachedVersion(GradleVersion gradleVersion, long[] fileStamps) {
+            this.gradleVersion = gradleVersion;
+            this.fileStamps = fileStamps;
+        }
+    }
+
+    private static final class CacheKey {
+        private final File rootDir;
+        private final String gradleLocation;
+        private final File javaHome;
+
+        public CacheKey(File rootDir, GradleLocation gradleLocation, File javaHome) {
+            if (rootDir == null) throw new NullPointerException("rootDir");
+            if (gradleLocation == null) throw new NullPointerException("gradleLocation");
+
+            this.rootDir = rootDir;
+            this.gradleLocation = gradleLocation.getUniqueTypeName() + ":" + gradleLocation.asString();
+            this.javaHome = javaHome;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 3;
+            hash = 53 * hash + rootDir.hashCode();
+            hash = 53 * hash + gradleLocation.hashCode();
+            hash = 53 * hash + (javaHome != null ? javaHome.hashCode() : 0);
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) return true;
+            if (obj == null) return false;
+            if (getClass() != obj.getClass()) return false;
+
+            final CacheKey other = (CacheKey)obj;
+            return rootDir.equals(other.rootDir)
+                    && gradleLocation.equals(other.gradleLocation)
+                    && (javaHome == other.javaHome || (javaHome != null && javaHome.equals(other.javaHome)));
+        }
+    }
+}
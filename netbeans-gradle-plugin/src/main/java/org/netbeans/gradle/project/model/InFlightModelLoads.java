@@ -0,0 +1,138 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.netbeans.gradle.project.NbGradleProject;
+
+// Keeps track of the model loads submitted but not yet completed, keyed by
+// the root build (see ProjectLoadScheduler.getRootBuildKey). Since a single
+// load returns the models of every project of the build, requests for other
+// projects of the same build may wait for the pending load instead of
+// starting a new one.
+final class InFlightModelLoads {
+    private final Lock mainLock;
+    private final Map<File, PendingLoad> pendingLoads;
+
+    public InFlightModelLoads() {
+        this.mainLock = new ReentrantLock();
+        this.pendingLoads = new HashMap<File, PendingLoad>();
+    }
+
+    // Returns null if the request was attached to an already pending load,
+    // otherwise returns the newly registered load which must be completed
+    // by the caller and submitted to the given executor.
+    //
+    // If the request is attached to a pending load, the priority of that load
+    // is raised to the given priority, so that the request does not wait
+    // longer than if it had submitted its own load.
+    public PendingLoad attachOrRegister(
+            File rootBuildKey,
+            NbGradleProject project,
+            boolean mayFetchFromCache,
+            ModelRetrievedListener listener,
+            ProjectLoadScheduler.PrioritizedExecutor executor,
+            ModelLoadPriority priority) {
+        if (rootBuildKey == null) throw new NullPointerException("rootBuildKey");
+        if (project == null) throw new NullPointerException("project");
+        if (listener == null) throw new NullPointerException("listener");
+        if (executor == null) throw new NullPointerException("executor");
+        if (priority == null) throw new NullPointerException("priority");
+
+        ProjectLoadScheduler.PrioritizedExecutor pendingExecutor;
+        mainLock.lock();
+        try {
+            PendingLoad pending = pendingLoads.get(rootBuildKey);
+            // A load already in progress might not see the latest changes of
+            // the build scripts, so explicit reload requests wait for it
+            // only if it has not yet been started.
+            if (pending != null && (!pending.started || mayFetchFromCache)) {
+                pending.waiters.add(new Waiter(project, mayFetchFromCache, listener));
+                pendingExecutor = pending.executor;
+            }
+            else {
+                PendingLoad result = new PendingLoad(rootBuildKey, executor);
+                pendingLoads.put(rootBuildKey, result);
+                return result;
+            }
+        } finally {
+            mainLock.unlock();
+        }
+
+        pendingExecutor.raisePriority(priority);
+        return null;
+    }
+
+    public void markStarted(PendingLoad load) {
+        mainLock.lock();
+        try {
+            load.started = true;
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    // Returns the requests waiting for the given load. No more requests can
+    // attach to the load after this method returns.
+    public List<Waiter> complete(PendingLoad load) {
+        mainLock.lock();
+        try {
+            if (pendingLoads.get(load.rootBuildKey) == load) {
+                pendingLoads.remove(load.rootBuildKey);
+            }
+
+            if (load.waiters.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            List<Waiter> result = new LinkedList<Waiter>(load.waiters);
+            load.waiters.clear();
+            return result;
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    public static final class PendingLoad {
+        private final File rootBuildKey;
+        private final ProjectLoadScheduler.PrioritizedExecutor executor;
+        private final List<Waiter> waiters;
+        private boolean started;
+
+        private PendingLoad(File rootBuildKey, ProjectLoadScheduler.PrioritizedExecutor executor) {
+            this.rootBuildKey = rootBuildKey;
+            this.executor = executor;
+            this.waiters = new LinkedList<Waiter>();
+            this.started = false;
+        }
+    }
+
+    public static final class Waiter {
+        private final NbGradleProject project;
+        private final boolean mayFetchFromCache;
+        private final ModelRetrievedListener listener;
+
+        private Waiter(NbGradleProject project, boolean mayFetchFromCache, ModelRetrievedListener listener) {
+            this.project = project;
+            this.mayFetchFromCache = mayFetchFromCache;
+            this.listener = listener;
+        }
+
+        public NbGradleProject getProject() {
+            return project;
+        }
+
+        public boolean isMayFetchFromCache() {
+            return mayFetchFromCache;
+        }
+
+        public ModelRetrievedListener getListener() {
+            return listener;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.netbeans.gradle.project.properties.GlobalGradleSettings;
+
+// A snapshot of the models of a build which can be shared between machines:
+// Paths below the root project and the Gradle user home are stored relative
+// to them.
+//
+// The models of a project are only imported if its build scripts have the
+// same content as when the snapshot was exported. Imported models are dirty,
+// so they are reloaded when used but the project is usable in the meantime.
+final class ModelCacheSnapshot {
+    private static final Logger LOGGER = Logger.getLogger(ModelCacheSnapshot.class.getName());
+
+    private static final int SNAPSHOT_FORMAT_VERSION = 1;
+
+    private static final String ROOT_DIR_ID = "root";
+    private static final String GRADLE_USER_HOME_ID = "gradle-user-home";
+
+    private final File rootDir;
+    private final RelocatableSerializer serializer;
+
+    public ModelCacheSnapshot(File rootDir) {
+        if (rootDir == null) throw new NullPointerException("rootDir");
+
+        this.rootDir = rootDir;
+
+        Map<String, File> baseDirs = new LinkedHashMap<String, File>();
+        baseDirs.put(ROOT_DIR_ID, rootDir);
+        baseDirs.put(GRADLE_USER_HOME_ID, getGradleUserHome());
+        this.serializer = new RelocatableSerializer(baseDirs);
+    }
+
+    private static File getGradleUserHome() {
+        File result = GlobalGradleSettings.getGradleUserHomeDir().getValue();
+        if (result != null) {
+            return result;
+        }
+
+        String envValue = System.getenv("GRADLE_USER_HOME");
+        if (envValue != null && !envValue.isEmpty()) {
+            return new File(envValue);
+        }
+        return new File(System.getProperty("user.home"), ".gradle");
+    }
+
+    private static void writeBytes(DataOutputStream output, byte[] bytes) throws IOException {
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream input, long maxLength) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > maxLength) {
+            throw new IOException("Invalid length in snapshot: " + length);
+        }
+
+        byte[] result = new byte[length];
+        input.readFully(result);
+        return result;
+    }
+
+    private byte[] trySerialize(String extensionName, Object model) {
+        try {
+            return serializer.serialize(model);
+        } catch (IOException ex) {
+            LOGGER.log(Level.FINE, "The model of extension " + extensionName + " cannot be exported.", ex);
+            return null;
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.FINE, "The model of extension " + extensionName + " cannot be exported.", ex);
+            return null;
+        }
+    }
+
+    private void writeModel(DataOutputStream output, NbGradleModel model) throws IOException {
+        File projectDir = model.getProjectDir();
+
+        output.writeUTF(PersistentModelCache.digestBuildScriptContents(projectDir, model.getSettingsFile()));
+        writeBytes(output, serializer.serialize(model.getGenericInfo()));
+
+        Map<String, byte[]> serializedModels = new LinkedHashMap<String, byte[]>();
+        for (Map.Entry<String, Object> entry: model.getExtensionModels().entrySet()) {
+            String extensionName = entry.getKey();
+            Object extensionModel = entry.getValue();
+
+            byte[] serializedModel = extensionModel != null
+                    ? trySerialize(extensionName, extensionModel)
+                    : null;
+            if (extensionModel == null || serializedModel != null) {
+                serializedModels.put(extensionName, serializedModel);
+            }
+        }
+
+        output.writeInt(serializedModels.size());
+        for (Map.Entry<String, byte[]> entry: serializedModels.entrySet()) {
+            output.writeUTF(entry.getKey());
+            byte[] serializedModel = entry.getValue();
+            if (serializedModel != null) {
+                writeBytes(output, serializedModel);
+            }
+            else {
+                output.writeInt(-1);
+            }
+        }
+    }
+
+    public void exportModels(Collection<NbGradleModel> models, File snapshotFile) throws IOException {
+        if (models == null) throw new NullPointerException("models");
+        if (snapshotFile == null) throw new NullPointerException("snapshotFile");
+
+        File snapshotDir = snapshotFile.getParentFile();
+        if (snapshotDir != null) {
+            snapshotDir.mkdirs();
+        }
+
+        File tmpFile = new File(snapshotDir, snapshotFile.getName() + ".tmp");
+        try {
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+            try {
+                output.writeInt(SNAPSHOT_FORMAT_VERSION);
+                output.writeInt(models.size());
+                for (NbGradleModel model: models) {
+                    writeModel(output, model);
+                }
+            } finally {
+                output.close();
+            }
+
+            if (snapshotFile.exists() && !snapshotFile.delete()) {
+                throw new IOException("Failed to remove the previous snapshot: " + snapshotFile);
+            }
+            if (!tmpFile.renameTo(snapshotFile)) {
+                throw new IOException("Failed to save the snapshot: " + snapshotFile);
+            }
+        } finally {
+            if (tmpFile.exists() && !tmpFile.delete()) {
+                LOGGER.log(Level.FINE, "Failed to remove temporary file: {0}", tmpFile);
+            }
+        }
+
+        LOGGER.log(Level.INFO, "Exported the models of {0} projects to {1}",
+                new Object[]{models.size(), snapshotFile});
+    }
+
+    private static int readCount(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        if (count < 0) {
+            throw new IOException("Invalid element count in snapshot: " + count);
+        }
+        return count;
+    }
+
+    private NbGenericModelInfo readGenericInfo(
+            DataInputStream input,
+            long maxLength,
+            ClassLoader classLoader) throws IOException {
+
+        byte[] serializedInfo = readBytes(input, maxLength);
+        if (serializedInfo == null) {
+            throw new IOException("Missing project information in snapshot.");
+        }
+
+        Object result = serializer.deserialize(serializedInfo, classLoader);
+        if (!(result instanceof NbGenericModelInfo)) {
+            throw new IOException("Unexpected project information in snapshot: " + result);
+        }
+        return (NbGenericModelInfo)result;
+    }
+
+    private NbGradleModel tryReadModel(
+            DataInputStream input,
+            long maxLength,
+            ClassLoader classLoader) throws IOException {
+
+        String scriptsHash = input.readUTF();
+        NbGenericModelInfo genericInfo = readGenericInfo(input, maxLength, classLoader);
+
+        NbGradleModel.Builder result = new NbGradleModel.Builder(genericInfo);
+
+        int extensionCount = readCount(input);
+        for (int i = 0; i < extensionCount; i++) {
+            String extensionName = input.readUTF();
+            byte[] serializedModel = readBytes(input, maxLength);
+            try {
+                Object model = serializedModel != null
+                        ? serializer.deserialize(serializedModel, classLoader)
+                        : null;
+                result.setModelForExtension(extensionName, model);
+            } catch (IOException ex) {
+                // The extension will be loaded as if there was no model.
+                LOGGER.log(Level.FINE, "Failed to import the model of extension " + extensionName, ex);
+            }
+        }
+
+        File projectDir = genericInfo.getProjectDir();
+        File settingsFile = genericInfo.getSettingsFile();
+        if (!scriptsHash.equals(PersistentModelCache.digestBuildScriptContents(projectDir, settingsFile))) {
+            LOGGER.log(Level.FINE, "The build scripts of {0} have changed since the snapshot was made.", projectDir);
+            return null;
+        }
+
+        result.setBuildScriptsHash(PersistentModelCache.digestBuildScripts(projectDir, settingsFile));
+        return result.create().createDirtyCopy();
+    }
+
+    // Returns the models of the projects whose build scripts are the same as
+    // when the snapshot was exported. A corrupt snapshot is reported as an
+    // IOException.
+    public List<NbGradleModel> importModels(File snapshotFile) throws IOException {
+        if (snapshotFile == null) throw new NullPointerException("snapshotFile");
+
+        ClassLoader classLoader = PersistentModelCache.getModelClassLoader();
+        long maxLength = snapshotFile.length();
+
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)));
+        try {
+            int formatVersion = input.readInt();
+            if (formatVersion != SNAPSHOT_FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot format: " + formatVersion);
+            }
+
+            int modelCount = readCount(input);
+            List<NbGradleModel> result = new ArrayList<NbGradleModel>();
+            for (int i = 0; i < modelCount; i++) {
+                NbGradleModel model = tryReadModel(input, maxLength, classLoader);
+                if (model != null) {
+                    result.add(model);
+                }
+            }
+
+            LOGGER.log(Level.INFO, "Imported the models of {0} projects out of {1} for {2}",
+                    new Object[]{result.size(), modelCount, rootDir});
+            return result;
+        } catch (RuntimeException ex) {
+            throw new IOException("Invalid snapshot: " + snapshotFile, ex);
+        } finally {
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.netbeans.gradle.project.model;
+
+import javax.swing.event.ChangeEvent;
+
+// The event passed to the model change listeners of a project. It tells what
+// has changed in the model, if this is known.
+public final class ModelChangeEvent extends ChangeEvent {
+    private static final long serialVersionUID = 1L;
+
+    private final transient NbGradleModelDiff modelDiff;
+
+    // modelDiff might be null, if it is not known what has changed.
+    public ModelChangeEvent(Object source, NbGradleModelDiff modelDiff) {
+        super(source);
+        this.modelDiff = modelDiff;
+    }
+
+    // Returns null if the event does not tell what has changed (e.g.: it is
+    // not a ModelChangeEvent).
+    public static NbGradleModelDiff tryGetModelDiff(ChangeEvent event) {
+        return event instanceof ModelChangeEvent
+                ? ((ModelChangeEvent)event).getModelDiff()
+                : null;
+    }
+
+    // Returns null if it is not known what has changed.
+    public NbGradleModelDiff getModelDiff() {
+        return modelDiff;
+    }
+}
@@ -0,0 +1,16 @@
+package org.netbeans.gradle.project.model;
+
+// The priorities of project loads, from the most important to the least.
+enum ModelLoadPriority {
+    // The main project of the IDE.
+    VISIBLE,
+    // Projects opened in the IDE.
+    OPENED,
+    // Projects which are not opened (e.g.: they are only loaded because an
+    // opened project depends on them or they are prefetched).
+    BACKGROUND;
+
+    public boolean isHigherThan(ModelLoadPriority other) {
+        return ordinal() < other.ordinal();
+    }
+}
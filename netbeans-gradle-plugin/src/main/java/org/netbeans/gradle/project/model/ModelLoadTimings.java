@@ -0,0 +1,205 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import org.netbeans.gradle.model.FetchPhaseListener;
+import org.netbeans.gradle.model.GenericModelFetcher;
+
+// Collects the time spent in the phases of loading the models of a project.
+// Completed timings are logged (the first parameter of the LogRecord is the
+// ModelLoadTimings instance) and the most recent ones can be queried through
+// getRecentTimings().
+//
+// Times are in nanoseconds and are summed if a phase is recorded multiple
+// times.
+public final class ModelLoadTimings implements FetchPhaseListener {
+    private static final Logger LOGGER = Logger.getLogger(ModelLoadTimings.class.getName());
+
+    public static final String PHASE_CONNECT = "connect";
+    public static final String PHASE_BUILD_ENVIRONMENT = "build-environment";
+    public static final String PHASE_PROJECT_TREE = "project-tree";
+    public static final String PHASE_BUILD_ACTION = GenericModelFetcher.PHASE_BUILD_ACTION;
+    public static final String PHASE_DESERIALIZE_RESULTS = GenericModelFetcher.PHASE_DESERIALIZE_RESULTS;
+    public static final String PHASE_LOAD_MODELS = "load-models";
+    public static final String PHASE_PARSE_MODELS = "parse-models";
+
+    private static final int MAX_RECENT_TIMINGS = 32;
+
+    private static final Lock RECENT_TIMINGS_LOCK = new ReentrantLock();
+    private static final LinkedList<ModelLoadTimings> RECENT_TIMINGS = new LinkedList<ModelLoadTimings>();
+
+    private final File projectDir;
+    private final long startTime;
+
+    private final Lock mainLock;
+    private final Map<String, Long> phaseTimes;
+    private final Map<String, Long> extensionTimes;
+    private final Map<File, Long> projectTimes;
+    private long totalTime;
+
+    public ModelLoadTimings(File projectDir) {
+        if (projectDir == null) throw new NullPointerException("projectDir");
+
+        this.projectDir = projectDir;
+        this.startTime = System.nanoTime();
+        this.mainLock = new ReentrantLock();
+        this.phaseTimes = new LinkedHashMap<String, Long>();
+        this.extensionTimes = new LinkedHashMap<String, Long>();
+        this.projectTimes = new LinkedHashMap<File, Long>();
+        this.totalTime = -1;
+    }
+
+    public static List<ModelLoadTimings> getRecentTimings() {
+        RECENT_TIMINGS_LOCK.lock();
+        try {
+            return new ArrayList<ModelLoadTimings>(RECENT_TIMINGS);
+        } finally {
+            RECENT_TIMINGS_LOCK.unlock();
+        }
+    }
+
+    // Returns the last completed load started for the given project.
+    public static ModelLoadTimings tryGetLastTimings(File projectDir) {
+        if (projectDir == null) throw new NullPointerException("projectDir");
+
+        RECENT_TIMINGS_LOCK.lock();
+        try {
+            for (int i = RECENT_TIMINGS.size() - 1; i >= 0; i--) {
+                ModelLoadTimings timings = RECENT_TIMINGS.get(i);
+                if (projectDir.equals(timings.projectDir)) {
+                    return timings;
+                }
+            }
+            return null;
+        } finally {
+            RECENT_TIMINGS_LOCK.unlock();
+        }
+    }
+
+    private static void addToRecent(ModelLoadTimings timings) {
+        RECENT_TIMINGS_LOCK.lock();
+        try {
+            RECENT_TIMINGS.add(timings);
+            while (RECENT_TIMINGS.size() > MAX_RECENT_TIMINGS) {
+                RECENT_TIMINGS.removeFirst();
+            }
+        } finally {
+            RECENT_TIMINGS_LOCK.unlock();
+        }
+    }
+
+    private <K> void addTime(Map<K, Long> times, K key, long elapsedNanos) {
+        mainLock.lock();
+        try {
+            Long prevTime = times.get(key);
+            times.put(key, prevTime != null ? prevTime + elapsedNanos : elapsedNanos);
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    private <K> Map<K, Long> copyTimes(Map<K, Long> times) {
+        mainLock.lock();
+        try {
+            return Collections.unmodifiableMap(new LinkedHashMap<K, Long>(times));
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    @Override
+    public void onPhaseCompleted(String phaseName, long elapsedNanos) {
+        recordPhase(phaseName, elapsedNanos);
+    }
+
+    public void recordPhase(String phaseName, long elapsedNanos) {
+        if (phaseName == null) throw new NullPointerException("phaseName");
+        addTime(phaseTimes, phaseName, elapsedNanos);
+    }
+
+    public void recordExtensionParse(String extensionName, long elapsedNanos) {
+        if (extensionName == null) throw new NullPointerException("extensionName");
+        addTime(extensionTimes, extensionName, elapsedNanos);
+    }
+
+    public void recordProjectParse(File projectDir, long elapsedNanos) {
+        if (projectDir == null) throw new NullPointerException("projectDir");
+        addTime(projectTimes, projectDir, elapsedNanos);
+    }
+
+    // Calling this method more than once has no effect.
+    public void finish() {
+        mainLock.lock();
+        try {
+            if (totalTime >= 0) {
+                return;
+            }
+            totalTime = System.nanoTime() - startTime;
+        } finally {
+            mainLock.unlock();
+        }
+
+        addToRecent(this);
+
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LogRecord record = new LogRecord(Level.INFO, "Loaded the models of {1} in {2} ms: {3}");
+            record.setLoggerName(LOGGER.getName());
+            record.setParameters(new Object[]{this, projectDir, getTotalTimeMillis(), toMillis(getPhaseTimes())});
+            LOGGER.log(record);
+        }
+    }
+
+    public File getProjectDir() {
+        return projectDir;
+    }
+
+    // Returns -1 if the load has not yet finished.
+    public long getTotalTimeMillis() {
+        mainLock.lock();
+        try {
+            return totalTime >= 0 ? TimeUnit.NANOSECONDS.toMillis(totalTime) : -1;
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    public Map<String, Long> getPhaseTimes() {
+        return copyTimes(phaseTimes);
+    }
+
+    public Map<String, Long> getExtensionTimes() {
+        return copyTimes(extensionTimes);
+    }
+
+    public Map<File, Long> getProjectTimes() {
+        return copyTimes(projectTimes);
+    }
+
+    private static <K> Map<K, Long> toMillis(Map<K, Long> nanoTimes) {
+        Map<K, Long> result = new LinkedHashMap<K, Long>();
+        for (Map.Entry<K, Long> entry: nanoTimes.entrySet()) {
+            result.put(entry.getKey(), TimeUnit.NANOSECONDS.toMillis(entry.getValue()));
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ModelLoadTimings{" + "projectDir=" + projectDir
+                + ", totalTimeMillis=" + getTotalTimeMillis()
+                + ", phases=" + toMillis(getPhaseTimes())
+                + ", extensions=" + toMillis(getExtensionTimes())
+                + ", projects=" + toMillis(getProjectTimes()) + '}';
+    }
+}
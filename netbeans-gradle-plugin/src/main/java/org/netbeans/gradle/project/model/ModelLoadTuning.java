@@ -0,0 +1,240 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.prefs.Preferences;
+import org.gradle.util.GradleVersion;
+import org.netbeans.gradle.project.StringUtils;
+
+// Chooses additional Gradle arguments for loading the models of large
+// multi-project builds and keeps track of how long tuned and untuned loads
+// took, so that tuning can be abandoned for builds where it does not help.
+//
+// The arguments are only meant for model queries: They are not passed to the
+// tasks executed by the user.
+//
+// Since tuned loads alone cannot tell if tuning helps, every
+// BASELINE_INTERVAL-th load of a build is done without tuning. The stats are
+// stored in the given preferences node (if any), so that they survive
+// restarts.
+final class ModelLoadTuning {
+    private static final Logger LOGGER = Logger.getLogger(ModelLoadTuning.class.getName());
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    public static final int DEFAULT_MIN_PROJECT_COUNT = 10;
+
+    // The number of tuned loads after which an untuned load is done to have an
+    // up to date baseline.
+    private static final int BASELINE_INTERVAL = 5;
+
+    // Tuning is only considered harmful for a build after this many tuned
+    // loads, so that a single slow load (e.g., a cold daemon) does not
+    // disable it.
+    private static final int MIN_TUNED_SAMPLES = 3;
+
+    private static final GradleVersion VERSION_PARALLEL = GradleVersion.version("1.2");
+    private static final GradleVersion VERSION_CONFIGURE_ON_DEMAND = GradleVersion.version("1.4");
+
+    private final int minProjectCount;
+    private final Preferences statsStore;
+
+    private final Lock mainLock;
+    private final Map<File, LoadStats> statsOfBuilds;
+
+    public ModelLoadTuning(int minProjectCount) {
+        this(minProjectCount, null);
+    }
+
+    // The statsStore might be null, if the stats should not be persisted.
+    public ModelLoadTuning(int minProjectCount, Preferences statsStore) {
+        this.minProjectCount = minProjectCount;
+        this.statsStore = statsStore;
+        this.mainLock = new ReentrantLock();
+        this.statsOfBuilds = new HashMap<File, LoadStats>();
+    }
+
+    // Returns an empty list if the build should be loaded with the arguments
+    // configured by the user only.
+    public List<String> getTunedArguments(File rootDir, int projectCount, GradleVersion gradleVersion) {
+        if (rootDir == null) throw new NullPointerException("rootDir");
+        if (gradleVersion == null) throw new NullPointerException("gradleVersion");
+
+        if (projectCount < minProjectCount || isBaselineDue(rootDir) || !isTuningUseful(rootDir)) {
+            return Collections.emptyList();
+        }
+
+        List<String> result = new ArrayList<String>(2);
+        if (gradleVersion.compareTo(VERSION_PARALLEL) >= 0) {
+            result.add("--parallel");
+        }
+        if (gradleVersion.compareTo(VERSION_CONFIGURE_ON_DEMAND) >= 0) {
+            result.add("--configure-on-demand");
+        }
+        return result;
+    }
+
+    private boolean isBaselineDue(File rootDir) {
+        mainLock.lock();
+        try {
+            LoadStats stats = getStats(rootDir);
+            return stats != null && stats.tunedSinceBaseline >= BASELINE_INTERVAL;
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    public boolean isTuningUseful(File rootDir) {
+        if (rootDir == null) throw new NullPointerException("rootDir");
+
+        mainLock.lock();
+        try {
+            LoadStats stats = getStats(rootDir);
+            if (stats == null || stats.untunedCount == 0 || stats.tunedCount < MIN_TUNED_SAMPLES) {
+                return true;
+            }
+            return stats.getTunedAverageMillis() <= stats.getUntunedAverageMillis();
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    public void recordLoad(File rootDir, boolean tuned, long loadTimeMillis) {
+        if (rootDir == null) throw new NullPointerException("rootDir");
+        if (loadTimeMillis < 0) {
+            return;
+        }
+
+        mainLock.lock();
+        try {
+            LoadStats stats = getStats(rootDir);
+            if (stats == null) {
+                stats = new LoadStats();
+                statsOfBuilds.put(rootDir, stats);
+            }
+
+            if (tuned) {
+                stats.tunedCount++;
+                stats.tunedTotalMillis += loadTimeMillis;
+                stats.tunedSinceBaseline++;
+            }
+            else {
+                stats.untunedCount++;
+                stats.untunedTotalMillis += loadTimeMillis;
+                stats.tunedSinceBaseline = 0;
+            }
+
+            storeStats(rootDir, stats);
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    // Returns a human readable comparison of the average load times or null
+    // if there were no loads yet.
+    public String tryDescribe(File rootDir) {
+        if (rootDir == null) throw new NullPointerException("rootDir");
+
+        mainLock.lock();
+        try {
+            LoadStats stats = getStats(rootDir);
+            if (stats == null) {
+                return null;
+            }
+
+            return "tuned: " + describeAverage(stats.tunedCount, stats.getTunedAverageMillis())
+                    + ", untuned: " + describeAverage(stats.untunedCount, stats.getUntunedAverageMillis());
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    // Must be called while holding mainLock.
+    private LoadStats getStats(File rootDir) {
+        LoadStats stats = statsOfBuilds.get(rootDir);
+        if (stats == null && statsStore != null) {
+            String storedStats = statsStore.get(getStoreKey(rootDir), null);
+            stats = storedStats != null ? LoadStats.tryParse(storedStats) : null;
+            if (stats != null) {
+                statsOfBuilds.put(rootDir, stats);
+            }
+        }
+        return stats;
+    }
+
+    // Must be called while holding mainLock.
+    private void storeStats(File rootDir, LoadStats stats) {
+        if (statsStore == null) {
+            return;
+        }
+
+        try {
+            statsStore.put(getStoreKey(rootDir), stats.toString());
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.INFO, "Failed to store the model load stats of " + rootDir, ex);
+        }
+    }
+
+    // The path itself cannot be used because the length of the keys of
+    // preferences is limited.
+    private static String getStoreKey(File rootDir) {
+        byte[] hash = PersistentModelCache.createDigest().digest(rootDir.getAbsolutePath().getBytes(UTF8));
+        return StringUtils.byteArrayToHex(hash);
+    }
+
+    private static String describeAverage(int count, long averageMillis) {
+        if (count == 0) {
+            return "no loads";
+        }
+        return averageMillis + " ms on average of " + count + " load(s)";
+    }
+
+    private static final class LoadStats {
+        public int tunedCount;
+        public long tunedTotalMillis;
+        public int untunedCount;
+        public long untunedTotalMillis;
+        public int tunedSinceBaseline;
+
+        public static LoadStats tryParse(String str) {
+            String[] fields = str.split(",");
+            if (fields.length != 5) {
+                return null;
+            }
+
+            try {
+                LoadStats result = new LoadStats();
+                result.tunedCount = Integer.parseInt(fields[0]);
+                result.tunedTotalMillis = Long.parseLong(fields[1]);
+                result.untunedCount = Integer.parseInt(fields[2]);
+                result.untunedTotalMillis = Long.parseLong(fields[3]);
+                result.tunedSinceBaseline = Integer.parseInt(fields[4]);
+                return result;
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+        }
+
+        public long getTunedAverageMillis() {
+            return tunedCount > 0 ? tunedTotalMillis / tunedCount : -1;
+        }
+
+        public long getUntunedAverageMillis() {
+            return untunedCount > 0 ? untunedTotalMillis / untunedCount : -1;
+        }
+
+        @Override
+        public String toString() {
+            return tunedCount + "," + tunedTotalMillis + "," + untunedCount + "," + untunedTotalMillis
+                    + "," + tunedSinceBaseline;
+        }
+    }
+}
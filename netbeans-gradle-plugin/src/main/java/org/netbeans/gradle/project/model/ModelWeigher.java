@@ -0,0 +1,72 @@
+package org.netbeans.gradle.project.model;
+
+import org.netbeans.gradle.model.java.JavaClassPaths;
+import org.netbeans.gradle.model.java.JavaSourceGroup;
+import org.netbeans.gradle.model.java.JavaSourceSet;
+import org.netbeans.gradle.project.java.model.NbJavaModel;
+import org.netbeans.gradle.project.java.model.NbJavaModule;
+
+// Estimates the heap retained by an NbGradleModel. The estimate is rough: it
+// only needs to be good enough to tell a model of a small build from a model
+// of a build with hundreds of projects and long classpaths.
+//
+// The models of the projects of a build loaded together share the same project
+// tree, so only the node of the project of a model is charged to the model.
+// This way the models of a whole build are charged for the tree once, instead
+// of every model being charged for the whole tree.
+final class ModelWeigher {
+    private static final long MODEL_WEIGHT = 2 * 1024;
+    private static final long PROJECT_WEIGHT = 512;
+    private static final long TASK_WEIGHT = 256;
+    private static final long EXTENSION_MODEL_WEIGHT = 4 * 1024;
+    private static final long SOURCE_SET_WEIGHT = 1024;
+    private static final long FILE_WEIGHT = 192;
+
+    public static long estimateRetainedSize(NbGradleModel model) {
+        if (model == null) throw new NullPointerException("model");
+
+        long result = MODEL_WEIGHT;
+        result += estimateNodeSize(model.getProjectDef().getMainProject());
+
+        for (Object extensionModel: model.getExtensionModels().values()) {
+            result += estimateExtensionModelSize(extensionModel);
+        }
+        return result;
+    }
+
+    public static long estimateExtensionModelSize(Object extensionModel) {
+        if (extensionModel instanceof NbJavaModel) {
+            return estimateJavaModelSize((NbJavaModel)extensionModel);
+        }
+        else {
+            return extensionModel != null ? EXTENSION_MODEL_WEIGHT : 0;
+        }
+    }
+
+    private static long estimateNodeSize(NbGradleProjectTree project) {
+        return PROJECT_WEIGHT + TASK_WEIGHT * project.getTasks().size();
+    }
+
+    private static long estimateJavaModelSize(NbJavaModel model) {
+        NbJavaModule module = model.getMainModule();
+
+        long result = EXTENSION_MODEL_WEIGHT;
+        for (JavaSourceSet sourceSet: module.getSources()) {
+            result += SOURCE_SET_WEIGHT;
+
+            for (JavaSourceGroup sourceGroup: sourceSet.getSourceGroups()) {
+                result += FILE_WEIGHT * sourceGroup.getSourceRoots().size();
+            }
+
+            JavaClassPaths classpaths = sourceSet.getClasspaths();
+            result += FILE_WEIGHT * classpaths.getCompileClasspaths().size();
+            result += FILE_WEIGHT * classpaths.getRuntimeClasspaths().size();
+        }
+        result += FILE_WEIGHT * module.getListedDirs().size();
+        return result;
+    }
+
+    private ModelWeigher() {
+        throw new AssertionError();
+    }
+}
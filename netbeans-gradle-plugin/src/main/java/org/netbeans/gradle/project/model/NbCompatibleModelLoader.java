@@ -2,13 +2,19 @@ package org.netbeans.gradle.project.model;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.gradle.tooling.ModelBuilder;
@@ -33,11 +39,18 @@ import org.netbeans.gradle.project.api.entry.ParsedModel;
 import org.netbeans.gradle.project.api.modelquery.GradleModelDefQuery1;
 import org.netbeans.gradle.project.api.modelquery.GradleTarget;
 import org.openide.util.Parameters;
+import org.openide.util.RequestProcessor;
 import org.openide.util.lookup.Lookups;
 
 public final class NbCompatibleModelLoader implements NbModelLoader {
     private static final Logger LOGGER = Logger.getLogger(NbCompatibleModelLoader.class.getName());
 
+    // Every model request is a separate configuration of the build before
+    // Gradle 1.8, so the models needed are requested concurrently. Requests
+    // running at the same time are served by different daemons.
+    private static final RequestProcessor MODEL_FETCHER
+            = new RequestProcessor("Gradle-Tooling-Model-Fetcher", 4, true);
+
     private final NbGradleModel baseModels;
     private final OperationInitializer setup;
     private final GradleTarget gradleTarget;
@@ -60,11 +73,31 @@ public final class NbCompatibleModelLoader implements NbModelLoader {
             ProjectConnection connection,
             ProgressHandle progress) throws IOException {
 
+        List<NbGradleExtensionRef> extensions = baseModels != null
+                ? GradleModelLoader.getUnloadedExtensions(project, baseModels)
+                : project.getExtensionRefs();
+
+        // The IdeaProject is needed for the main model and will most likely
+        // be needed by some extensions as well, so it is only fetched once.
+        Set<Class<?>> modelClasses = new LinkedHashSet<Class<?>>();
+        if (baseModels == null) {
+            modelClasses.add(IdeaProject.class);
+        }
+        for (NbGradleExtensionRef extensionRef: extensions) {
+            modelClasses.addAll(getModels(extensionRef.getExtensionDef()));
+        }
+
+        Map<Class<?>, Object> found = fetchModels(project, connection, progress, modelClasses);
+
         List<NbGradleModel.Builder> otherModels = new LinkedList<NbGradleModel.Builder>();
 
         NbGradleModel.Builder mainModel;
         if (baseModels == null) {
-            mainModel = loadMainModel(project, connection, otherModels);
+            Object ideaProject = found.get(IdeaProject.class);
+            if (ideaProject instanceof UnknownModelException) {
+                throw (UnknownModelException)ideaProject;
+            }
+            mainModel = parseMainModel(project, (IdeaProject)ideaProject, otherModels);
         }
         else {
             mainModel = new NbGradleModel.Builder(baseModels);
@@ -76,7 +109,7 @@ public final class NbCompatibleModelLoader implements NbModelLoader {
         }
         otherModelsMap.remove(mainModel.getProjectDir());
 
-        getExtensionModels(project, connection, progress, mainModel, otherModelsMap);
+        parseExtensionModels(project, progress, extensions, found, mainModel, otherModelsMap);
 
         return new Result(mainModel.create(), NbGradleModel.createAll(otherModels));
     }
@@ -90,6 +123,72 @@ public final class NbCompatibleModelLoader implements NbModelLoader {
         return builder.get();
     }
 
+    private static RuntimeException rethrowCause(ExecutionException ex) {
+        Throwable cause = ex.getCause();
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException)cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error)cause;
+        }
+        throw new RuntimeException(cause);
+    }
+
+    // Models not supported by the Gradle version are mapped to the
+    // UnknownModelException thrown for them.
+    private Map<Class<?>, Object> fetchModels(
+            NbGradleProject project,
+            final ProjectConnection projectConnection,
+            final ProgressHandle progress,
+            Collection<Class<?>> modelClasses) throws IOException {
+
+        Map<Class<?>, Object> result = new HashMap<Class<?>, Object>();
+        if (modelClasses.isEmpty()) {
+            return result;
+        }
+
+        List<Class<?>> orderedClasses = new ArrayList<Class<?>>(modelClasses);
+        List<FutureTask<Object>> tasks = new ArrayList<FutureTask<Object>>(orderedClasses.size());
+        for (final Class<?> modelClass: orderedClasses) {
+            tasks.add(new FutureTask<Object>(new Callable<Object>() {
+                @Override
+                public Object call() {
+                    progress.progress(NbStrings.getFetchingToolingModel(modelClass));
+                    try {
+                        return getModelWithProgress(projectConnection, modelClass);
+                    } catch (UnknownModelException ex) {
+                        return ex;
+                    }
+                }
+            }));
+        }
+
+        // The last one is fetched on the calling thread because it would be
+        // waiting anyway.
+        int lastIndex = tasks.size() - 1;
+        for (int i = 0; i < lastIndex; i++) {
+            MODEL_FETCHER.execute(tasks.get(i));
+        }
+        tasks.get(lastIndex).run();
+
+        try {
+            for (int i = 0; i < tasks.size(); i++) {
+                result.put(orderedClasses.get(i), tasks.get(i).get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Fetching the models of "
+                    + project.getProjectDirectoryAsFile() + " was canceled.");
+        } catch (ExecutionException ex) {
+            throw rethrowCause(ex);
+        } finally {
+            for (FutureTask<?> task: tasks) {
+                task.cancel(true);
+            }
+        }
+        return result;
+    }
+
     public static Collection<Class<?>> getBasicModels(
             GradleProjectExtensionDef<?> extension,
             GradleTarget gradleTarget) {
@@ -117,36 +216,29 @@ public final class NbCompatibleModelLoader implements NbModelLoader {
         return getBasicModels(extension, gradleTarget);
     }
 
-    private void getExtensionModels(
+    private void parseExtensionModels(
             NbGradleProject project,
-            ProjectConnection projectConnection,
             ProgressHandle progress,
+            List<NbGradleExtensionRef> extensions,
+            Map<Class<?>, Object> found,
             NbGradleModel.Builder mainModel,
             Map<File, NbGradleModel.Builder> otherModels) {
 
-        Map<Class<?>, Object> found = new HashMap<Class<?>, Object>();
-
-        NbGradleModel initialMainModel = mainModel.create();
-        for (NbGradleExtensionRef extensionRef: GradleModelLoader.getUnloadedExtensions(project, initialMainModel)) {
+        for (NbGradleExtensionRef extensionRef: extensions) {
             GradleProjectExtensionDef<?> extension = extensionRef.getExtensionDef();
             List<Object> extensionModels = new LinkedList<Object>();
 
             for (Class<?> modelClass: getModels(extension)) {
-                try {
-                    Object model = found.get(modelClass);
-                    if (model == null) {
-                        progress.progress(NbStrings.getFetchingToolingModel(modelClass));
-                        model = getModelWithProgress(projectConnection, modelClass);
-                    }
-
-                    found.put(modelClass, model);
-                    extensionModels.add(model);
-                } catch (UnknownModelException ex) {
+                Object model = found.get(modelClass);
+                if (model instanceof UnknownModelException) {
                     Throwable loggedException = LOGGER.isLoggable(Level.FINE)
-                            ? ex
+                            ? (UnknownModelException)model
                             : null;
                     LOGGER.log(Level.INFO, "Cannot find model " + modelClass.getName(), loggedException);
                 }
+                else if (model != null) {
+                    extensionModels.add(model);
+                }
             }
 
             progress.progress(NbStrings.getParsingModel());
@@ -215,17 +307,6 @@ public final class NbCompatibleModelLoader implements NbModelLoader {
         return new NbGradleModel(new NbGradleMultiProjectDef(rootProject, projectTree));
     }
 
-    private NbGradleModel.Builder loadMainModel(
-            NbGradleProject project,
-            ProjectConnection projectConnection,
-            List<NbGradleModel.Builder> otherModels) throws IOException {
-
-        IdeaProject ideaProject
-                = getModelWithProgress(projectConnection, IdeaProject.class);
-
-        return parseMainModel(project, ideaProject, otherModels);
-    }
-
     private static NbGradleModel.Builder toBuilder(NbGradleMultiProjectDef projectDef) {
         return new NbGradleModel.Builder(new NbGenericModelInfo(projectDef));
     }
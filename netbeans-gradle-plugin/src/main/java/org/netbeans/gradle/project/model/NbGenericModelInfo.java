@@ -1,14 +1,16 @@
 package org.netbeans.gradle.project.model;
 
 import java.io.File;
+import java.io.Serializable;
 import org.netbeans.gradle.project.GradleProjectConstants;
 import org.netbeans.gradle.project.NbStrings;
 import org.netbeans.gradle.project.query.GradleFileUtils;
 import org.openide.filesystems.FileObject;
 import org.openide.filesystems.FileUtil;
 
-// TODO: Make this class serializable (consider derived properties).
-public final class NbGenericModelInfo {
+public final class NbGenericModelInfo implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private final NbGradleMultiProjectDef projectDef;
     private final File settingsFile;
     private final File buildFile;
@@ -117,11 +119,7 @@ public final class NbGenericModelInfo {
     }
 
     public static File findSettingsGradle(File projectDir) {
-        FileObject projectDirObj = FileUtil.toFileObject(projectDir);
-        FileObject resultObj = findSettingsGradle(projectDirObj);
-        return resultObj != null
-                ? FileUtil.toFile(resultObj)
-                : null;
+        return SettingsGradleCache.getDefault().findSettingsGradle(projectDir);
     }
 
     public static FileObject findSettingsGradle(FileObject projectDir) {
@@ -2,27 +2,39 @@ package org.netbeans.gradle.project.model;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.gradle.tooling.ProjectConnection;
+import org.gradle.util.GradleVersion;
 import org.netbeans.api.progress.ProgressHandle;
 import org.netbeans.gradle.model.BuilderIssue;
 import org.netbeans.gradle.model.BuilderResult;
+import org.netbeans.gradle.model.FetchPhaseListener;
 import org.netbeans.gradle.model.FetchedModels;
 import org.netbeans.gradle.model.FetchedProjectModels;
 import org.netbeans.gradle.model.GenericModelFetcher;
 import org.netbeans.gradle.model.GenericProjectProperties;
 import org.netbeans.gradle.model.GradleBuildInfoQuery;
+import org.netbeans.gradle.model.GradleMultiProjectDef;
+import org.netbeans.gradle.model.GradleProjectTree;
 import org.netbeans.gradle.model.OperationInitializer;
 import org.netbeans.gradle.model.api.GradleProjectInfoQuery;
 import org.netbeans.gradle.model.util.CollectionUtils;
+import org.netbeans.gradle.project.GradleVersions;
 import org.netbeans.gradle.project.NbGradleExtensionRef;
 import org.netbeans.gradle.project.NbGradleProject;
 import org.netbeans.gradle.project.NbStrings;
@@ -34,21 +46,44 @@ import org.netbeans.gradle.project.api.modelquery.GradleModelDefQuery2;
 import org.netbeans.gradle.project.api.modelquery.GradleTarget;
 import org.netbeans.gradle.project.model.issue.ModelLoadIssue;
 import org.netbeans.gradle.project.model.issue.ModelLoadIssues;
+import org.netbeans.gradle.project.properties.GlobalGradleSettings;
 import org.openide.util.Lookup;
+import org.openide.util.RequestProcessor;
 import org.openide.util.lookup.Lookups;
 
 public final class NbGradle18ModelLoader implements NbModelLoader {
     private static final Logger LOGGER = Logger.getLogger(NbGradle18ModelLoader.class.getName());
 
+    private static final ParallelExtensionParser EXTENSION_PARSER = new ParallelExtensionParser(
+            new RequestProcessor("Gradle-Extension-Model-Parser", Runtime.getRuntime().availableProcessors(), true));
+
+    private static final ParsedModelMemo PARSED_MODELS = ParsedModelMemo.createDefault();
+
     private final GradleTarget gradleTarget;
     private final OperationInitializer setup;
-
-    public NbGradle18ModelLoader(OperationInitializer setup, GradleTarget gradleTarget) {
+    private final ModelLoadTimings timings;
+    private final PartialModelListener partialModelListener;
+    private final boolean mayReuseParsedModels;
+
+    // If partialModelListener is not null, the project hierarchy is fetched
+    // and reported before requesting the full models (if the Gradle version
+    // allows this without configuring the projects). If mayReuseParsedModels
+    // is false, every extension model is parsed again.
+    public NbGradle18ModelLoader(
+            OperationInitializer setup,
+            GradleTarget gradleTarget,
+            ModelLoadTimings timings,
+            PartialModelListener partialModelListener,
+            boolean mayReuseParsedModels) {
         if (setup == null) throw new NullPointerException("setup");
         if (gradleTarget == null) throw new NullPointerException("gradleTarget");
+        if (timings == null) throw new NullPointerException("timings");
 
         this.gradleTarget = gradleTarget;
         this.setup = setup;
+        this.timings = timings;
+        this.partialModelListener = partialModelListener;
+        this.mayReuseParsedModels = mayReuseParsedModels;
     }
 
     private static GradleModelDefQuery2 getBasicModelQuery(final GradleProjectExtensionDef<?> extension) {
@@ -133,12 +168,48 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
             ProgressHandle progress) throws IOException {
 
         ProjectModelFetcher modelFetcher = new ProjectModelFetcher(project, gradleTarget);
-        FetchedModels fetchedModels = modelFetcher.getModels(connection, setup);
+        if (partialModelListener != null && canFetchProjectTreeCheaply(gradleTarget.getGradleVersion())) {
+            tryReportProjectTree(project, connection, modelFetcher.getSettingsFile());
+        }
+
+        long timeoutMillis = TimeUnit.SECONDS.toMillis(GlobalGradleSettings.getModelLoadTimeoutSec().getValue());
+        FetchedModels fetchedModels = modelFetcher.getModels(connection, setup, timings, timeoutMillis);
 
         progress.progress(NbStrings.getParsingModel());
 
-        ProjectModelParser parser = new ProjectModelParser(project, modelFetcher);
-        return parser.parseModel(fetchedModels);
+        long parseStartTime = System.nanoTime();
+        ProjectModelParser parser = new ProjectModelParser(project, modelFetcher, timings, mayReuseParsedModels);
+        Result result = parser.parseModel(fetchedModels);
+        timings.recordPhase(ModelLoadTimings.PHASE_PARSE_MODELS, System.nanoTime() - parseStartTime);
+        return result;
+    }
+
+    // Older Gradle versions configure every project before executing a build
+    // action, so fetching the project tree first would just configure the
+    // whole build twice.
+    private static boolean canFetchProjectTreeCheaply(GradleVersion gradleVersion) {
+        return gradleVersion.compareTo(GradleVersions.VERSION_8_0) >= 0;
+    }
+
+    private void tryReportProjectTree(NbGradleProject project, ProjectConnection connection, File settingsFile) {
+        long startTime = System.nanoTime();
+        GradleMultiProjectDef projectTree;
+        try {
+            projectTree = GenericModelFetcher.getProjectTree(connection, setup, project.getProjectDirectoryAsFile());
+        } catch (IOException ex) {
+            LOGGER.log(Level.INFO, "Failed to fetch the project hierarchy.", ex);
+            return;
+        } catch (RuntimeException ex) {
+            // The full load will report the problem if it is not temporary.
+            LOGGER.log(Level.INFO, "Failed to fetch the project hierarchy.", ex);
+            return;
+        } finally {
+            timings.recordPhase(ModelLoadTimings.PHASE_PROJECT_TREE, System.nanoTime() - startTime);
+        }
+
+        NbGenericModelInfo genericInfo = new NbGenericModelInfo(new NbGradleMultiProjectDef(projectTree), settingsFile);
+        NbGradleModel partialModel = new NbGradleModel.Builder(genericInfo).create().createDirtyCopy();
+        partialModelListener.onPartialModel(partialModel);
     }
 
     private static File getProjectDirFromModels(FetchedProjectModels projectModels) {
@@ -152,16 +223,24 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
     private static final class ProjectModelParser {
         private final List<NbGradleExtensionRef> extensions;
         private final ProjectModelFetcher modelFetcher;
-        private final ExtensionModelCache cache;
         private final List<ModelLoadIssue> issues;
-        private final Map<String, ModelLoadResult> modelLoadResultCache;
-
-        public ProjectModelParser(NbGradleProject mainProject, ProjectModelFetcher modelFetcher) {
+        private final ModelLoadTimings timings;
+        private final boolean mayReuseParsedModels;
+        private UnchangedProjectModels unchangedModels;
+        private File rootDir;
+
+        public ProjectModelParser(
+                NbGradleProject mainProject,
+                ProjectModelFetcher modelFetcher,
+                ModelLoadTimings timings,
+                boolean mayReuseParsedModels) {
             this.extensions = mainProject.getExtensionRefs();
             this.modelFetcher = modelFetcher;
-            this.cache = new ExtensionModelCache();
+            this.timings = timings;
+            this.mayReuseParsedModels = mayReuseParsedModels;
             this.issues = new LinkedList<ModelLoadIssue>();
-            this.modelLoadResultCache = CollectionUtils.newHashMap(extensions.size());
+            this.unchangedModels = null;
+            this.rootDir = null;
         }
 
         private void addProjectInfoResults(
@@ -226,7 +305,14 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
             return new ModelLoadResult(defaultProjectDir, lookups);
         }
 
-        public Result parseModel(FetchedModels fetchedModels) {
+        public Result parseModel(FetchedModels fetchedModels) throws IOException {
+            GradleProjectTree rootProject = fetchedModels.getDefaultProjectModels().getProjectDef().getRootProject();
+            rootDir = rootProject.getGenericProperties().getProjectDir();
+            unchangedModels = UnchangedProjectModels.find(
+                    rootProject,
+                    modelFetcher.getSettingsFile(),
+                    GradleModelCache.getDefault());
+
             ProjectModelsOfExtensions extensionsForDefault = new ProjectModelsOfExtensions(
                     this,
                     fetchedModels.getDefaultProjectModels());
@@ -235,6 +321,10 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
 
             Collection<FetchedProjectModels> otherProjectModels = fetchedModels.getOtherProjectModels();
 
+            List<FetchedProjectModels> orderedProjectModels
+                    = new ArrayList<FetchedProjectModels>(otherProjectModels.size() + 1);
+            orderedProjectModels.add(fetchedModels.getDefaultProjectModels());
+
             Map<File, ProjectModelsOfExtensions> extensionModels
                     = CollectionUtils.newHashMap(otherProjectModels.size());
             for (FetchedProjectModels models: otherProjectModels) {
@@ -243,30 +333,63 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
                     continue;
                 }
 
+                orderedProjectModels.add(models);
                 extensionModels.put(projectDir, new ProjectModelsOfExtensions(this, models));
             }
 
             extensionModels.put(defaultProjectDir, extensionsForDefault);
 
-            NbGradleModel mainModel = parseModel(
-                    fetchedModels.getDefaultProjectModels(),
-                    extensionModels);
+            List<File> projectDirs = new ArrayList<File>(orderedProjectModels.size());
+            for (FetchedProjectModels models: orderedProjectModels) {
+                projectDirs.add(getProjectDirFromModels(models));
+            }
 
-            List<NbGradleModel> otherModels = new ArrayList<NbGradleModel>();
-            for (FetchedProjectModels models: otherProjectModels) {
-                File projectDir = getProjectDirFromModels(models);
-                if (defaultProjectDir.equals(projectDir)) {
-                    continue;
-                }
-                otherModels.add(parseModel(models, extensionModels));
+            Map<String, ExtensionParser> parsers = createParsers(extensionModels);
+            Map<String, Map<File, Object>> parsedModels;
+            try {
+                parsedModels = EXTENSION_PARSER.parseAll(projectDirs, parsers);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Parsing the models of " + defaultProjectDir + " was canceled.");
+            }
+
+            for (Map.Entry<String, ExtensionParser> entry: parsers.entrySet()) {
+                entry.getValue().rememberParsedModels(parsedModels.get(entry.getKey()));
             }
 
-            return new Result(mainModel, otherModels, issues);
+            NbGradleModel mainModel = createModel(orderedProjectModels.get(0), parsedModels);
+
+            List<NbGradleModel> otherModels = new ArrayList<NbGradleModel>(orderedProjectModels.size() - 1);
+            for (FetchedProjectModels models: orderedProjectModels.subList(1, orderedProjectModels.size())) {
+                otherModels.add(createModel(models, parsedModels));
+            }
+
+            List<File> incompleteProjectDirs = new ArrayList<File>();
+            for (GenericProjectProperties properties: fetchedModels.getIncompleteProjects()) {
+                incompleteProjectDirs.add(properties.getProjectDir());
+            }
+
+            if (!incompleteProjectDirs.isEmpty()) {
+                LOGGER.log(Level.INFO, "The load of {0} timed out, the models of {1} projects were not loaded.",
+                        new Object[]{defaultProjectDir, incompleteProjectDirs.size()});
+            }
+
+            return new Result(mainModel, otherModels, issues, incompleteProjectDirs);
         }
 
-        private NbGradleModel parseModel(
-                FetchedProjectModels projectModels,
+        private Map<String, ExtensionParser> createParsers(
                 Map<File, ProjectModelsOfExtensions> extensionModels) {
+
+            Map<String, ExtensionParser> result = new LinkedHashMap<String, ExtensionParser>();
+            for (NbGradleExtensionRef extension: extensions) {
+                result.put(extension.getName(), new ExtensionParser(extension, extensionModels));
+            }
+            return result;
+        }
+
+        private NbGradleModel createModel(
+                FetchedProjectModels projectModels,
+                Map<String, Map<File, Object>> parsedModels) {
             Throwable issue = projectModels.getIssue();
             if (issue != null) {
                 issues.add(ModelLoadIssues.projectModelLoadError(projectModels, issue));
@@ -277,42 +400,169 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
             NbGradleModel.Builder result = new NbGradleModel.Builder(genericInfo);
 
             File projectDir = genericInfo.getProjectDir();
-
-            ProjectExtensionModelCache projectCache = cache.tryGetProjectCache(projectDir);
+            result.setBuildScriptsHash(unchangedModels.tryGetBuildScriptsHash(projectDir));
 
             for (NbGradleExtensionRef extension: extensions) {
-                String extensionName = extension.getName();
+                Map<File, Object> modelsOfExtension = parsedModels.get(extension.getName());
+                result.setModelForExtension(extension, modelsOfExtension.get(projectDir));
+            }
+
+            return result.create();
+        }
 
-                CachedModel cachedModel = projectCache != null
-                        ? projectCache.tryGetModel(extensionName)
+        // The projects might be parsed concurrently.
+        private final class ExtensionParser implements ParallelExtensionParser.ProjectParser {
+            private final NbGradleExtensionRef extension;
+            private final Map<File, ProjectModelsOfExtensions> extensionModels;
+
+            private final Lock mainLock;
+            private final Map<File, String> inputsDigests;
+            private final Set<File> memoizedProjects;
+            private ModelLoadResult modelLoadResult;
+
+            public ExtensionParser(
+                    NbGradleExtensionRef extension,
+                    Map<File, ProjectModelsOfExtensions> extensionModels) {
+                this.extension = extension;
+                this.extensionModels = extensionModels;
+                this.mainLock = new ReentrantLock();
+                this.inputsDigests = new HashMap<File, String>();
+                this.memoizedProjects = new HashSet<File>();
+                this.modelLoadResult = null;
+            }
+
+            private String tryGetInputsDigest(File projectDir) {
+                mainLock.lock();
+                try {
+                    if (inputsDigests.containsKey(projectDir)) {
+                        return inputsDigests.get(projectDir);
+                    }
+                } finally {
+                    mainLock.unlock();
+                }
+
+                ProjectModelsOfExtensions projectModels = extensionModels.get(projectDir);
+                Lookup lookup = projectModels != null
+                        ? projectModels.getExtensionLookups().get(extension.getName())
                         : null;
 
-                Object extensionModel;
-                if (cachedModel != null) {
-                    extensionModel = cachedModel.model;
+                String result = lookup != null
+                        ? ParsedModelMemo.tryDigestInputs(lookup.lookupAll(Object.class))
+                        : null;
+
+                mainLock.lock();
+                try {
+                    inputsDigests.put(projectDir, result);
+                } finally {
+                    mainLock.unlock();
+                }
+                return result;
+            }
+
+            private boolean isMemoized(File projectDir) {
+                mainLock.lock();
+                try {
+                    return memoizedProjects.contains(projectDir);
+                } finally {
+                    mainLock.unlock();
                 }
-                else {
-                    ModelLoadResult modelLoadResult = modelLoadResultCache.get(extensionName);
+            }
+
+            private ModelLoadResult getModelLoadResult(File projectDir) {
+                ModelLoadResult baseResult;
+                mainLock.lock();
+                try {
                     if (modelLoadResult == null) {
-                        modelLoadResult = getModelLoadResult(extension, projectDir, extensionModels);
-                        modelLoadResultCache.put(extensionName, modelLoadResult);
-                    }
-                    else {
-                        modelLoadResult = modelLoadResult.withMainProject(projectDir);
+                        modelLoadResult = ProjectModelParser.this.getModelLoadResult(
+                                extension, projectDir, extensionModels);
+                        return modelLoadResult;
                     }
+                    baseResult = modelLoadResult;
+                } finally {
+                    mainLock.unlock();
+                }
+                return baseResult.withMainProject(projectDir);
+            }
 
-                    ParsedModel<?> parsedModels = extension.parseModel(modelLoadResult);
-                    extensionModel = parsedModels.getMainModel();
+            // Returns null if the digest of a referenced project is unknown.
+            private Map<File, String> tryGetReferencedDigests(Object parsedModel) {
+                Set<File> referencedDirs = ParsedModelMemo.getReferencedProjectDirs(parsedModel);
+                Map<File, String> result = CollectionUtils.newHashMap(referencedDirs.size());
+                for (File referencedDir: referencedDirs) {
+                    String digest = tryGetInputsDigest(referencedDir);
+                    if (digest == null) {
+                        return null;
+                    }
+                    result.put(referencedDir, digest);
+                }
+                return result;
+            }
 
-                    for (Map.Entry<File, ?> entry: parsedModels.getOtherProjectsModel().entrySet()) {
-                        cache.getProjectCache(entry.getKey()).addModel(extensionName, entry.getValue());
+            private boolean areReferencesUnchanged(ParsedModelMemo.MemoizedModel memoized) {
+                for (Map.Entry<File, String> entry: memoized.getReferencedDigests().entrySet()) {
+                    if (!entry.getValue().equals(tryGetInputsDigest(entry.getKey()))) {
+                        return false;
                     }
                 }
+                return true;
+            }
 
-                result.setModelForExtension(extension, extensionModel);
+            // Must only be called after every project has been parsed.
+            public void rememberParsedModels(Map<File, Object> parsedModels) {
+                String extensionName = extension.getName();
+                for (Map.Entry<File, Object> entry: parsedModels.entrySet()) {
+                    File projectDir = entry.getKey();
+                    if (isMemoized(projectDir)) {
+                        continue;
+                    }
+
+                    String inputsDigest = tryGetInputsDigest(projectDir);
+                    Map<File, String> referencedDigests = tryGetReferencedDigests(entry.getValue());
+                    if (inputsDigest != null && referencedDigests != null) {
+                        PARSED_MODELS.putModel(rootDir, extensionName, projectDir,
+                                inputsDigest, referencedDigests, entry.getValue());
+                    }
+                }
             }
 
-            return result.create();
+            @Override
+            public Object parseModel(File projectDir, Map<File, Object> otherModels) {
+                String extensionName = extension.getName();
+
+                // Unchanged build scripts do not imply unchanged models
+                // (e.g.: applied scripts, buildSrc or dynamic dependency
+                // versions), so a model is only reused if the raw models just
+                // returned by Gradle (for the project and the projects
+                // referenced by the model) are also the same as the ones it
+                // was parsed from.
+                String inputsDigest = mayReuseParsedModels && unchangedModels.isUnchanged(projectDir)
+                        ? tryGetInputsDigest(projectDir)
+                        : null;
+                if (inputsDigest != null) {
+                    ParsedModelMemo.MemoizedModel memoized
+                            = PARSED_MODELS.tryGetModel(rootDir, extensionName, projectDir, inputsDigest);
+                    if (memoized != null && areReferencesUnchanged(memoized)) {
+                        mainLock.lock();
+                        try {
+                            memoizedProjects.add(projectDir);
+                        } finally {
+                            mainLock.unlock();
+                        }
+                        return memoized.getParsedModel();
+                    }
+                }
+
+                ModelLoadResult loadResult = getModelLoadResult(projectDir);
+
+                long parseStartTime = System.nanoTime();
+                ParsedModel<?> parsedModels = extension.parseModel(loadResult);
+                long parseTime = System.nanoTime() - parseStartTime;
+                timings.recordExtensionParse(extensionName, parseTime);
+                timings.recordProjectParse(projectDir, parseTime);
+
+                otherModels.putAll(parsedModels.getOtherProjectsModel());
+                return parsedModels.getMainModel();
+            }
         }
     }
 
@@ -334,51 +584,6 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
         }
     }
 
-    private static final class CachedModel {
-        public final Object model;
-
-        public CachedModel(Object model) {
-            this.model = model;
-        }
-    }
-
-    private static final class ProjectExtensionModelCache {
-        private final Map<String, CachedModel> models;
-
-        public ProjectExtensionModelCache() {
-            this.models = new HashMap<String, CachedModel>();
-        }
-
-        public CachedModel tryGetModel(String extensionName) {
-            return models.get(extensionName);
-        }
-
-        public void addModel(String extensionName, Object model) {
-            models.put(extensionName, new CachedModel(model));
-        }
-    }
-
-    private static final class ExtensionModelCache {
-        private final Map<File, ProjectExtensionModelCache> projectCaches;
-
-        public ExtensionModelCache() {
-            this.projectCaches = new HashMap<File, ProjectExtensionModelCache>();
-        }
-
-        public ProjectExtensionModelCache tryGetProjectCache(File projectDir) {
-            return projectCaches.get(projectDir);
-        }
-
-        public ProjectExtensionModelCache getProjectCache(File projectDir) {
-            ProjectExtensionModelCache cache = projectCaches.get(projectDir);
-            if (cache == null) {
-                cache = new ProjectExtensionModelCache();
-                projectCaches.put(projectDir, cache);
-            }
-            return cache;
-        }
-    }
-
     private static final class ProjectModelFetcher {
         private final File settingsFile;
         private final Map<String, List<Class<?>>> toolingModelNeeds;
@@ -410,8 +615,12 @@ public final class NbGradle18ModelLoader implements NbModelLoader {
             modelFetcher = new GenericModelFetcher(buildInfoRequests, projectInfoRequests, models);
         }
 
-        public FetchedModels getModels(ProjectConnection connection, OperationInitializer init) throws IOException {
-            return modelFetcher.getModels(connection, init);
+        public FetchedModels getModels(
+                ProjectConnection connection,
+                OperationInitializer init,
+                FetchPhaseListener phaseListener,
+                long timeoutMillis) throws IOException {
+            return modelFetcher.getModels(connection, init, phaseListener, timeoutMillis);
         }
 
         public File getSettingsFile() {
@@ -17,17 +17,20 @@ public final class NbGradleModel {
     public static final class Builder {
         private final NbGenericModelInfo genericInfo;
         private final Map<String, Object> extensionModels;
+        private String buildScriptsHash;
 
         public Builder(NbGenericModelInfo genericInfo) {
             if (genericInfo == null) throw new NullPointerException("genericInfo");
 
             this.genericInfo = genericInfo;
             this.extensionModels = new HashMap<String, Object>();
+            this.buildScriptsHash = null;
         }
 
         public Builder(NbGradleModel base) {
             this.genericInfo = base.getGenericInfo();
             this.extensionModels = new HashMap<String, Object>(base.extensionModels);
+            this.buildScriptsHash = null;
         }
 
         public File getProjectDir() {
@@ -42,8 +45,12 @@ public final class NbGradleModel {
             extensionModels.put(extensionName, model);
         }
 
+        public void setBuildScriptsHash(String buildScriptsHash) {
+            this.buildScriptsHash = buildScriptsHash;
+        }
+
         public NbGradleModel create() {
-            return new NbGradleModel(genericInfo, extensionModels);
+            return new NbGradleModel(genericInfo, extensionModels, true, false, buildScriptsHash);
         }
     }
 
@@ -52,20 +59,30 @@ public final class NbGradleModel {
     // Maps extension name to extension model
     private final Map<String, Object> extensionModels;
 
+    // A dirty model might be outdated (e.g.: it was read from the persistent
+    // cache), so it should be reloaded before it can be fully trusted.
+    private final boolean dirty;
+
+    // The hash of the build scripts the extension models were parsed from or
+    // null if it is not known.
+    private final String buildScriptsHash;
+
     public NbGradleModel(NbGradleMultiProjectDef projectDef) {
-        this(new NbGenericModelInfo(projectDef), Collections.<String, Object>emptyMap(), false);
+        this(new NbGenericModelInfo(projectDef), Collections.<String, Object>emptyMap(), false, false, null);
     }
 
     public NbGradleModel(
             NbGenericModelInfo genericInfo,
             Map<String, Object> extensionModels) {
-        this(genericInfo, extensionModels, true);
+        this(genericInfo, extensionModels, true, false, null);
     }
 
     private NbGradleModel(
             NbGenericModelInfo genericInfo,
             Map<String, Object> extensionModels,
-            boolean copyMap) {
+            boolean copyMap,
+            boolean dirty,
+            String buildScriptsHash) {
 
         if (genericInfo == null) throw new NullPointerException("genericInfo");
 
@@ -73,6 +90,8 @@ public final class NbGradleModel {
         this.extensionModels = copyMap
                 ? CollectionUtils.copyNullSafeHashMapWithNullValues(extensionModels)
                 : extensionModels;
+        this.dirty = dirty;
+        this.buildScriptsHash = buildScriptsHash;
     }
 
     public static List<NbGradleModel> createAll(Collection<? extends Builder> builders) {
@@ -147,8 +166,20 @@ public final class NbGradleModel {
         return genericInfo.getMainProject();
     }
 
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    public String getBuildScriptsHash() {
+        return buildScriptsHash;
+    }
+
+    NbGradleModel createDirtyCopy() {
+        return new NbGradleModel(genericInfo, extensionModels, false, true, buildScriptsHash);
+    }
+
     public NbGradleModel createNonDirtyCopy() {
-        return new NbGradleModel(genericInfo, extensionModels);
+        return new NbGradleModel(genericInfo, extensionModels, true, false, buildScriptsHash);
     }
 
     public File getProjectDir() {
@@ -187,6 +218,11 @@ public final class NbGradleModel {
             newExtensionModels.put(entry.getKey(), entry.getValue());
         }
 
-        return new NbGradleModel(newContent.getGenericInfo(), newExtensionModels, false);
+        return new NbGradleModel(
+                newContent.getGenericInfo(),
+                newExtensionModels,
+                false,
+                newContent.dirty,
+                newContent.buildScriptsHash);
     }
 }
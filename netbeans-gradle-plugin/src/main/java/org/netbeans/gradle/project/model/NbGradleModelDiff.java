@@ -0,0 +1,132 @@
+package org.netbeans.gradle.project.model;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import org.netbeans.gradle.model.GradleTaskID;
+
+// Describes what has changed between two models of the same project, so that
+// listeners do not have to rebuild everything they derive from the model.
+//
+// Extension models are compared by equals, which is usually reference
+// equality: That is still useful because models which did not need to be
+// parsed again are reused between loads.
+public final class NbGradleModelDiff {
+    private final boolean projectTreeChanged;
+    private final boolean tasksChanged;
+    private final Set<String> changedExtensions;
+
+    private NbGradleModelDiff(boolean projectTreeChanged, boolean tasksChanged, Set<String> changedExtensions) {
+        this.projectTreeChanged = projectTreeChanged;
+        this.tasksChanged = tasksChanged;
+        this.changedExtensions = Collections.unmodifiableSet(changedExtensions);
+    }
+
+    // oldModel might be null, in which case everything is considered to be
+    // changed.
+    public static NbGradleModelDiff compute(NbGradleModel oldModel, NbGradleModel newModel) {
+        if (newModel == null) throw new NullPointerException("newModel");
+
+        Set<String> changedExtensions = new HashSet<String>(newModel.getExtensionModels().keySet());
+        if (oldModel == null) {
+            return new NbGradleModelDiff(true, true, changedExtensions);
+        }
+
+        changedExtensions.addAll(oldModel.getExtensionModels().keySet());
+        for (Iterator<String> itr = changedExtensions.iterator(); itr.hasNext();) {
+            String extensionName = itr.next();
+            if (oldModel.hasModelOfExtension(extensionName) == newModel.hasModelOfExtension(extensionName)
+                    && equalsNullSafe(oldModel.getModelOfExtension(extensionName), newModel.getModelOfExtension(extensionName))) {
+                itr.remove();
+            }
+        }
+
+        NbGradleProjectTree oldRoot = oldModel.getProjectDef().getRootProject();
+        NbGradleProjectTree newRoot = newModel.getProjectDef().getRootProject();
+
+        boolean projectTreeChanged = !oldModel.getProjectDir().equals(newModel.getProjectDir())
+                || !sameHierarchy(oldRoot, newRoot);
+        boolean tasksChanged = projectTreeChanged || !sameTasks(oldRoot, newRoot);
+
+        return new NbGradleModelDiff(projectTreeChanged, tasksChanged, changedExtensions);
+    }
+
+    private static boolean equalsNullSafe(Object obj1, Object obj2) {
+        if (obj1 == obj2) return true;
+        if (obj1 == null || obj2 == null) return false;
+        return obj1.equals(obj2);
+    }
+
+    private static boolean sameHierarchy(NbGradleProjectTree tree1, NbGradleProjectTree tree2) {
+        if (!tree1.getProjectFullName().equals(tree2.getProjectFullName())) return false;
+        if (!tree1.getProjectDir().equals(tree2.getProjectDir())) return false;
+
+        Collection<NbGradleProjectTree> children1 = tree1.getChildren();
+        Collection<NbGradleProjectTree> children2 = tree2.getChildren();
+        if (children1.size() != children2.size()) {
+            return false;
+        }
+
+        Iterator<NbGradleProjectTree> itr2 = children2.iterator();
+        for (NbGradleProjectTree child1: children1) {
+            if (!sameHierarchy(child1, itr2.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Assumes that the hierarchy of the trees is the same.
+    private static boolean sameTasks(NbGradleProjectTree tree1, NbGradleProjectTree tree2) {
+        Collection<GradleTaskID> tasks1 = tree1.getTasks();
+        Collection<GradleTaskID> tasks2 = tree2.getTasks();
+        if (tasks1.size() != tasks2.size()) {
+            return false;
+        }
+
+        Iterator<GradleTaskID> taskItr2 = tasks2.iterator();
+        for (GradleTaskID task1: tasks1) {
+            if (!task1.getFullName().equals(taskItr2.next().getFullName())) {
+                return false;
+            }
+        }
+
+        Iterator<NbGradleProjectTree> childItr2 = tree2.getChildren().iterator();
+        for (NbGradleProjectTree child1: tree1.getChildren()) {
+            if (!sameTasks(child1, childItr2.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // True if projects were added, removed or moved anywhere in the build.
+    public boolean hasProjectTreeChanged() {
+        return projectTreeChanged;
+    }
+
+    public boolean hasTasksChanged() {
+        return tasksChanged;
+    }
+
+    public Set<String> getChangedExtensions() {
+        return changedExtensions;
+    }
+
+    public boolean hasExtensionChanged(String extensionName) {
+        return changedExtensions.contains(extensionName);
+    }
+
+    public boolean isEmpty() {
+        return !projectTreeChanged && !tasksChanged && changedExtensions.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "NbGradleModelDiff{" + "projectTreeChanged=" + projectTreeChanged
+                + ", tasksChanged=" + tasksChanged
+                + ", changedExtensions=" + changedExtensions + '}';
+    }
+}
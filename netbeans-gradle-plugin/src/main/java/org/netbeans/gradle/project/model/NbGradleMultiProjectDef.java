@@ -1,13 +1,16 @@
 package org.netbeans.gradle.project.model;
 
 import java.io.File;
+import java.io.Serializable;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.netbeans.gradle.model.GenericProjectProperties;
 import org.netbeans.gradle.model.GradleMultiProjectDef;
 import org.netbeans.gradle.model.GradleProjectTree;
 
-public final class NbGradleMultiProjectDef {
+public final class NbGradleMultiProjectDef implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private static final Logger LOGGER = Logger.getLogger(NbGradleMultiProjectDef.class.getName());
 
     private final NbGradleProjectTree rootProject;
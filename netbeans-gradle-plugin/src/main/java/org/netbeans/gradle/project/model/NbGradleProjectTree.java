@@ -1,6 +1,7 @@
 package org.netbeans.gradle.project.model;
 
 import java.io.File;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -12,7 +13,9 @@ import org.netbeans.gradle.model.GradleProjectTree;
 import org.netbeans.gradle.model.GradleTaskID;
 import org.netbeans.gradle.model.util.CollectionUtils;
 
-public final class NbGradleProjectTree {
+public final class NbGradleProjectTree implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private final GenericProjectProperties genericProperties;
     private final Collection<GradleTaskID> tasks;
     private final Collection<NbGradleProjectTree> children;
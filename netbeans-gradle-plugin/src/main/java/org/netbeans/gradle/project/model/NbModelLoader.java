@@ -1,5 +1,6 @@
 package org.netbeans.gradle.project.model;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
@@ -15,6 +16,7 @@ public interface NbModelLoader {
         private final NbGradleModel mainModel;
         private final List<NbGradleModel> otherModels;
         private final List<ModelLoadIssue> issues;
+        private final List<File> incompleteProjectDirs;
 
         public Result(NbGradleModel mainModel, Collection<NbGradleModel> otherModels) {
             this(mainModel, otherModels, Collections.<ModelLoadIssue>emptyList());
@@ -24,13 +26,23 @@ public interface NbModelLoader {
                 NbGradleModel mainModel,
                 Collection<NbGradleModel> otherModels,
                 Collection<? extends ModelLoadIssue> issues) {
+            this(mainModel, otherModels, issues, Collections.<File>emptyList());
+        }
+
+        public Result(
+                NbGradleModel mainModel,
+                Collection<NbGradleModel> otherModels,
+                Collection<? extends ModelLoadIssue> issues,
+                Collection<File> incompleteProjectDirs) {
             if (mainModel == null) throw new NullPointerException("mainModel");
             if (otherModels == null) throw new NullPointerException("otherModels");
             if (issues == null) throw new NullPointerException("issues");
+            if (incompleteProjectDirs == null) throw new NullPointerException("incompleteProjectDirs");
 
             this.mainModel = mainModel;
             this.otherModels = CollectionUtils.copyNullSafeList(otherModels);
             this.issues = CollectionUtils.copyNullSafeList(issues);
+            this.incompleteProjectDirs = CollectionUtils.copyNullSafeList(incompleteProjectDirs);
         }
 
         public NbGradleModel getMainModel() {
@@ -44,6 +56,12 @@ public interface NbModelLoader {
         public List<ModelLoadIssue> getIssues() {
             return issues;
         }
+
+        // The projects of the build whose models were not loaded because the
+        // load was cut short. Their models are not among the other models.
+        public List<File> getIncompleteProjectDirs() {
+            return incompleteProjectDirs;
+        }
     }
 
     public Result loadModels(NbGradleProject project, ProjectConnection connection, ProgressHandle progress) throws IOException;
@@ -0,0 +1,141 @@
+package org.netbeans.gradle.project.model;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.netbeans.gradle.project.model.issue.ModelLoadIssue;
+
+// Decides when model loads should be done with "--offline".
+//
+// After a load failed because the network was unreachable, loads are done
+// offline first for a while, so that they do not have to wait for the
+// timeouts of the dependency resolution again. This period ends when a load
+// succeeds online (i.e.: when an offline load could not resolve some
+// dependencies and the network was reachable again).
+final class OfflineModelLoads {
+    private static final int MAX_CAUSE_DEPTH = 32;
+
+    private static final Class<?>[] CONNECTIVITY_EXCEPTIONS = {
+        UnknownHostException.class,
+        ConnectException.class,
+        NoRouteToHostException.class,
+        SocketTimeoutException.class,
+    };
+
+    // A connectivity failure only matters if it happened while resolving the
+    // dependencies (and not, for example, while connecting to the daemon).
+    // For example: "Could not resolve all dependencies for configuration
+    // ':compile'." or "org.gradle.internal.resolve.ModuleVersionResolveException"
+    private static final String[] RESOLUTION_FAILURE_MARKERS = {
+        "Could not resolve",
+        "Could not download",
+        "Could not GET",
+        "Could not HEAD",
+        "ResolveException",
+    };
+
+    // For example: "No cached version of group:name:1.0 available for offline mode."
+    private static final String OFFLINE_RESOLUTION_FAILURE = "available for offline mode";
+
+    private final long offlinePeriodNanos;
+    private final AtomicLong offlineUntil;
+
+    public OfflineModelLoads(long offlinePeriod, TimeUnit unit) {
+        this.offlinePeriodNanos = unit.toNanos(offlinePeriod);
+        this.offlineUntil = new AtomicLong(System.nanoTime());
+    }
+
+    public boolean isOfflinePreferred() {
+        return System.nanoTime() - offlineUntil.get() < 0;
+    }
+
+    public void recordConnectivityFailure() {
+        offlineUntil.set(System.nanoTime() + offlinePeriodNanos);
+    }
+
+    public void recordOnlineSuccess() {
+        offlineUntil.set(System.nanoTime());
+    }
+
+    // The Tooling API does not always transfer the original exceptions from
+    // the daemon, so the descriptions of the causes are checked as well.
+    private static boolean isConnectivityException(Throwable error) {
+        String description = error.toString();
+        for (Class<?> exceptionClass: CONNECTIVITY_EXCEPTIONS) {
+            if (exceptionClass.isInstance(error) || description.contains(exceptionClass.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isResolutionFailure(Throwable error) {
+        String description = error.toString();
+        for (String marker: RESOLUTION_FAILURE_MARKERS) {
+            if (description.contains(marker)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Returns true if resolving the dependencies failed because a repository
+    // was unreachable: There must be a resolution failure in the cause chain
+    // wrapping the connectivity failure.
+    public static boolean isConnectivityFailure(Throwable error) {
+        boolean resolutionFailed = false;
+        Throwable current = error;
+        for (int depth = 0; current != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            if (!resolutionFailed) {
+                resolutionFailed = isResolutionFailure(current);
+            }
+            if (resolutionFailed && isConnectivityException(current)) {
+                return true;
+            }
+
+            Throwable cause = current.getCause();
+            current = cause != current ? cause : null;
+        }
+        return false;
+    }
+
+    private static boolean isOfflineResolutionFailure(Throwable error) {
+        Throwable current = error;
+        for (int depth = 0; current != null && depth < MAX_CAUSE_DEPTH; depth++) {
+            String message = current.getMessage();
+            if (message != null && message.contains(OFFLINE_RESOLUTION_FAILURE)) {
+                return true;
+            }
+
+            Throwable cause = current.getCause();
+            current = cause != current ? cause : null;
+        }
+        return false;
+    }
+
+    // Returns true if an offline load could not resolve some dependencies
+    // because they are not in the cache of Gradle.
+    public static boolean hasUnresolvedOfflineDependency(Collection<? extends ModelLoadIssue> issues) {
+        for (ModelLoadIssue issue: issues) {
+            Throwable stackTrace = issue.getStackTrace();
+            if (stackTrace != null && isOfflineResolutionFailure(stackTrace)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean hasConnectivityIssue(Collection<? extends ModelLoadIssue> issues) {
+        for (ModelLoadIssue issue: issues) {
+            Throwable stackTrace = issue.getStackTrace();
+            if (stackTrace != null && isConnectivityFailure(stackTrace)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,230 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Parses the models of the projects concurrently: Every (project, extension)
+// pair is a separate task.
+//
+// Parsing the model of a project might also provide the models of other
+// projects (e.g.: the Java extension parses every project at once), which
+// then do not need to be parsed again. To benefit from this, the first
+// project is parsed for every extension before the other projects, and a
+// project is not parsed if a parse which has already finished provided its
+// model.
+//
+// The models are merged in the order of the projects, the same way as if the
+// projects were parsed one after another: A project gets the model provided by
+// the last preceding project which had to be parsed itself, or its own model if
+// there is no such project. If the parse of such a project was skipped because
+// a project not preceding it provided its model, it is parsed while merging.
+// So the result does not depend on the executor.
+final class ParallelExtensionParser {
+    public interface ProjectParser {
+        // Returns the model of the given project and adds the models it has
+        // parsed for other projects to otherModels.
+        //
+        // This method might be called concurrently for different projects.
+        public Object parseModel(File projectDir, Map<File, Object> otherModels);
+    }
+
+    private final Executor executor;
+
+    public ParallelExtensionParser(Executor executor) {
+        if (executor == null) throw new NullPointerException("executor");
+        this.executor = executor;
+    }
+
+    private static RuntimeException rethrowCause(ExecutionException ex) {
+        Throwable cause = ex.getCause();
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException)cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error)cause;
+        }
+        throw new RuntimeException(cause);
+    }
+
+    private void runAll(List<Runnable> parseTasks) throws InterruptedException {
+        if (parseTasks.isEmpty()) {
+            return;
+        }
+
+        List<FutureTask<Void>> tasks = new ArrayList<FutureTask<Void>>(parseTasks.size());
+        for (Runnable parseTask: parseTasks) {
+            tasks.add(new FutureTask<Void>(parseTask, null));
+        }
+
+        // The last one is parsed on the calling thread because it would be
+        // waiting anyway.
+        int lastIndex = tasks.size() - 1;
+        for (int i = 0; i < lastIndex; i++) {
+            executor.execute(tasks.get(i));
+        }
+        tasks.get(lastIndex).run();
+
+        try {
+            for (FutureTask<Void> task: tasks) {
+                task.get();
+            }
+        } catch (ExecutionException ex) {
+            throw rethrowCause(ex);
+        } finally {
+            for (FutureTask<?> task: tasks) {
+                task.cancel(true);
+            }
+        }
+    }
+
+    // Returns the models keyed by extension name then by project directory,
+    // both in the order of the arguments.
+    public Map<String, Map<File, Object>> parseAll(
+            List<File> projectDirs,
+            Map<String, ? extends ProjectParser> parsers) throws InterruptedException {
+        if (projectDirs == null) throw new NullPointerException("projectDirs");
+        if (parsers == null) throw new NullPointerException("parsers");
+
+        if (parsers.isEmpty() || projectDirs.isEmpty()) {
+            Map<String, Map<File, Object>> result = new LinkedHashMap<String, Map<File, Object>>();
+            for (String extensionName: parsers.keySet()) {
+                result.put(extensionName, Collections.<File, Object>emptyMap());
+            }
+            return result;
+        }
+
+        List<ExtensionParse> extensionParses = new ArrayList<ExtensionParse>(parsers.size());
+        for (Map.Entry<String, ? extends ProjectParser> entry: parsers.entrySet()) {
+            extensionParses.add(new ExtensionParse(entry.getKey(), projectDirs, entry.getValue()));
+        }
+
+        List<Runnable> firstTasks = new ArrayList<Runnable>(extensionParses.size());
+        for (ExtensionParse extensionParse: extensionParses) {
+            firstTasks.add(extensionParse.parseTask(projectDirs.get(0)));
+        }
+        runAll(firstTasks);
+
+        List<Runnable> otherTasks = new ArrayList<Runnable>();
+        for (File projectDir: projectDirs.subList(1, projectDirs.size())) {
+            for (ExtensionParse extensionParse: extensionParses) {
+                if (!extensionParse.isProvided(projectDir)) {
+                    otherTasks.add(extensionParse.parseTask(projectDir));
+                }
+            }
+        }
+        runAll(otherTasks);
+
+        Map<String, Map<File, Object>> result = new LinkedHashMap<String, Map<File, Object>>();
+        for (ExtensionParse extensionParse: extensionParses) {
+            result.put(extensionParse.extensionName, extensionParse.mergeResults());
+        }
+        return result;
+    }
+
+    private static final class ExtensionParse {
+        private final String extensionName;
+        private final List<File> projectDirs;
+        private final ProjectParser parser;
+
+        private final Lock mainLock;
+        // The results of the projects which were actually parsed.
+        private final Map<File, ParseResult> parseResults;
+        // The projects whose model was provided by a finished parse.
+        private final Set<File> providedProjects;
+
+        public ExtensionParse(String extensionName, List<File> projectDirs, ProjectParser parser) {
+            this.extensionName = extensionName;
+            this.projectDirs = projectDirs;
+            this.parser = parser;
+            this.mainLock = new ReentrantLock();
+            this.parseResults = new HashMap<File, ParseResult>();
+            this.providedProjects = new HashSet<File>();
+        }
+
+        public boolean isProvided(File projectDir) {
+            mainLock.lock();
+            try {
+                return providedProjects.contains(projectDir);
+            } finally {
+                mainLock.unlock();
+            }
+        }
+
+        public Runnable parseTask(final File projectDir) {
+            return new Runnable() {
+                @Override
+                public void run() {
+                    // Another parse might have provided the model since this
+                    // task was created.
+                    if (isProvided(projectDir)) {
+                        return;
+                    }
+
+                    ParseResult parseResult = parse(projectDir);
+
+                    mainLock.lock();
+                    try {
+                        parseResults.put(projectDir, parseResult);
+                        providedProjects.addAll(parseResult.otherModels.keySet());
+                    } finally {
+                        mainLock.unlock();
+                    }
+                }
+            };
+        }
+
+        private ParseResult parse(File projectDir) {
+            Map<File, Object> otherModels = new HashMap<File, Object>();
+            Object model = parser.parseModel(projectDir, otherModels);
+            otherModels.remove(projectDir);
+            return new ParseResult(model, otherModels);
+        }
+
+        // Must only be called after every parse has finished.
+        public Map<File, Object> mergeResults() {
+            Map<File, Object> result = new LinkedHashMap<File, Object>();
+            Map<File, Object> providedByPreceding = new HashMap<File, Object>();
+
+            for (File projectDir: projectDirs) {
+                if (providedByPreceding.containsKey(projectDir)) {
+                    result.put(projectDir, providedByPreceding.get(projectDir));
+                    continue;
+                }
+
+                ParseResult parseResult = parseResults.get(projectDir);
+                if (parseResult == null) {
+                    // The model was only provided by the parse of a project
+                    // which does not precede this one or which was not
+                    // needed to be parsed itself.
+                    parseResult = parse(projectDir);
+                }
+
+                result.put(projectDir, parseResult.model);
+                providedByPreceding.putAll(parseResult.otherModels);
+            }
+            return result;
+        }
+    }
+
+    private static final class ParseResult {
+        public final Object model;
+        public final Map<File, Object> otherModels;
+
+        public ParseResult(Object model, Map<File, Object> otherModels) {
+            this.model = model;
+            this.otherModels = otherModels;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import org.netbeans.gradle.project.StringUtils;
+import org.netbeans.gradle.project.java.model.JavaProjectReference;
+import org.netbeans.gradle.project.java.model.NbJavaModel;
+import org.netbeans.gradle.project.properties.GlobalGradleSettings;
+
+// Remembers the model an extension has parsed for a project in a previous
+// load, so that it can be reused if the raw models of that project are the
+// same. The key of the raw models is a digest of their serialized form.
+//
+// Only the raw models of the project itself are digested, so that changing a
+// few projects of a large build does not prevent reusing the models of the
+// others. However, a parsed model might embed what it has seen of other
+// projects (e.g.: the Java model embeds the module of its project
+// dependencies), so the digests of the raw models of the referenced projects
+// are remembered as well, and the model is only reused if those are unchanged
+// too (see getReferencedProjectDirs).
+//
+// The memoized models are weighed the same way as the models of the model
+// cache and they share the memory budget of the model cache.
+final class ParsedModelMemo {
+    private static final Logger LOGGER = Logger.getLogger(ParsedModelMemo.class.getName());
+
+    private static final long BYTES_IN_MB = 1024L * 1024L;
+
+    private final ReentrantLock mainLock;
+    private final LinkedHashMap<MemoKey, MemoEntry> entries;
+
+    // Guarded by mainLock
+    private long maxWeight;
+    // Guarded by mainLock
+    private long totalWeight;
+
+    public ParsedModelMemo(long maxWeight) {
+        if (maxWeight < 0) throw new IllegalArgumentException("Illegal max. weight value: " + maxWeight);
+
+        this.mainLock = new ReentrantLock();
+        this.entries = new LinkedHashMap<MemoKey, MemoEntry>(16, 0.75f, true);
+        this.maxWeight = maxWeight;
+        this.totalWeight = 0;
+    }
+
+    private static long getMemoryBudget() {
+        return GlobalGradleSettings.getProjectCacheMemoryBudget().getValue() * BYTES_IN_MB;
+    }
+
+    public static ParsedModelMemo createDefault() {
+        final ParsedModelMemo result = new ParsedModelMemo(getMemoryBudget());
+        GlobalGradleSettings.getProjectCacheMemoryBudget().addChangeListener(new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent e) {
+                result.setMaxWeight(getMemoryBudget());
+            }
+        });
+        return result;
+    }
+
+    public void setMaxWeight(long maxWeight) {
+        if (maxWeight < 0) throw new IllegalArgumentException("Illegal max. weight value: " + maxWeight);
+
+        mainLock.lock();
+        try {
+            this.maxWeight = maxWeight;
+            cleanup();
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    // The most recently used model is kept even if it does not fit into the
+    // memory budget on its own.
+    private void cleanup() {
+        assert mainLock.isHeldByCurrentThread();
+
+        Iterator<MemoEntry> leastRecentFirst = entries.values().iterator();
+        int removableCount = entries.size() - 1;
+        for (int i = 0; i < removableCount && totalWeight > maxWeight; i++) {
+            totalWeight -= leastRecentFirst.next().weight;
+            leastRecentFirst.remove();
+        }
+    }
+
+    // Returns the projects whose models the given parsed model embeds. If
+    // these projects change, the parsed model must not be reused even if the
+    // raw models of its own project are unchanged.
+    public static Set<File> getReferencedProjectDirs(Object parsedModel) {
+        if (!(parsedModel instanceof NbJavaModel)) {
+            return Collections.emptySet();
+        }
+
+        Set<File> result = new HashSet<File>();
+        for (JavaProjectReference reference: ((NbJavaModel)parsedModel).getAllDependencies()) {
+            result.add(reference.getProjectDir());
+        }
+        return result;
+    }
+
+    // Returns null if the models cannot be digested, which is the case if
+    // some of them are not serializable (e.g.: models of the Tooling API).
+    public static String tryDigestInputs(Collection<?> projectModels) {
+        if (projectModels == null) throw new NullPointerException("projectModels");
+
+        MessageDigest digest = PersistentModelCache.createDigest();
+        try {
+            ObjectOutputStream output = new ObjectOutputStream(new DigestOutputStream(NullOutputStream.INSTANCE, digest));
+            try {
+                output.writeInt(projectModels.size());
+                for (Object model: projectModels) {
+                    output.writeObject(model);
+                }
+            } finally {
+                output.close();
+            }
+        } catch (IOException ex) {
+            LOGGER.log(Level.FINE, "The models cannot be digested.", ex);
+            return null;
+        }
+        return StringUtils.byteArrayToHex(digest.digest());
+    }
+
+    // Returns null if there is no model for the given inputs. Note that the
+    // memoized model itself might be null.
+    public MemoizedModel tryGetModel(File rootDir, String extensionName, File projectDir, String inputsDigest) {
+        if (inputsDigest == null) throw new NullPointerException("inputsDigest");
+
+        MemoKey key = new MemoKey(rootDir, extensionName, projectDir);
+
+        MemoEntry entry;
+        mainLock.lock();
+        try {
+            entry = entries.get(key);
+        } finally {
+            mainLock.unlock();
+        }
+
+        return entry != null && entry.inputsDigest.equals(inputsDigest)
+                ? new MemoizedModel(entry.parsedModel, entry.referencedDigests)
+                : null;
+    }
+
+    public void putModel(
+            File rootDir,
+            String extensionName,
+            File projectDir,
+            String inputsDigest,
+            Object parsedModel) {
+        putModel(rootDir, extensionName, projectDir, inputsDigest,
+                Collections.<File, String>emptyMap(), parsedModel);
+    }
+
+    // referencedDigests maps the projects returned by getReferencedProjectDirs
+    // to the digest of their raw models.
+    public void putModel(
+            File rootDir,
+            String extensionName,
+            File projectDir,
+            String inputsDigest,
+            Map<File, String> referencedDigests,
+            Object parsedModel) {
+        if (inputsDigest == null) throw new NullPointerException("inputsDigest");
+        if (referencedDigests == null) throw new NullPointerException("referencedDigests");
+
+        MemoKey key = new MemoKey(rootDir, extensionName, projectDir);
+        MemoEntry entry = new MemoEntry(
+                inputsDigest,
+                referencedDigests,
+                parsedModel,
+                ModelWeigher.estimateExtensionModelSize(parsedModel));
+
+        mainLock.lock();
+        try {
+            MemoEntry prevEntry = entries.put(key, entry);
+            totalWeight += entry.weight;
+            if (prevEntry != null) {
+                totalWeight -= prevEntry.weight;
+            }
+            cleanup();
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    public static final class MemoizedModel {
+        private final Object parsedModel;
+        private final Map<File, String> referencedDigests;
+
+        private MemoizedModel(Object parsedModel, Map<File, String> referencedDigests) {
+            this.parsedModel = parsedModel;
+            this.referencedDigests = referencedDigests;
+        }
+
+        public Object getParsedModel() {
+            return parsedModel;
+        }
+
+        // The digests of the raw models of the referenced projects when the
+        // model was parsed.
+        public Map<File, String> getReferencedDigests() {
+            return referencedDigests;
+        }
+    }
+
+    private static final class MemoEntry {
+        private final String inputsDigest;
+        private final Map<File, String> referencedDigests;
+        private final Object parsedModel;
+        private final long weight;
+
+        public MemoEntry(String inputsDigest, Map<File, String> referencedDigests, Object parsedModel, long weight) {
+            this.inputsDigest = inputsDigest;
+            this.referencedDigests = Collections.unmodifiableMap(new LinkedHashMap<File, String>(referencedDigests));
+            this.parsedModel = parsedModel;
+            this.weight = weight;
+        }
+    }
+
+    private static final class MemoKey {
+        private final File rootDir;
+        private final String extensionName;
+        private final File projectDir;
+
+        public MemoKey(File rootDir, String extensionName, File projectDir) {
+            if (rootDir == null) throw new NullPointerException("rootDir");
+            if (extensionName == null) throw new NullPointerException("extensionName");
+            if (projectDir == null) throw new NullPointerException("projectDir");
+
+            this.rootDir = rootDir;
+            this.extensionName = extensionName;
+            this.projectDir = projectDir;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 7;
+            hash = 53 * hash + rootDir.hashCode();
+            hash = 53 * hash + extensionName.hashCode();
+            hash = 53 * hash + projectDir.hashCode();
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == null) return false;
+            if (getClass() != obj.getClass()) return false;
+
+            final MemoKey other = (MemoKey)obj;
+            return this.rootDir.equals(other.rootDir)
+                    && this.extensionName.equals(other.extensionName)
+                    && this.projectDir.equals(other.projectDir);
+        }
+    }
+
+    private static final class NullOutputStream extends OutputStream {
+        public static final NullOutputStream INSTANCE = new NullOutputStream();
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package org.netbeans.gradle.project.model;
+
+// Notified when a first, incomplete model of a project is available while
+// its full model is still being loaded. Partial models only contain the
+// project hierarchy (without tasks) and have no extension models.
+public interface PartialModelListener {
+    public void onPartialModel(NbGradleModel model);
+}
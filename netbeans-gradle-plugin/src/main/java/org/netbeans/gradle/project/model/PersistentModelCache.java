@@ -0,0 +1,320 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.netbeans.gradle.model.util.SerializationUtils;
+import org.netbeans.gradle.project.GradleProjectConstants;
+import org.netbeans.gradle.project.StringUtils;
+import org.openide.modules.Places;
+import org.openide.util.Lookup;
+import org.openide.util.RequestProcessor;
+
+final class PersistentModelCache {
+    private static final Logger LOGGER = Logger.getLogger(PersistentModelCache.class.getName());
+
+    private static final String CACHE_DIR_NAME = "gradle-project-models";
+    private static final String CACHE_FILE_EXTENSION = ".model";
+    private static final int CACHE_FORMAT_VERSION = 1;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final RequestProcessor CACHE_WRITER
+            = new RequestProcessor("Gradle-Model-Cache-Writer", 1, true);
+
+    private final File cacheDir;
+    private final ConcurrentMap<File, NbGradleModel> pendingWrites;
+
+    public PersistentModelCache(File cacheDir) {
+        if (cacheDir == null) throw new NullPointerException("cacheDir");
+
+        this.cacheDir = cacheDir;
+        this.pendingWrites = new ConcurrentHashMap<File, NbGradleModel>();
+    }
+
+    public static PersistentModelCache createDefault() {
+        return new PersistentModelCache(Places.getCacheSubdirectory(CACHE_DIR_NAME));
+    }
+
+    static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private File getCacheFile(File projectDir) {
+        MessageDigest digest = createDigest();
+        byte[] hash = digest.digest(projectDir.getAbsolutePath().getBytes(UTF8));
+        return new File(cacheDir, StringUtils.byteArrayToHex(hash) + CACHE_FILE_EXTENSION);
+    }
+
+    private static void updateDigest(MessageDigest digest, File file, boolean includePath) throws IOException {
+        if (file == null) {
+            digest.update((byte)0);
+            return;
+        }
+
+        if (includePath) {
+            digest.update(file.getAbsolutePath().getBytes(UTF8));
+        }
+        if (!file.isFile()) {
+            digest.update((byte)0);
+            return;
+        }
+
+        digest.update((byte)1);
+
+        byte[] buffer = new byte[8 * 1024];
+        InputStream input = new FileInputStream(file);
+        try {
+            int readCount = input.read(buffer);
+            while (readCount > 0) {
+                digest.update(buffer, 0, readCount);
+                readCount = input.read(buffer);
+            }
+        } finally {
+            input.close();
+        }
+    }
+
+    static String digestBuildScripts(File projectDir, File settingsFile) throws IOException {
+        return digestBuildScripts(projectDir, settingsFile, true);
+    }
+
+    // Unlike digestBuildScripts, the returned hash does not depend on where
+    // the project is located.
+    static String digestBuildScriptContents(File projectDir, File settingsFile) throws IOException {
+        return digestBuildScripts(projectDir, settingsFile, false);
+    }
+
+    private static String digestBuildScripts(File projectDir, File settingsFile, boolean includePaths) throws IOException {
+        MessageDigest digest = createDigest();
+
+        updateDigest(digest, NbGenericModelInfo.getBuildFile(projectDir), includePaths);
+        updateDigest(digest, settingsFile, includePaths);
+        updateDigest(digest, new File(projectDir, GradleProjectConstants.GRADLE_PROPERTIES_NAME), includePaths);
+
+        File rootDir = settingsFile != null ? settingsFile.getParentFile() : null;
+        if (rootDir != null && !rootDir.equals(projectDir)) {
+            updateDigest(digest, new File(rootDir, GradleProjectConstants.GRADLE_PROPERTIES_NAME), includePaths);
+        }
+
+        return StringUtils.byteArrayToHex(digest.digest());
+    }
+
+    private static String pathOf(File file) {
+        return file != null ? file.getAbsolutePath() : "";
+    }
+
+    static ClassLoader getModelClassLoader() {
+        // The system class loader of NetBeans can see the classes of every
+        // extension, so extension models can also be restored.
+        ClassLoader result = Lookup.getDefault().lookup(ClassLoader.class);
+        return result != null ? result : PersistentModelCache.class.getClassLoader();
+    }
+
+    private static void writeBytes(DataOutputStream output, byte[] bytes) throws IOException {
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] result = new byte[length];
+        input.readFully(result);
+        return result;
+    }
+
+    private static byte[] trySerialize(String extensionName, Object model) {
+        try {
+            return SerializationUtils.serializeObject(model);
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.FINE, "The model of extension " + extensionName + " cannot be saved.", ex);
+            return null;
+        }
+    }
+
+    private static Object deserialize(byte[] serialized, ClassLoader classLoader) throws IOException {
+        try {
+            return SerializationUtils.deserializeObject(serialized, classLoader);
+        } catch (ClassNotFoundException ex) {
+            throw new IOException(ex);
+        } catch (RuntimeException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    private NbGradleModel tryReadModel(
+            File cacheFile,
+            File projectDir,
+            File settingsFile) throws IOException {
+
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)));
+        try {
+            if (input.readInt() != CACHE_FORMAT_VERSION) {
+                return null;
+            }
+            if (!pathOf(projectDir).equals(input.readUTF())) {
+                return null;
+            }
+            if (!pathOf(settingsFile).equals(input.readUTF())) {
+                return null;
+            }
+            if (!digestBuildScripts(projectDir, settingsFile).equals(input.readUTF())) {
+                return null;
+            }
+
+            ClassLoader classLoader = getModelClassLoader();
+            NbGenericModelInfo genericInfo = (NbGenericModelInfo)deserialize(readBytes(input), classLoader);
+
+            int extensionCount = input.readInt();
+            Map<String, Object> extensionModels = new HashMap<String, Object>();
+            for (int i = 0; i < extensionCount; i++) {
+                String extensionName = input.readUTF();
+                byte[] serializedModel = readBytes(input);
+                try {
+                    Object model = serializedModel != null
+                            ? deserialize(serializedModel, classLoader)
+                            : null;
+                    extensionModels.put(extensionName, model);
+                } catch (IOException ex) {
+                    // The extension will be loaded as if there was no cached model.
+                    LOGGER.log(Level.FINE, "Failed to restore the model of extension " + extensionName, ex);
+                }
+            }
+
+            return new NbGradleModel(genericInfo, extensionModels).createDirtyCopy();
+        } finally {
+            input.close();
+        }
+    }
+
+    public NbGradleModel tryGet(File projectDir, File settingsFile) {
+        if (projectDir == null) throw new NullPointerException("projectDir");
+
+        File cacheFile = getCacheFile(projectDir);
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+
+        try {
+            return tryReadModel(cacheFile, projectDir, settingsFile);
+        } catch (IOException ex) {
+            LOGGER.log(Level.INFO, "Failed to read the cached model of project: " + projectDir, ex);
+            return null;
+        }
+    }
+
+    private void writeModel(File cacheFile, NbGradleModel model) throws IOException {
+        File projectDir = model.getProjectDir();
+        File settingsFile = model.getSettingsFile();
+
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(cacheFile)));
+        try {
+            output.writeInt(CACHE_FORMAT_VERSION);
+            output.writeUTF(pathOf(projectDir));
+            output.writeUTF(pathOf(settingsFile));
+            output.writeUTF(digestBuildScripts(projectDir, settingsFile));
+
+            writeBytes(output, SerializationUtils.serializeObject(model.getGenericInfo()));
+
+            Map<String, byte[]> serializedModels = new HashMap<String, byte[]>();
+            Map<String, Object> nullModels = new HashMap<String, Object>();
+            for (Map.Entry<String, Object> entry: model.getExtensionModels().entrySet()) {
+                String extensionName = entry.getKey();
+                Object extensionModel = entry.getValue();
+                if (extensionModel == null) {
+                    nullModels.put(extensionName, null);
+                    continue;
+                }
+
+                byte[] serializedModel = trySerialize(extensionName, extensionModel);
+                if (serializedModel != null) {
+                    serializedModels.put(extensionName, serializedModel);
+                }
+            }
+
+            output.writeInt(serializedModels.size() + nullModels.size());
+            for (Map.Entry<String, byte[]> entry: serializedModels.entrySet()) {
+                output.writeUTF(entry.getKey());
+                writeBytes(output, entry.getValue());
+            }
+            for (String extensionName: nullModels.keySet()) {
+                output.writeUTF(extensionName);
+                output.writeInt(-1);
+            }
+        } finally {
+            output.close();
+        }
+    }
+
+    public void store(NbGradleModel model) {
+        if (model == null) throw new NullPointerException("model");
+
+        File projectDir = model.getProjectDir();
+        File cacheFile = getCacheFile(projectDir);
+        File tmpFile = new File(cacheDir, cacheFile.getName() + ".tmp");
+
+        try {
+            cacheDir.mkdirs();
+            writeModel(tmpFile, model);
+
+            if (cacheFile.exists() && !cacheFile.delete()) {
+                LOGGER.log(Level.INFO, "Failed to remove outdated model cache: {0}", cacheFile);
+                return;
+            }
+            if (!tmpFile.renameTo(cacheFile)) {
+                LOGGER.log(Level.INFO, "Failed to save model cache: {0}", cacheFile);
+            }
+        } catch (IOException ex) {
+            LOGGER.log(Level.INFO, "Failed to save the model of project: " + projectDir, ex);
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.INFO, "Failed to save the model of project: " + projectDir, ex);
+        } finally {
+            if (tmpFile.exists() && !tmpFile.delete()) {
+                LOGGER.log(Level.FINE, "Failed to remove temporary file: {0}", tmpFile);
+            }
+        }
+    }
+
+    public void storeLater(NbGradleModel model) {
+        if (model == null) throw new NullPointerException("model");
+
+        // Only the most recent model of a project is worth to be saved,
+        // so models queued for the same project are collapsed.
+        final File projectDir = model.getProjectDir();
+        if (pendingWrites.put(projectDir, model) != null) {
+            return;
+        }
+
+        CACHE_WRITER.execute(new Runnable() {
+            @Override
+            public void run() {
+                NbGradleModel toSave = pendingWrites.remove(projectDir);
+                if (toSave != null) {
+                    store(toSave);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,326 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import org.netbeans.gradle.project.properties.GlobalGradleSettings;
+import org.openide.util.RequestProcessor;
+
+// Tasks of the same root build (identified by its settings.gradle) are
+// executed one after another but tasks of different root builds may run
+// concurrently. GlobalGradleSettings.getProjectLoadParallelism() limits the
+// number of concurrently running tasks.
+//
+// When a task finishes, the queued task with the highest priority is started
+// next (among the tasks whose root build has no running task). Tasks with the
+// same priority are started in the order they were submitted. Running tasks
+// are never interrupted in favor of a task with a higher priority. The
+// priority of queued tasks can be raised through the executor they were
+// submitted to (e.g.: when an opened project waits for a background load).
+//
+// Priority also applies to the tasks of the same root build, so they might not
+// be started in the order they were submitted. This is safe because these
+// tasks do not rely on each other's results: They read the build scripts and
+// the cached models when they are started, not when they are submitted. So a
+// task started later than it would be in FIFO order only sees more recent
+// state.
+final class ProjectLoadScheduler {
+    private static final Logger LOGGER = Logger.getLogger(ProjectLoadScheduler.class.getName());
+
+    // The upper limit of GlobalGradleSettings.getProjectLoadParallelism()
+    private static final int MAX_WORKER_COUNT = 32;
+
+    private final Executor workerExecutor;
+
+    private final Lock queueLock;
+    // Contains an entry for a key if and only if there is a task running
+    // or waiting for that key.
+    private final Map<File, BuildQueue> queues;
+    private long nextSequenceNumber;
+    private int workerCount;
+    private int maxParallelism;
+
+    public ProjectLoadScheduler(String name) {
+        this(new RequestProcessor(name, MAX_WORKER_COUNT, true),
+                GlobalGradleSettings.getProjectLoadParallelism().getValue());
+
+        GlobalGradleSettings.getProjectLoadParallelism().addChangeListener(new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent e) {
+                setMaxParallelism(GlobalGradleSettings.getProjectLoadParallelism().getValue());
+            }
+        });
+    }
+
+    ProjectLoadScheduler(Executor workerExecutor, int maxParallelism) {
+        if (workerExecutor == null) throw new NullPointerException("workerExecutor");
+        if (maxParallelism <= 0) throw new IllegalArgumentException("maxParallelism must be positive.");
+
+        this.workerExecutor = workerExecutor;
+        this.queueLock = new ReentrantLock();
+        this.queues = new HashMap<File, BuildQueue>();
+        this.nextSequenceNumber = 0;
+        this.workerCount = 0;
+        this.maxParallelism = maxParallelism;
+    }
+
+    public static File getRootBuildKey(File projectDir) {
+        if (projectDir == null) throw new NullPointerException("projectDir");
+
+        File settingsFile = NbGradleModel.findSettingsGradle(projectDir);
+        return settingsFile != null ? settingsFile : projectDir;
+    }
+
+    // Workers above the new limit stop after completing their current task.
+    public void setMaxParallelism(int maxParallelism) {
+        if (maxParallelism <= 0) throw new IllegalArgumentException("maxParallelism must be positive.");
+
+        int newWorkerCount;
+        queueLock.lock();
+        try {
+            this.maxParallelism = maxParallelism;
+            newWorkerCount = reserveWorkersUnlocked();
+        } finally {
+            queueLock.unlock();
+        }
+
+        startWorkers(newWorkerCount);
+    }
+
+    public PrioritizedExecutor forRootBuild(File rootBuildKey, ModelLoadPriority priority) {
+        if (rootBuildKey == null) throw new NullPointerException("rootBuildKey");
+        if (priority == null) throw new NullPointerException("priority");
+
+        return new PrioritizedExecutor(rootBuildKey, priority);
+    }
+
+    public PrioritizedExecutor forProject(File projectDir, ModelLoadPriority priority) {
+        return forRootBuild(getRootBuildKey(projectDir), priority);
+    }
+
+    public void submit(File rootBuildKey, ModelLoadPriority priority, Runnable task) {
+        forRootBuild(rootBuildKey, priority).execute(task);
+    }
+
+    private void submit(PrioritizedExecutor owner, Runnable task) {
+        if (task == null) throw new NullPointerException("task");
+
+        File rootBuildKey = owner.rootBuildKey;
+
+        int newWorkerCount;
+        queueLock.lock();
+        try {
+            BuildQueue queue = queues.get(rootBuildKey);
+            if (queue == null) {
+                queue = new BuildQueue(rootBuildKey);
+                queues.put(rootBuildKey, queue);
+            }
+            queue.tasks.add(new QueuedTask(queue, owner, owner.priority, nextSequenceNumber, task));
+            nextSequenceNumber++;
+
+            newWorkerCount = reserveWorkersUnlocked();
+        } finally {
+            queueLock.unlock();
+        }
+
+        startWorkers(newWorkerCount);
+    }
+
+    private void raisePriority(PrioritizedExecutor owner, ModelLoadPriority priority) {
+        queueLock.lock();
+        try {
+            if (!priority.isHigherThan(owner.priority)) {
+                return;
+            }
+            owner.priority = priority;
+
+            BuildQueue queue = queues.get(owner.rootBuildKey);
+            if (queue == null) {
+                return;
+            }
+
+            List<QueuedTask> raisedTasks = new ArrayList<QueuedTask>();
+            for (QueuedTask task: queue.tasks) {
+                if (task.owner == owner) {
+                    raisedTasks.add(task);
+                }
+            }
+
+            // The tasks must be readded because PriorityQueue does not
+            // support changing the order of its elements.
+            queue.tasks.removeAll(raisedTasks);
+            for (QueuedTask task: raisedTasks) {
+                task.priority = priority;
+            }
+            queue.tasks.addAll(raisedTasks);
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    private int reserveWorkersUnlocked() {
+        int startableCount = 0;
+        for (BuildQueue queue: queues.values()) {
+            if (!queue.running && !queue.tasks.isEmpty()) {
+                startableCount++;
+            }
+        }
+
+        int result = Math.min(startableCount, maxParallelism - workerCount);
+        if (result <= 0) {
+            return 0;
+        }
+
+        workerCount += result;
+        return result;
+    }
+
+    private void startWorkers(int count) {
+        for (int i = 0; i < count; i++) {
+            workerExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    runQueuedTasks();
+                }
+            });
+        }
+    }
+
+    // Marks the queue of finishedTask (if not null) as not running, then
+    // selects the next task to be run by the calling worker. Returns null if
+    // the worker has to stop.
+    private QueuedTask pollTask(QueuedTask finishedTask) {
+        queueLock.lock();
+        try {
+            if (finishedTask != null) {
+                BuildQueue finishedQueue = finishedTask.queue;
+                finishedQueue.running = false;
+                if (finishedQueue.tasks.isEmpty()) {
+                    queues.remove(finishedQueue.rootBuildKey);
+                }
+            }
+
+            QueuedTask best = null;
+            if (workerCount <= maxParallelism) {
+                for (BuildQueue queue: queues.values()) {
+                    if (queue.running) {
+                        continue;
+                    }
+
+                    QueuedTask candidate = queue.tasks.peek();
+                    if (candidate != null && (best == null || candidate.compareTo(best) < 0)) {
+                        best = candidate;
+                    }
+                }
+            }
+
+            if (best == null) {
+                workerCount--;
+                return null;
+            }
+
+            best.queue.tasks.poll();
+            best.queue.running = true;
+            return best;
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    private void runQueuedTasks() {
+        QueuedTask task = pollTask(null);
+        while (task != null) {
+            try {
+                task.task.run();
+            } catch (Throwable ex) {
+                LOGGER.log(Level.SEVERE, "Unexpected exception while loading projects of " + task.queue.rootBuildKey, ex);
+            }
+
+            // Clear the interrupted status, so that a canceled task does not
+            // affect the next one.
+            Thread.interrupted();
+            task = pollTask(task);
+        }
+    }
+
+    // Submits tasks to a root build with a priority which can be raised while
+    // the tasks are queued.
+    public final class PrioritizedExecutor implements Executor {
+        private final File rootBuildKey;
+        // Guarded by queueLock
+        private ModelLoadPriority priority;
+
+        private PrioritizedExecutor(File rootBuildKey, ModelLoadPriority priority) {
+            this.rootBuildKey = rootBuildKey;
+            this.priority = priority;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            submit(this, command);
+        }
+
+        // Raises the priority of the tasks submitted to this executor which
+        // have not been started yet and of the tasks submitted later. Does
+        // nothing if the given priority is not higher than the current one.
+        public void raisePriority(ModelLoadPriority priority) {
+            if (priority == null) throw new NullPointerException("priority");
+            ProjectLoadScheduler.this.raisePriority(this, priority);
+        }
+    }
+
+    private static final class BuildQueue {
+        private final File rootBuildKey;
+        private final PriorityQueue<QueuedTask> tasks;
+        private boolean running;
+
+        public BuildQueue(File rootBuildKey) {
+            this.rootBuildKey = rootBuildKey;
+            this.tasks = new PriorityQueue<QueuedTask>();
+            this.running = false;
+        }
+    }
+
+    private static final class QueuedTask implements Comparable<QueuedTask> {
+        private final BuildQueue queue;
+        private final PrioritizedExecutor owner;
+        // Guarded by queueLock
+        private ModelLoadPriority priority;
+        private final long sequenceNumber;
+        private final Runnable task;
+
+        public QueuedTask(
+                BuildQueue queue,
+                PrioritizedExecutor owner,
+                ModelLoadPriority priority,
+                long sequenceNumber,
+                Runnable task) {
+            this.queue = queue;
+            this.owner = owner;
+            this.priority = priority;
+            this.sequenceNumber = sequenceNumber;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(QueuedTask other) {
+            if (priority != other.priority) {
+                return priority.isHigherThan(other.priority) ? -1 : 1;
+            }
+            if (sequenceNumber != other.sequenceNumber) {
+                return sequenceNumber < other.sequenceNumber ? -1 : 1;
+            }
+            return 0;
+        }
+    }
+}
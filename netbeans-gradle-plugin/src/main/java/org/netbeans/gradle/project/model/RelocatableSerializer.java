@@ -0,0 +1,244 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Serializes objects so that the File instances within them which are below
+// one of the given base directories are stored relative to that directory.
+// When deserializing, the same base directories have to be passed (by id) but
+// they might be located elsewhere.
+//
+// Note that paths stored as plain strings are not relocated.
+//
+// The serialized objects might come from an untrusted source (e.g.: a
+// snapshot in a cloned repository), so only the classes of the models and
+// the value types and collections of the JDK they use are allowed to be
+// deserialized.
+final class RelocatableSerializer {
+    private static final String[] ALLOWED_PACKAGES = {
+        "org.netbeans.gradle.",
+    };
+
+    private static final Set<String> ALLOWED_CLASSES = new HashSet<String>(Arrays.asList(
+            "java.io.File",
+            "java.lang.Boolean",
+            "java.lang.Byte",
+            "java.lang.Character",
+            "java.lang.Double",
+            "java.lang.Enum",
+            "java.lang.Float",
+            "java.lang.Integer",
+            "java.lang.Long",
+            "java.lang.Number",
+            "java.lang.Object",
+            "java.lang.Short",
+            "java.lang.String",
+            "java.net.URI",
+            "java.util.ArrayList",
+            "java.util.Arrays$ArrayList",
+            "java.util.Collections$EmptyList",
+            "java.util.Collections$EmptyMap",
+            "java.util.Collections$EmptySet",
+            "java.util.Collections$SingletonList",
+            "java.util.Collections$SingletonMap",
+            "java.util.Collections$SingletonSet",
+            "java.util.Collections$UnmodifiableCollection",
+            "java.util.Collections$UnmodifiableList",
+            "java.util.Collections$UnmodifiableMap",
+            "java.util.Collections$UnmodifiableRandomAccessList",
+            "java.util.Collections$UnmodifiableSet",
+            "java.util.EnumMap",
+            "java.util.HashMap",
+            "java.util.HashSet",
+            "java.util.LinkedHashMap",
+            "java.util.LinkedHashSet",
+            "java.util.LinkedList"));
+
+    private final Map<String, File> baseDirs;
+
+    // The base directories are tried in the iteration order of the map, so
+    // if a directory is within another, the inner one should come first.
+    public RelocatableSerializer(Map<String, File> baseDirs) {
+        if (baseDirs == null) throw new NullPointerException("baseDirs");
+
+        this.baseDirs = new LinkedHashMap<String, File>(baseDirs);
+        for (Map.Entry<String, File> entry: this.baseDirs.entrySet()) {
+            if (entry.getKey() == null) throw new NullPointerException("baseDirs.key");
+            if (entry.getValue() == null) throw new NullPointerException("baseDirs[" + entry.getKey() + "]");
+        }
+    }
+
+    static boolean isAllowedClass(String className) {
+        String elementClassName = className;
+        while (elementClassName.startsWith("[")) {
+            elementClassName = elementClassName.substring(1);
+        }
+
+        if (elementClassName.length() == 1) {
+            // Array of a primitive type
+            return className.startsWith("[");
+        }
+        if (elementClassName.length() != className.length()) {
+            if (!elementClassName.startsWith("L") || !elementClassName.endsWith(";")) {
+                return false;
+            }
+            elementClassName = elementClassName.substring(1, elementClassName.length() - 1);
+        }
+
+        if (ALLOWED_CLASSES.contains(elementClassName)) {
+            return true;
+        }
+        for (String allowedPackage: ALLOWED_PACKAGES) {
+            if (elementClassName.startsWith(allowedPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String tryGetRelativePath(File baseDir, File file) {
+        String basePath = baseDir.getAbsolutePath();
+        String path = file.getAbsolutePath();
+
+        if (path.equals(basePath)) {
+            return "";
+        }
+
+        String basePrefix = basePath.endsWith(File.separator) ? basePath : basePath + File.separator;
+        if (!path.startsWith(basePrefix)) {
+            return null;
+        }
+
+        return path.substring(basePrefix.length()).replace(File.separatorChar, '/');
+    }
+
+    private Object tryRelocate(File file) {
+        for (Map.Entry<String, File> entry: baseDirs.entrySet()) {
+            String relativePath = tryGetRelativePath(entry.getValue(), file);
+            if (relativePath != null) {
+                return new RelativeFile(entry.getKey(), relativePath);
+            }
+        }
+        return file;
+    }
+
+    private File resolve(RelativeFile file) throws IOException {
+        File baseDir = baseDirs.get(file.baseDirId);
+        if (baseDir == null) {
+            throw new IOException("Unknown base directory: " + file.baseDirId);
+        }
+
+        if (file.relativePath.isEmpty()) {
+            return baseDir;
+        }
+        return new File(baseDir, file.relativePath.replace('/', File.separatorChar));
+    }
+
+    public byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(2048);
+        ObjectOutputStream objOutput = new RelocatingObjectOutputStream(output);
+        try {
+            objOutput.writeObject(object);
+        } finally {
+            objOutput.close();
+        }
+        return output.toByteArray();
+    }
+
+    public Object deserialize(byte[] serializedObject, ClassLoader classLoader) throws IOException {
+        if (serializedObject == null) throw new NullPointerException("serializedObject");
+        if (classLoader == null) throw new NullPointerException("classLoader");
+
+        ObjectInputStream input = new RelocatingObjectInputStream(
+                new ByteArrayInputStream(serializedObject),
+                classLoader);
+        try {
+            return input.readObject();
+        } catch (ClassNotFoundException ex) {
+            throw new IOException(ex);
+        } catch (RuntimeException ex) {
+            // Corrupt input might cause any kind of exception.
+            throw new IOException(ex);
+        } finally {
+            input.close();
+        }
+    }
+
+    private static final class RelativeFile implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String baseDirId;
+        private final String relativePath;
+
+        public RelativeFile(String baseDirId, String relativePath) {
+            this.baseDirId = baseDirId;
+            this.relativePath = relativePath;
+        }
+    }
+
+    private final class RelocatingObjectOutputStream extends ObjectOutputStream {
+        public RelocatingObjectOutputStream(OutputStream output) throws IOException {
+            super(output);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) throws IOException {
+            if (obj instanceof File) {
+                return tryRelocate((File)obj);
+            }
+            return obj;
+        }
+    }
+
+    private final class RelocatingObjectInputStream extends ObjectInputStream {
+        private final ClassLoader classLoader;
+
+        public RelocatingObjectInputStream(InputStream input, ClassLoader classLoader) throws IOException {
+            super(input);
+            this.classLoader = classLoader;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            if (!isAllowedClass(desc.getName())) {
+                throw new InvalidClassException(desc.getName(), "Class is not allowed to be deserialized.");
+            }
+
+            try {
+                return Class.forName(desc.getName(), false, classLoader);
+            } catch (ClassNotFoundException ex) {
+                // Needed for primitive types
+                return super.resolveClass(desc);
+            }
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+            throw new InvalidClassException("Proxy classes are not allowed to be deserialized.");
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) throws IOException {
+            if (obj instanceof RelativeFile) {
+                return resolve((RelativeFile)obj);
+            }
+            return obj;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.netbeans.gradle.project.GradleProjectConstants;
+import org.openide.filesystems.FileAttributeEvent;
+import org.openide.filesystems.FileChangeListener;
+import org.openide.filesystems.FileEvent;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileRenameEvent;
+import org.openide.filesystems.FileUtil;
+
+// Remembers which settings.gradle belongs to a directory, so that looking it
+// up does not have to walk the parent directories every time.
+//
+// Every directory visited by a lookup has its (possibly not yet existing)
+// settings.gradle watched and the whole cache is dropped when one of them is
+// created, deleted or renamed. These listeners are kept for the lifetime of
+// the IDE but there is only one for each directory ever visited.
+final class SettingsGradleCache {
+    private static final Logger LOGGER = Logger.getLogger(SettingsGradleCache.class.getName());
+
+    private static final SettingsGradleCache DEFAULT = new SettingsGradleCache();
+
+    private final ConcurrentMap<File, CachedSettings> settingsOfDirs;
+    private final Set<File> watchedFiles;
+    private final FileChangeListener listener;
+
+    private final Lock mainLock;
+    private long generation;
+
+    public SettingsGradleCache() {
+        this.settingsOfDirs = new ConcurrentHashMap<File, CachedSettings>();
+        this.watchedFiles = Collections.newSetFromMap(new ConcurrentHashMap<File, Boolean>());
+        this.listener = new SettingsChangeListener();
+        this.mainLock = new ReentrantLock();
+        this.generation = 0;
+    }
+
+    public static SettingsGradleCache getDefault() {
+        return DEFAULT;
+    }
+
+    // Package-private for the tests (as is storeResult): A lookup remembers
+    // the generation before looking for the settings file.
+    long getGeneration() {
+        mainLock.lock();
+        try {
+            return generation;
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    public void invalidate() {
+        mainLock.lock();
+        try {
+            generation++;
+            settingsOfDirs.clear();
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    private void watchDir(File dir) {
+        File settingsFile = FileUtil.normalizeFile(new File(dir, GradleProjectConstants.SETTINGS_FILE_NAME));
+        if (watchedFiles.add(settingsFile)) {
+            try {
+                FileUtil.addFileChangeListener(listener, settingsFile);
+            } catch (IllegalArgumentException ex) {
+                LOGGER.log(Level.FINE, "Listener is already registered for " + settingsFile, ex);
+            }
+        }
+    }
+
+    void storeResult(List<File> dirs, File settingsFile, long startGeneration) {
+        CachedSettings cached = new CachedSettings(settingsFile);
+
+        mainLock.lock();
+        try {
+            // A settings.gradle might have been added or removed while we were
+            // looking for it.
+            if (generation != startGeneration) {
+                return;
+            }
+
+            for (File dir: dirs) {
+                settingsOfDirs.put(dir, cached);
+            }
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    // Used by the tests.
+    boolean isCached(File dir) {
+        return settingsOfDirs.containsKey(dir);
+    }
+
+    public File findSettingsGradle(File projectDir) {
+        if (projectDir == null) throw new NullPointerException("projectDir");
+
+        CachedSettings cached = settingsOfDirs.get(projectDir);
+        if (cached != null) {
+            return cached.settingsFile;
+        }
+
+        long startGeneration = getGeneration();
+
+        FileObject projectDirObj = FileUtil.toFileObject(projectDir);
+        if (projectDirObj == null) {
+            return null;
+        }
+
+        List<File> visitedDirs = new ArrayList<File>();
+        visitedDirs.add(projectDir);
+        watchDir(projectDir);
+
+        File result = null;
+        for (FileObject dir = projectDirObj; dir != null; dir = dir.getParent()) {
+            File dirFile = FileUtil.toFile(dir);
+            if (dirFile != null && dir != projectDirObj) {
+                CachedSettings cachedParent = settingsOfDirs.get(dirFile);
+                if (cachedParent != null) {
+                    result = cachedParent.settingsFile;
+                    break;
+                }
+
+                visitedDirs.add(dirFile);
+                watchDir(dirFile);
+            }
+
+            FileObject settingsGradle = dir.getFileObject(GradleProjectConstants.SETTINGS_FILE_NAME);
+            if (settingsGradle != null && !settingsGradle.isVirtual()) {
+                result = FileUtil.toFile(settingsGradle);
+                break;
+            }
+        }
+
+        storeResult(visitedDirs, result, startGeneration);
+        return result;
+    }
+
+    private static final class CachedSettings {
+        public final File settingsFile;
+
+        public CachedSettings(File settingsFile) {
+            this.settingsFile = settingsFile;
+        }
+    }
+
+    private final class SettingsChangeListener implements FileChangeListener {
+        private void onChange(FileEvent event) {
+            LOGGER.log(Level.FINE, "A settings file was added or removed: {0}", event.getFile());
+            invalidate();
+        }
+
+        @Override
+        public void fileFolderCreated(FileEvent fe) {
+            onChange(fe);
+        }
+
+        @Override
+        public void fileDataCreated(FileEvent fe) {
+            onChange(fe);
+        }
+
+        @Override
+        public void fileChanged(FileEvent fe) {
+        }
+
+        @Override
+        public void fileDeleted(FileEvent fe) {
+            onChange(fe);
+        }
+
+        @Override
+        public void fileRenamed(FileRenameEvent fe) {
+            onChange(fe);
+        }
+
+        @Override
+        public void fileAttributeChanged(FileAttributeEvent fe) {
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.netbeans.gradle.project.NbGradleProject;
+import org.netbeans.gradle.project.properties.GlobalGradleSettings;
+import org.openide.modules.OnStart;
+import org.openide.modules.OnStop;
+import org.openide.util.RequestProcessor;
+
+// Loads the models of the root builds which were open when the IDE was shut
+// down right after the IDE starts, so that the models (and a Gradle daemon) are
+// likely to be available by the time the restored projects need them.
+//
+// A root build is forgotten when its last opened project is closed, except if
+// the project is closed because the IDE is shutting down.
+//
+// The root builds are loaded one after another, and no more of them are
+// started after cancelPrefetch() was called (the user has something better to
+// do with the daemon). A load which has already been started is not canceled
+// because opened projects might be waiting for it.
+@OnStart
+public final class StartupModelPrefetcher implements Runnable {
+    private static final Logger LOGGER = Logger.getLogger(StartupModelPrefetcher.class.getName());
+
+    private static final int MAX_RECENT_ROOT_BUILDS = 8;
+    private static final int START_DELAY_MS = 1000;
+
+    private static final RequestProcessor PREFETCH_PROCESSOR
+            = new RequestProcessor("Gradle-Model-Prefetcher", 1, true);
+
+    private static final AtomicBoolean CANCELED = new AtomicBoolean(false);
+    private static final AtomicBoolean SHUTTING_DOWN = new AtomicBoolean(false);
+    private static final Lock RECENT_ROOT_BUILDS_LOCK = new ReentrantLock();
+    // Guarded by RECENT_ROOT_BUILDS_LOCK
+    private static final Map<String, Integer> OPENED_PROJECT_COUNTS = new HashMap<String, Integer>();
+
+    private static File getRootBuildDir(File projectDir) {
+        File settingsFile = NbGradleModel.findSettingsGradle(projectDir);
+        File result = settingsFile != null ? settingsFile.getParentFile() : null;
+        return result != null ? result : projectDir;
+    }
+
+    public static void recordOpenedProject(File projectDir) {
+        if (projectDir == null) throw new NullPointerException("projectDir");
+
+        String rootBuildPath = getRootBuildDir(projectDir).getPath();
+
+        RECENT_ROOT_BUILDS_LOCK.lock();
+        try {
+            Integer openedCount = OPENED_PROJECT_COUNTS.get(rootBuildPath);
+            OPENED_PROJECT_COUNTS.put(rootBuildPath, openedCount != null ? openedCount + 1 : 1);
+
+            List<String> recent = new LinkedList<String>(getRecentRootBuildPaths());
+            if (!recent.isEmpty() && recent.get(0).equals(rootBuildPath)) {
+                return;
+            }
+
+            recent.remove(rootBuildPath);
+            recent.add(0, rootBuildPath);
+            while (recent.size() > MAX_RECENT_ROOT_BUILDS) {
+                recent.remove(recent.size() - 1);
+            }
+            GlobalGradleSettings.getRecentRootBuilds().setValue(recent);
+        } finally {
+            RECENT_ROOT_BUILDS_LOCK.unlock();
+        }
+    }
+
+    public static void recordClosedProject(File projectDir) {
+        if (projectDir == null) throw new NullPointerException("projectDir");
+
+        String rootBuildPath = getRootBuildDir(projectDir).getPath();
+
+        RECENT_ROOT_BUILDS_LOCK.lock();
+        try {
+            Integer openedCount = OPENED_PROJECT_COUNTS.remove(rootBuildPath);
+            if (openedCount != null && openedCount > 1) {
+                OPENED_PROJECT_COUNTS.put(rootBuildPath, openedCount - 1);
+                return;
+            }
+
+            if (SHUTTING_DOWN.get()) {
+                return;
+            }
+
+            List<String> recent = new LinkedList<String>(getRecentRootBuildPaths());
+            if (recent.remove(rootBuildPath)) {
+                GlobalGradleSettings.getRecentRootBuilds().setValue(recent);
+            }
+        } finally {
+            RECENT_ROOT_BUILDS_LOCK.unlock();
+        }
+    }
+
+    public static void cancelPrefetch() {
+        if (CANCELED.compareAndSet(false, true)) {
+            LOGGER.fine("Prefetching the models of recent projects has been canceled.");
+        }
+    }
+
+    private static List<String> getRecentRootBuildPaths() {
+        List<String> result = GlobalGradleSettings.getRecentRootBuilds().getValue();
+        return result != null ? result : Collections.<String>emptyList();
+    }
+
+    @Override
+    public void run() {
+        if (!GlobalGradleSettings.getPrefetchModelsOnStartup().getValue()) {
+            return;
+        }
+
+        final List<File> rootDirs = new ArrayList<File>();
+        for (String path: getRecentRootBuildPaths()) {
+            rootDirs.add(new File(path));
+        }
+
+        if (rootDirs.isEmpty()) {
+            return;
+        }
+
+        PREFETCH_PROCESSOR.post(new Runnable() {
+            @Override
+            public void run() {
+                prefetchNext(new LinkedList<File>(rootDirs));
+            }
+        }, START_DELAY_MS, Thread.MIN_PRIORITY);
+    }
+
+    private static void prefetchNext(final LinkedList<File> remaining) {
+        File rootDir = remaining.poll();
+        while (rootDir != null && !CANCELED.get()) {
+            NbGradleProject project = rootDir.isDirectory()
+                    ? GradleModelLoader.tryFindGradleProject(rootDir)
+                    : null;
+
+            if (project != null) {
+                prefetch(project, remaining);
+                return;
+            }
+
+            rootDir = remaining.poll();
+        }
+    }
+
+    private static void prefetch(NbGradleProject project, final LinkedList<File> remaining) {
+        LOGGER.log(Level.FINE, "Prefetching the models of {0}", project.getProjectDirectoryAsFile());
+
+        // The persistent cache is allowed, so that the restored projects can
+        // get their models from there right away. A model read from there is
+        // revalidated and then this listener is notified again.
+        final AtomicBoolean completed = new AtomicBoolean(false);
+        GradleModelLoader.fetchModel(project, true, new ModelRetrievedListener() {
+            @Override
+            public void onComplete(NbGradleModel model, Throwable error) {
+                if (error != null) {
+                    LOGGER.log(Level.FINE, "Failed to prefetch project models.", error);
+                }
+                else if (model != null && model.isDirty()) {
+                    return;
+                }
+
+                if (completed.compareAndSet(false, true)) {
+                    PREFETCH_PROCESSOR.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            prefetchNext(remaining);
+                        }
+                    }, 0, Thread.MIN_PRIORITY);
+                }
+            }
+        });
+    }
+
+    // Closing the projects when the IDE is shutting down must not remove them
+    // from the root builds to be prefetched. The Callable form is used because
+    // it is called before the projects are closed.
+    @OnStop
+    public static final class ShutdownListener implements Callable<Boolean> {
+        @Override
+        public Boolean call() {
+            SHUTTING_DOWN.set(true);
+            return true;
+        }
+    }
+}
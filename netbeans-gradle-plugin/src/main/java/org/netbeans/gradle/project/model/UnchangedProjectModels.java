@@ -0,0 +1,262 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.netbeans.gradle.model.GenericProjectProperties;
+import org.netbeans.gradle.model.GradleProjectTree;
+import org.netbeans.gradle.model.util.CollectionUtils;
+
+// Finds the projects of a build whose build scripts did not change since
+// their models were last parsed. This alone is not enough to reuse the parsed
+// models: The raw models must be the same as well (see ParsedModelMemo).
+//
+// A project has to be parsed again if
+//  - the hash of its build scripts has changed,
+//  - it is a descendant of a project which has to be parsed again (parent
+//    projects may configure their children),
+//  - its build script refers to the path of a project which has to be parsed
+//    again (this is how project dependencies are declared).
+final class UnchangedProjectModels {
+    private static final Logger LOGGER = Logger.getLogger(UnchangedProjectModels.class.getName());
+
+    private static final Charset SCRIPT_ENCODING = Charset.forName("UTF-8");
+
+    private final Map<File, String> buildScriptsHashes;
+    private final Set<File> unchangedProjectDirs;
+
+    private UnchangedProjectModels(Map<File, String> buildScriptsHashes, Set<File> unchangedProjectDirs) {
+        this.buildScriptsHashes = buildScriptsHashes;
+        this.unchangedProjectDirs = unchangedProjectDirs;
+    }
+
+    public static UnchangedProjectModels find(
+            GradleProjectTree rootProject,
+            File settingsFile,
+            GradleModelCache cache) {
+        if (rootProject == null) throw new NullPointerException("rootProject");
+        if (cache == null) throw new NullPointerException("cache");
+
+        List<ProjectEntry> projects = new ArrayList<ProjectEntry>();
+        addProjects(rootProject, projects);
+
+        Map<File, String> hashes = CollectionUtils.newHashMap(projects.size());
+        List<ProjectEntry> changedProjects = new LinkedList<ProjectEntry>();
+
+        for (ProjectEntry project: projects) {
+            String hash = tryDigestBuildScripts(project.projectDir, settingsFile);
+            if (hash != null) {
+                hashes.put(project.projectDir, hash);
+            }
+
+            NbGradleModel previousModel = cache.tryGetFromMemory(project.projectDir, settingsFile);
+            if (previousModel == null || previousModel.isDirty()
+                    || hash == null || !hash.equals(previousModel.getBuildScriptsHash())) {
+                changedProjects.add(project);
+            }
+        }
+
+        if (changedProjects.size() == projects.size()) {
+            return new UnchangedProjectModels(hashes, Collections.<File>emptySet());
+        }
+
+        Set<File> affectedDirs = findAffectedProjects(projects, changedProjects);
+
+        Set<File> unchangedDirs = new HashSet<File>();
+        for (ProjectEntry project: projects) {
+            if (!affectedDirs.contains(project.projectDir)) {
+                unchangedDirs.add(project.projectDir);
+            }
+        }
+
+        LOGGER.log(Level.FINE, "The build scripts of {0} projects out of {1} are unchanged.",
+                new Object[]{unchangedDirs.size(), projects.size()});
+
+        return new UnchangedProjectModels(hashes, unchangedDirs);
+    }
+
+    private static ProjectEntry addProjects(GradleProjectTree project, List<ProjectEntry> result) {
+        ProjectEntry entry = new ProjectEntry(project.getGenericProperties());
+        result.add(entry);
+
+        for (GradleProjectTree child: project.getChildren()) {
+            entry.children.add(addProjects(child, result));
+        }
+        return entry;
+    }
+
+    // Used by the tests: finds the projects which have to be parsed again if
+    // the build scripts of the given projects have changed.
+    static Set<File> findAffectedProjectDirs(GradleProjectTree rootProject, Collection<File> changedDirs) {
+        List<ProjectEntry> projects = new ArrayList<ProjectEntry>();
+        addProjects(rootProject, projects);
+
+        List<ProjectEntry> changedProjects = new ArrayList<ProjectEntry>();
+        for (ProjectEntry project: projects) {
+            if (changedDirs.contains(project.projectDir)) {
+                changedProjects.add(project);
+            }
+        }
+        return findAffectedProjects(projects, changedProjects);
+    }
+
+    private static Set<File> findAffectedProjects(List<ProjectEntry> projects, List<ProjectEntry> changedProjects) {
+        Set<File> result = new HashSet<File>();
+        LinkedList<ProjectEntry> toProcess = new LinkedList<ProjectEntry>(changedProjects);
+        ProjectReferences references = null;
+
+        ProjectEntry changed = toProcess.poll();
+        while (changed != null) {
+            if (result.add(changed.projectDir)) {
+                toProcess.addAll(changed.children);
+
+                String path = changed.projectPath;
+                if (path == null || path.equals(":")) {
+                    // Every project is a descendant of the root project.
+                    toProcess.addAll(projects);
+                }
+                else {
+                    // The build scripts are only read if they are really needed.
+                    if (references == null) {
+                        references = ProjectReferences.parse(projects);
+                    }
+                    toProcess.addAll(references.getDependents(path));
+                }
+            }
+            changed = toProcess.poll();
+        }
+        return result;
+    }
+
+    private static String getScriptContent(File projectDir) {
+        File buildFile = NbGenericModelInfo.getBuildFile(projectDir);
+        if (buildFile == null) {
+            return "";
+        }
+
+        try {
+            return readFile(buildFile);
+        } catch (IOException ex) {
+            LOGGER.log(Level.INFO, "Failed to read build script: " + buildFile, ex);
+            // Null means that it is unknown what the project depends on.
+            return null;
+        }
+    }
+
+    private static String readFile(File file) throws IOException {
+        StringBuilder result = new StringBuilder((int)file.length());
+        char[] buffer = new char[8 * 1024];
+
+        InputStream input = new FileInputStream(file);
+        try {
+            Reader reader = new InputStreamReader(input, SCRIPT_ENCODING);
+            int readCount = reader.read(buffer);
+            while (readCount > 0) {
+                result.append(buffer, 0, readCount);
+                readCount = reader.read(buffer);
+            }
+        } finally {
+            input.close();
+        }
+        return result.toString();
+    }
+
+    private static String tryDigestBuildScripts(File projectDir, File settingsFile) {
+        try {
+            return PersistentModelCache.digestBuildScripts(projectDir, settingsFile);
+        } catch (IOException ex) {
+            LOGGER.log(Level.INFO, "Failed to hash the build scripts of project: " + projectDir, ex);
+            return null;
+        }
+    }
+
+    public String tryGetBuildScriptsHash(File projectDir) {
+        return buildScriptsHashes.get(projectDir);
+    }
+
+    public boolean isUnchanged(File projectDir) {
+        return unchangedProjectDirs.contains(projectDir);
+    }
+
+    // The projects referring to the path of other projects in their build
+    // scripts (this is how project dependencies are declared).
+    private static final class ProjectReferences {
+        private static final Pattern QUOTED_PROJECT_PATH = Pattern.compile("(['\"])(:[^'\"\\s]*)\\1");
+
+        private final Map<String, List<ProjectEntry>> dependentsOfPaths;
+        private final List<ProjectEntry> unknownDependencies;
+
+        private ProjectReferences() {
+            this.dependentsOfPaths = new HashMap<String, List<ProjectEntry>>();
+            this.unknownDependencies = new LinkedList<ProjectEntry>();
+        }
+
+        public static ProjectReferences parse(List<ProjectEntry> projects) {
+            ProjectReferences result = new ProjectReferences();
+            for (ProjectEntry project: projects) {
+                String script = getScriptContent(project.projectDir);
+                if (script == null) {
+                    result.unknownDependencies.add(project);
+                    continue;
+                }
+
+                Set<String> referencedPaths = new HashSet<String>();
+                Matcher matcher = QUOTED_PROJECT_PATH.matcher(script);
+                while (matcher.find()) {
+                    referencedPaths.add(matcher.group(2));
+                }
+
+                for (String path: referencedPaths) {
+                    List<ProjectEntry> dependents = result.dependentsOfPaths.get(path);
+                    if (dependents == null) {
+                        dependents = new LinkedList<ProjectEntry>();
+                        result.dependentsOfPaths.put(path, dependents);
+                    }
+                    dependents.add(project);
+                }
+            }
+            return result;
+        }
+
+        public List<ProjectEntry> getDependents(String projectPath) {
+            List<ProjectEntry> dependents = dependentsOfPaths.get(projectPath);
+            if (dependents == null) {
+                return unknownDependencies;
+            }
+
+            List<ProjectEntry> result = new ArrayList<ProjectEntry>(dependents.size() + unknownDependencies.size());
+            result.addAll(dependents);
+            result.addAll(unknownDependencies);
+            return result;
+        }
+    }
+
+    private static final class ProjectEntry {
+        private final File projectDir;
+        private final String projectPath;
+        private final List<ProjectEntry> children;
+
+        public ProjectEntry(GenericProjectProperties properties) {
+            this.projectDir = properties.getProjectDir();
+            this.projectPath = properties.getProjectFullName();
+            this.children = new LinkedList<ProjectEntry>();
+        }
+    }
+}
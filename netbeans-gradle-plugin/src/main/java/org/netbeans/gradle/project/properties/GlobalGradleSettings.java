@@ -32,6 +32,13 @@ public final class GlobalGradleSettings {
     private static final StringBasedProperty<JavaPlatform> GRADLE_JDK;
     private static final StringBasedProperty<Boolean> SKIP_TESTS;
     private static final StringBasedProperty<Integer> PROJECT_CACHE_SIZE;
+    private static final StringBasedProperty<Integer> PROJECT_CACHE_MEMORY_BUDGET;
+    private static final StringBasedProperty<Integer> PROJECT_LOAD_PARALLELISM;
+    private static final StringBasedProperty<Integer> MODEL_LOAD_TIMEOUT_SEC;
+    private static final StringBasedProperty<Boolean> AUTO_TUNE_MODEL_LOADS;
+    private static final StringBasedProperty<Boolean> RELOAD_ON_SCRIPT_CHANGE;
+    private static final StringBasedProperty<Boolean> PREFETCH_MODELS_ON_STARTUP;
+    private static final StringBasedProperty<List<String>> RECENT_ROOT_BUILDS;
     private static final StringBasedProperty<Boolean> ALWAYS_CLEAR_OUTPUT;
     private static final StringBasedProperty<Boolean> OMIT_INIT_SCRIPT;
     private static final StringBasedProperty<Boolean> MAY_RELY_ON_JAVA_OF_SCRIPT;
@@ -46,6 +53,13 @@ public final class GlobalGradleSettings {
         GRADLE_JDK = new GlobalProperty<JavaPlatform>("gradle-jdk", JavaPlaformConverter.INSTANCE);
         SKIP_TESTS = new GlobalProperty<Boolean>("skip-tests", new BooleanConverter(false));
         PROJECT_CACHE_SIZE = new GlobalProperty<Integer>("project-cache-size", new IntegerConverter(1, Integer.MAX_VALUE, 100));
+        PROJECT_CACHE_MEMORY_BUDGET = new GlobalProperty<Integer>("project-cache-memory-budget-mb", new IntegerConverter(1, Integer.MAX_VALUE, 256));
+        PROJECT_LOAD_PARALLELISM = new GlobalProperty<Integer>("project-load-parallelism", new IntegerConverter(1, 32, 2));
+        MODEL_LOAD_TIMEOUT_SEC = new GlobalProperty<Integer>("model-load-timeout-sec", new IntegerConverter(0, Integer.MAX_VALUE, 0));
+        AUTO_TUNE_MODEL_LOADS = new GlobalProperty<Boolean>("auto-tune-model-loads", new BooleanConverter(false));
+        RELOAD_ON_SCRIPT_CHANGE = new GlobalProperty<Boolean>("reload-on-script-change", new BooleanConverter(true));
+        PREFETCH_MODELS_ON_STARTUP = new GlobalProperty<Boolean>("prefetch-models-on-startup", new BooleanConverter(true));
+        RECENT_ROOT_BUILDS = new GlobalProperty<List<String>>("recent-root-builds", StringToStringListConverter.INSTANCE);
         ALWAYS_CLEAR_OUTPUT = new GlobalProperty<Boolean>("always-clear-output", new BooleanConverter(false));
         OMIT_INIT_SCRIPT = new GlobalProperty<Boolean>("omit-init-script", new BooleanConverter(false));
         MAY_RELY_ON_JAVA_OF_SCRIPT = new GlobalProperty<Boolean>("rely-on-java-of-script", new BooleanConverter(false));
@@ -94,6 +108,35 @@ public final class GlobalGradleSettings {
         return PROJECT_CACHE_SIZE;
     }
 
+    public static StringBasedProperty<Integer> getProjectCacheMemoryBudget() {
+        return PROJECT_CACHE_MEMORY_BUDGET;
+    }
+
+    public static StringBasedProperty<Integer> getProjectLoadParallelism() {
+        return PROJECT_LOAD_PARALLELISM;
+    }
+
+    // Zero means that there is no deadline.
+    public static StringBasedProperty<Integer> getModelLoadTimeoutSec() {
+        return MODEL_LOAD_TIMEOUT_SEC;
+    }
+
+    public static StringBasedProperty<Boolean> getAutoTuneModelLoads() {
+        return AUTO_TUNE_MODEL_LOADS;
+    }
+
+    public static StringBasedProperty<Boolean> getReloadOnScriptChange() {
+        return RELOAD_ON_SCRIPT_CHANGE;
+    }
+
+    public static StringBasedProperty<Boolean> getPrefetchModelsOnStartup() {
+        return PREFETCH_MODELS_ON_STARTUP;
+    }
+
+    public static StringBasedProperty<List<String>> getRecentRootBuilds() {
+        return RECENT_ROOT_BUILDS;
+    }
+
     public static StringBasedProperty<Boolean> getAlwaysClearOutput() {
         return ALWAYS_CLEAR_OUTPUT;
     }
@@ -158,7 +201,7 @@ public final class GlobalGradleSettings {
             // valueItr.next() should succeed since the list is not empty.
             result.append(valueItr.next());
 
-            while (!valueItr.hasNext()) {
+            while (valueItr.hasNext()) {
                 result.append('\n');
                 result.append(valueItr.next());
             }
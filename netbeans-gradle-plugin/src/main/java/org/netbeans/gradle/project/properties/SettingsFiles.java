@@ -17,11 +17,18 @@ public final class SettingsFiles {
     private static final String SETTINGS_DIR_NAME = ".nb-gradle";
     private static final String PROFILE_DIRECTORY = "profiles";
     private static final String PRIVATE_SETTINGS_DIR = "private";
+    private static final String MODEL_SNAPSHOT_FILENAME = "model-snapshot.bin";
 
     public static File getPrivateSettingsDir(File rootDir) {
         return new File(getSettingsDir(rootDir), PRIVATE_SETTINGS_DIR);
     }
 
+    // The snapshot is not in the private directory because it is meant to be
+    // shared.
+    public static File getModelSnapshotFile(File rootDir) {
+        return new File(getSettingsDir(rootDir), MODEL_SNAPSHOT_FILENAME);
+    }
+
     public static Collection<ProfileDef> getAvailableProfiles(File rootDir) {
         File profileDir = getProfileDirectory(rootDir);
         if (!profileDir.isDirectory()) {
@@ -20,7 +20,6 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.SwingUtilities;
 import org.gradle.tooling.BuildLauncher;
-import org.gradle.tooling.GradleConnector;
 import org.gradle.tooling.ProgressEvent;
 import org.gradle.tooling.ProgressListener;
 import org.gradle.tooling.ProjectConnection;
@@ -33,7 +32,9 @@ import org.netbeans.gradle.project.api.config.InitScriptQuery;
 import org.netbeans.gradle.project.api.task.CommandCompleteListener;
 import org.netbeans.gradle.project.api.task.TaskVariable;
 import org.netbeans.gradle.project.api.task.TaskVariableMap;
+import org.netbeans.gradle.project.model.GradleConnectionPool;
 import org.netbeans.gradle.project.model.GradleModelLoader;
+import org.netbeans.gradle.project.model.StartupModelPrefetcher;
 import org.netbeans.gradle.project.output.BuildErrorConsumer;
 import org.netbeans.gradle.project.output.FileLineConsumer;
 import org.netbeans.gradle.project.output.IOTabRef;
@@ -92,6 +93,9 @@ public final class AsyncGradleTask implements Runnable {
 
     @Override
     public void run() {
+        // The user has explicitly asked for something, which is more
+        // important than loading projects which might not even be needed.
+        StartupModelPrefetcher.cancelPrefetch();
         submitGradleTask(taskDefFactroy, listener);
     }
 
@@ -243,11 +247,10 @@ public final class AsyncGradleTask implements Runnable {
 
         File projectDir = project.getProjectDirectoryAsFile();
 
-        GradleConnector gradleConnector = GradleModelLoader.createGradleConnector(project);
-        gradleConnector.forProjectDirectory(projectDir);
-        ProjectConnection projectConnection = null;
+        GradleConnectionPool.ConnectionRef connectionRef
+                = GradleConnectionPool.getDefault().connect(project, projectDir);
         try {
-            projectConnection = gradleConnector.connect();
+            ProjectConnection projectConnection = connectionRef.getConnection();
 
             BuildLauncher buildLauncher = projectConnection.newBuild();
             List<TemporaryFileRef> initScripts = getAllInitScriptFiles(project);
@@ -313,9 +316,7 @@ public final class AsyncGradleTask implements Runnable {
                 closeAll(initScripts);
             }
         } finally {
-            if (projectConnection != null) {
-                projectConnection.close();
-            }
+            connectionRef.close();
         }
     }
 
@@ -3,14 +3,24 @@ package org.netbeans.gradle.project.tasks;
 public final class DaemonTaskDef {
     private final String caption;
     private final boolean nonBlocking;
+    private final boolean exclusive;
     private final DaemonTask task;
 
     public DaemonTaskDef(String caption, boolean nonBlocking, DaemonTask task) {
+        this(caption, nonBlocking, true, task);
+    }
+
+    // "exclusive" only matters for non-blocking tasks: Non-exclusive tasks
+    // may run concurrently with other non-exclusive tasks but never with
+    // exclusive ones. Callers must serialize non-exclusive tasks themselves
+    // if they must not run concurrently.
+    public DaemonTaskDef(String caption, boolean nonBlocking, boolean exclusive, DaemonTask task) {
         if (caption == null) throw new NullPointerException("caption");
         if (task == null) throw new NullPointerException("task");
 
         this.caption = caption;
         this.nonBlocking = nonBlocking;
+        this.exclusive = exclusive;
         this.task = task;
     }
 
@@ -22,6 +32,10 @@ public final class DaemonTaskDef {
         return nonBlocking;
     }
 
+    public boolean isExclusive() {
+        return exclusive;
+    }
+
     public DaemonTask getTask() {
         return task;
     }
@@ -1,7 +1,6 @@
 package org.netbeans.gradle.project.tasks;
 
 import java.io.File;
-import org.gradle.tooling.GradleConnector;
 import org.gradle.tooling.ModelBuilder;
 import org.gradle.tooling.ProjectConnection;
 import org.gradle.tooling.model.idea.IdeaProject;
@@ -10,6 +9,7 @@ import org.netbeans.api.project.Project;
 import org.netbeans.gradle.model.OperationInitializer;
 import org.netbeans.gradle.project.NbGradleProject;
 import org.netbeans.gradle.project.NbStrings;
+import org.netbeans.gradle.project.model.GradleConnectionPool;
 import org.netbeans.gradle.project.model.GradleModelLoader;
 import org.openide.filesystems.FileObject;
 import org.openide.filesystems.FileUtil;
@@ -31,28 +31,28 @@ public final class DownloadSourcesTask implements DaemonTask {
 
     @Override
     public void run(ProgressHandle progress) {
-        GradleConnector connector = GradleModelLoader.createGradleConnector(project);
         FileObject projectDirObj = project.getProjectDirectory();
         File projectDir = FileUtil.toFile(projectDirObj);
         if (projectDir == null) {
             throw new RuntimeException("Missing project directory: " + projectDirObj);
         }
 
-        connector.forProjectDirectory(projectDir);
-
         OperationInitializer setup = GradleModelLoader.modelBuilderSetup(project, progress);
 
         // FIXME: Currently we just fetch IdeaProject and rely on that to fetch
         //   the sources. Then the source locator query will find the sources
         //   in the Gradle cache.
-        ProjectConnection connection = connector.connect();
+        GradleConnectionPool.ConnectionRef connectionRef
+                = GradleConnectionPool.getDefault().connect(project, projectDir);
         try {
+            ProjectConnection connection = connectionRef.getConnection();
+
             ModelBuilder<IdeaProject> builder = connection.model(IdeaProject.class);
             GradleModelLoader.setupLongRunningOP(setup, builder);
 
             builder.get();
         } finally {
-            connection.close();
+            connectionRef.close();
         }
     }
 }
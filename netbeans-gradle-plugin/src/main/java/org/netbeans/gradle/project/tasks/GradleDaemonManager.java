@@ -4,6 +4,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.netbeans.api.progress.ProgressHandle;
@@ -14,16 +15,23 @@ import org.openide.util.Cancellable;
 public final class GradleDaemonManager {
     private static final Logger LOGGER = Logger.getLogger(GradleDaemonManager.class.getName());
 
-    private static final ReentrantLock QUEUE_LOCK = new ReentrantLock(true);
+    // Exclusive non-blocking tasks hold the write lock, non-exclusive ones
+    // hold the read lock.
+    private static final ReentrantReadWriteLock QUEUE_LOCK = new ReentrantReadWriteLock(true);
+
+    private static void runNonBlockingGradleTask(
+            DaemonTask task,
+            boolean exclusive,
+            ProgressHandle progress) throws InterruptedException {
+        Lock lock = exclusive ? QUEUE_LOCK.writeLock() : QUEUE_LOCK.readLock();
 
-    private static void runNonBlockingGradleTask(DaemonTask task, ProgressHandle progress) throws InterruptedException {
         progress.suspend("");
-        QUEUE_LOCK.lockInterruptibly();
+        lock.lockInterruptibly();
         try {
             progress.switchToIndeterminate();
             task.run(progress);
         } finally{
-            QUEUE_LOCK.unlock();
+            lock.unlock();
         }
     }
 
@@ -31,15 +39,16 @@ public final class GradleDaemonManager {
         progress.suspend("");
 
         // This lock/unlock is here only to wait for pending non-blocking tasks.
-        QUEUE_LOCK.lockInterruptibly();
-        QUEUE_LOCK.unlock();
+        Lock lock = QUEUE_LOCK.writeLock();
+        lock.lockInterruptibly();
+        lock.unlock();
 
         progress.switchToIndeterminate();
         task.run(progress);
     }
 
     public static boolean isRunningExclusiveTask() {
-        return QUEUE_LOCK.isHeldByCurrentThread();
+        return QUEUE_LOCK.isWriteLockedByCurrentThread() || QUEUE_LOCK.getReadHoldCount() > 0;
     }
 
     public static void submitGradleTask(
@@ -51,6 +60,16 @@ public final class GradleDaemonManager {
         submitGradleTask(executor, new DaemonTaskDef(caption, nonBlocking, task), listener);
     }
 
+    public static void submitGradleTask(
+            Executor executor,
+            String caption,
+            DaemonTask task,
+            boolean nonBlocking,
+            boolean exclusive,
+            CommandCompleteListener listener) {
+        submitGradleTask(executor, new DaemonTaskDef(caption, nonBlocking, exclusive, task), listener);
+    }
+
     public static void submitGradleTask(
             Executor executor,
             final DaemonTaskDef taskDef,
@@ -102,7 +121,7 @@ public final class GradleDaemonManager {
                 progress.start();
                 try {
                     if (nonBlocking) {
-                        runNonBlockingGradleTask(task, progress);
+                        runNonBlockingGradleTask(task, taskDef.isExclusive(), progress);
                     }
                     else {
                         runBlockingGradleTask(task, progress);
@@ -12,6 +12,7 @@ import org.netbeans.gradle.project.WaitableSignal;
 import org.netbeans.gradle.project.api.config.ProfileDef;
 import org.netbeans.gradle.project.api.task.CommandCompleteListener;
 import org.netbeans.gradle.project.api.task.CustomCommandActions;
+import org.netbeans.gradle.project.model.GradleModelLoader;
 import org.netbeans.gradle.project.properties.MutableProperty;
 import org.netbeans.gradle.project.properties.NbGradleConfiguration;
 import org.netbeans.gradle.project.properties.PredefinedTask;
@@ -29,6 +30,7 @@ public final class GradleActionProvider implements ActionProvider {
     private static final Logger LOGGER = Logger.getLogger(GradleActionProvider.class.getName());
 
     public static final String COMMAND_RELOAD = "reload";
+    public static final String COMMAND_EXPORT_MODEL_SNAPSHOT = "export-model-snapshot";
 
     private final NbGradleProject project;
 
@@ -39,9 +41,10 @@ public final class GradleActionProvider implements ActionProvider {
     @Override
     public String[] getSupportedActions() {
         String[] actions = project.getMergedCommandQuery().getSupportedCommands().toArray(new String[0]);
-        String[] result = new String[actions.length + 1];
+        String[] result = new String[actions.length + 2];
         System.arraycopy(actions, 0, result, 0, actions.length);
         result[actions.length] = COMMAND_RELOAD;
+        result[actions.length + 1] = COMMAND_EXPORT_MODEL_SNAPSHOT;
         return result;
     }
 
@@ -117,6 +120,15 @@ public final class GradleActionProvider implements ActionProvider {
             };
         }
 
+        if (COMMAND_EXPORT_MODEL_SNAPSHOT.equals(command)) {
+            return new Runnable() {
+                @Override
+                public void run() {
+                    GradleModelLoader.exportModelSnapshot(project);
+                }
+            };
+        }
+
         final Lookup appliedContext = context != null ? context : Lookup.EMPTY;
 
         NbGradleConfiguration config = appliedContext.lookup(NbGradleConfiguration.class);
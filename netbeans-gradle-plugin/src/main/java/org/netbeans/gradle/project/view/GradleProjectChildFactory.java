@@ -16,7 +16,9 @@ import org.netbeans.gradle.project.NbStrings;
 import org.netbeans.gradle.project.api.event.NbListenerRef;
 import org.netbeans.gradle.project.api.nodes.GradleProjectExtensionNodes;
 import org.netbeans.gradle.project.api.nodes.SingleNodeFactory;
+import org.netbeans.gradle.project.model.ModelChangeEvent;
 import org.netbeans.gradle.project.model.NbGradleModel;
+import org.netbeans.gradle.project.model.NbGradleModelDiff;
 import org.netbeans.gradle.project.model.NbGradleProjectTree;
 import org.openide.loaders.DataFolder;
 import org.openide.loaders.DataObjectNotFoundException;
@@ -71,8 +73,19 @@ extends
         final ChangeListener changeListener = new ChangeListener() {
             @Override
             public void stateChanged(ChangeEvent e) {
+                List<GradleProjectExtensionNodes> extensionNodes = getExtensionNodes();
+
+                // Changes in the models of the extensions are reported by
+                // the extension nodes themselves, so there is nothing to do
+                // if neither the subprojects nor the extensions have changed.
+                NbGradleModelDiff diff = ModelChangeEvent.tryGetModelDiff(e);
+                if (diff != null && !diff.hasProjectTreeChanged()
+                        && extensionNodes.equals(nodeExtensionsRef.get().getFactories())) {
+                    return;
+                }
+
                 NodeExtensions newNodeExtensions
-                        = NodeExtensions.create(getExtensionNodes(), simpleChangeListener);
+                        = NodeExtensions.create(extensionNodes, simpleChangeListener);
 
                 // FIXME: This is not trully thread safe because model change
                 //   listener might be called after removeNotify, leaving an
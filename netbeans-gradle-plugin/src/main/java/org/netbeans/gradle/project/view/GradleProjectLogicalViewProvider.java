@@ -216,6 +216,9 @@ public final class GradleProjectLogicalViewProvider implements LogicalViewProvid
             projectActions.add(createProjectAction(
                     GradleActionProvider.COMMAND_RELOAD,
                     NbStrings.getReloadCommandCaption()));
+            projectActions.add(createProjectAction(
+                    GradleActionProvider.COMMAND_EXPORT_MODEL_SNAPSHOT,
+                    NbStrings.getExportModelSnapshotCaption()));
             projectActions.addAll(extActions.getProjectManagementActions());
             projectActions.add(CommonProjectActions.closeProjectAction());
             projectActions.add(null);
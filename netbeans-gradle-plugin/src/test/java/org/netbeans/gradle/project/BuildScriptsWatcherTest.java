@@ -0,0 +1,150 @@
+package org.netbeans.gradle.project;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.netbeans.gradle.project.api.entry.LoadedProject;
+import org.netbeans.gradle.project.api.entry.SampleGradleProject;
+import org.netbeans.junit.MockServices;
+import org.openide.util.RequestProcessor;
+
+import static org.junit.Assert.*;
+
+public class BuildScriptsWatcherTest {
+    private static SampleGradleProject sampleProject;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        MockServices.setServices();
+        sampleProject = SampleGradleProject.createProject(BuildScriptsWatcherTest.class, "no-build-script.zip");
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        SampleGradleProject toClose = sampleProject;
+        sampleProject = null;
+
+        if (toClose != null) {
+            toClose.close();
+        }
+    }
+
+    private static void testOpenWithoutBuildScript(String... projectPath) throws Exception {
+        LoadedProject projectRef = sampleProject.loadProject(projectPath);
+        try {
+            NbGradleProject project = projectRef.getProject();
+            File projectDir = project.getProjectDirectoryAsFile();
+            assertFalse(new File(projectDir, GradleProjectConstants.BUILD_FILE_NAME).exists());
+
+            BuildScriptsWatcher watcher = new BuildScriptsWatcher(project);
+            watcher.start();
+            watcher.stop();
+        } finally {
+            projectRef.close();
+        }
+    }
+
+    @Test
+    public void testOpenRootWithoutBuildScript() throws Exception {
+        testOpenWithoutBuildScript("no-build-script");
+    }
+
+    @Test
+    public void testOpenSubprojectWithoutBuildScript() throws Exception {
+        testOpenWithoutBuildScript("no-build-script", "sub");
+    }
+
+    @Test
+    public void testMissingBuildScriptsAreWatched() {
+        File rootDir = new File("root-project").getAbsoluteFile();
+        File projectDir = new File(rootDir, "sub");
+
+        List<File> files = BuildScriptsWatcher.getWatchedFiles(projectDir, rootDir);
+        assertFalse(files.contains(null));
+        assertTrue(files.contains(new File(projectDir, GradleProjectConstants.BUILD_FILE_NAME)));
+        assertTrue(files.contains(new File(projectDir, "sub" + GradleProjectConstants.DEFAULT_GRADLE_EXTENSION)));
+        assertTrue(files.contains(new File(rootDir, GradleProjectConstants.SETTINGS_FILE_NAME)));
+    }
+
+    @Test
+    public void testRootBuildScriptIsWatched() {
+        File rootDir = new File("root-project").getAbsoluteFile();
+        File projectDir = new File(rootDir, "sub");
+
+        List<File> files = BuildScriptsWatcher.getWatchedFiles(projectDir, rootDir);
+        assertTrue(files.contains(new File(rootDir, GradleProjectConstants.BUILD_FILE_NAME)));
+    }
+
+    @Test
+    public void testUnrelatedFilesAreIgnored() {
+        File rootDir = new File("root-project").getAbsoluteFile();
+        File projectDir = new File(rootDir, "sub");
+        File buildSrc = new File(rootDir, GradleProjectConstants.BUILD_SRC_NAME);
+
+        List<File> files = BuildScriptsWatcher.getWatchedFiles(projectDir, rootDir);
+
+        assertTrue(BuildScriptsWatcher.isRelevantChange(
+                new File(projectDir, GradleProjectConstants.BUILD_FILE_NAME), files, buildSrc));
+        assertTrue(BuildScriptsWatcher.isRelevantChange(buildSrc, files, buildSrc));
+        assertTrue(BuildScriptsWatcher.isRelevantChange(
+                new File(buildSrc, "src/main/groovy/Plugin.groovy"), files, buildSrc));
+        assertTrue(BuildScriptsWatcher.isRelevantChange(null, files, buildSrc));
+
+        assertFalse(BuildScriptsWatcher.isRelevantChange(
+                new File(projectDir, "src/main/java/Main.java"), files, buildSrc));
+        assertFalse(BuildScriptsWatcher.isRelevantChange(
+                new File(buildSrc, "build/classes/Plugin.class"), files, buildSrc));
+        assertFalse(BuildScriptsWatcher.isRelevantChange(
+                new File(buildSrc, ".gradle"), files, buildSrc));
+        assertFalse(BuildScriptsWatcher.isRelevantChange(
+                new File(rootDir, "buildSrc2/build.gradle"), files, buildSrc));
+    }
+
+    @Test(timeout = 30000)
+    public void testSeveralSavesReloadOncePerRootBuild() throws Exception {
+        int quietPeriodMs = 500;
+        RequestProcessor processor = new RequestProcessor("BuildScriptsWatcherTest", 1, true);
+        BuildScriptsWatcher.ReloadScheduler scheduler = new BuildScriptsWatcher.ReloadScheduler(
+                processor, quietPeriodMs);
+
+        final List<String> reloads = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch reloadedLatch = new CountDownLatch(2);
+
+        File rootBuild1 = new File("root1").getAbsoluteFile();
+        File rootBuild2 = new File("root2").getAbsoluteFile();
+        for (int i = 0; i < 5; i++) {
+            final String name1 = "root1-" + i;
+            scheduler.scheduleReload(rootBuild1, new Runnable() {
+                @Override
+                public void run() {
+                    reloads.add(name1);
+                    reloadedLatch.countDown();
+                }
+            });
+
+            final String name2 = "root2-" + i;
+            scheduler.scheduleReload(rootBuild2, new Runnable() {
+                @Override
+                public void run() {
+                    reloads.add(name2);
+                    reloadedLatch.countDown();
+                }
+            });
+            Thread.sleep(quietPeriodMs / 10);
+        }
+
+        assertTrue(reloadedLatch.await(10, TimeUnit.SECONDS));
+        Thread.sleep(2 * quietPeriodMs);
+
+        assertEquals(new HashSet<String>(Arrays.asList("root1-4", "root2-4")), new HashSet<String>(reloads));
+        assertEquals(2, reloads.size());
+    }
+}
@@ -0,0 +1,121 @@
+package org.netbeans.gradle.project.java.model;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import org.netbeans.gradle.model.GenericProjectProperties;
+import org.netbeans.gradle.model.java.JavaCompatibilityModel;
+import org.netbeans.gradle.model.java.JavaOutputDirs;
+import org.netbeans.gradle.model.java.JavaSourceGroup;
+import org.netbeans.gradle.model.java.JavaSourceGroupName;
+import org.netbeans.gradle.model.java.JavaSourceSet;
+
+import static org.junit.Assert.*;
+
+public class JavaModelDiffTest {
+    private static final File PROJECT_DIR = new File("project").getAbsoluteFile();
+
+    private static JavaSourceSet sourceSet(String name, String... sourceRoots) {
+        File buildDir = new File(PROJECT_DIR, "build");
+        JavaOutputDirs outputDirs = new JavaOutputDirs(
+                new File(buildDir, "classes/" + name),
+                new File(buildDir, "resources/" + name),
+                Collections.<File>emptyList());
+
+        List<File> roots = new ArrayList<File>();
+        for (String sourceRoot: sourceRoots) {
+            roots.add(new File(PROJECT_DIR, sourceRoot));
+        }
+
+        JavaSourceSet.Builder result = new JavaSourceSet.Builder(name, outputDirs);
+        result.addSourceGroup(new JavaSourceGroup(JavaSourceGroupName.JAVA, roots));
+        return result.create();
+    }
+
+    private static NbJavaModel model(String projectName, String sourceLevel, JavaSourceSet... sourceSets) {
+        return model(JavaModelSource.GRADLE_1_8_API, projectName, sourceLevel, sourceSets);
+    }
+
+    private static NbJavaModel model(
+            JavaModelSource modelSource,
+            String projectName,
+            String sourceLevel,
+            JavaSourceSet... sourceSets) {
+        NbJavaModule module = new NbJavaModule(
+                new GenericProjectProperties(projectName, ":" + projectName, PROJECT_DIR),
+                new JavaCompatibilityModel(sourceLevel, sourceLevel),
+                Arrays.asList(sourceSets),
+                Collections.<NbListedDir>emptyList());
+        return NbJavaModel.createModel(modelSource, module, Collections.<File, JavaProjectDependency>emptyMap());
+    }
+
+    @Test
+    public void testEverythingChangedWithoutOldModel() {
+        JavaModelDiff diff = JavaModelDiff.compute(null, model("project", "1.7", sourceSet("main", "src/main/java")));
+
+        assertTrue(diff.isEverythingChanged());
+        assertEquals(Collections.singleton("main"), diff.getAddedSourceSets());
+        assertFalse(diff.isEmpty());
+    }
+
+    @Test
+    public void testEverythingChangedForDifferentModelSources() {
+        NbJavaModel oldModel = model(JavaModelSource.COMPATIBLE_API, "project", "1.7", sourceSet("main", "src"));
+        NbJavaModel newModel = model(JavaModelSource.GRADLE_1_8_API, "project", "1.7", sourceSet("main", "src"));
+
+        assertTrue(JavaModelDiff.compute(oldModel, newModel).isEverythingChanged());
+    }
+
+    @Test
+    public void testSameModelsAreEmptyDiff() {
+        NbJavaModel oldModel = model("project", "1.7", sourceSet("main", "src/main/java"));
+        NbJavaModel newModel = model("project", "1.7", sourceSet("main", "src/main/java"));
+
+        JavaModelDiff diff = JavaModelDiff.compute(oldModel, newModel);
+        assertTrue(diff.toString(), diff.isEmpty());
+    }
+
+    @Test
+    public void testChangedSourceSets() {
+        NbJavaModel oldModel = model("project", "1.7",
+                sourceSet("main", "src/main/java"),
+                sourceSet("test", "src/test/java"));
+        NbJavaModel newModel = model("project", "1.7",
+                sourceSet("main", "src/main/java", "src/generated/java"),
+                sourceSet("integTest", "src/integTest/java"));
+
+        JavaModelDiff diff = JavaModelDiff.compute(oldModel, newModel);
+        assertFalse(diff.isEverythingChanged());
+        assertEquals(Collections.singleton("integTest"), diff.getAddedSourceSets());
+        assertEquals(Collections.singleton("test"), diff.getRemovedSourceSets());
+        assertEquals(Collections.singleton("main"), diff.getChangedSourceSets());
+        assertTrue(diff.hasSourceRootsChanged());
+        assertFalse(diff.hasCompatibilityChanged());
+        assertFalse(diff.hasPropertiesChanged());
+    }
+
+    @Test
+    public void testChangedCompatibility() {
+        NbJavaModel oldModel = model("project", "1.6", sourceSet("main", "src/main/java"));
+        NbJavaModel newModel = model("project", "1.7", sourceSet("main", "src/main/java"));
+
+        JavaModelDiff diff = JavaModelDiff.compute(oldModel, newModel);
+        assertTrue(diff.hasCompatibilityChanged());
+        assertFalse(diff.hasSourceSetsChanged());
+        assertFalse(diff.isEmpty());
+    }
+
+    @Test
+    public void testChangedProperties() {
+        NbJavaModel oldModel = model("project", "1.7", sourceSet("main", "src/main/java"));
+        NbJavaModel newModel = model("renamed", "1.7", sourceSet("main", "src/main/java"));
+
+        JavaModelDiff diff = JavaModelDiff.compute(oldModel, newModel);
+        assertTrue(diff.hasPropertiesChanged());
+        assertFalse(diff.hasSourceSetsChanged());
+        assertFalse(diff.isEmpty());
+    }
+}
@@ -0,0 +1,190 @@
+package org.netbeans.gradle.project.java.model.idea;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.gradle.tooling.model.DomainObjectSet;
+import org.gradle.tooling.model.GradleProject;
+import org.gradle.tooling.model.idea.IdeaContentRoot;
+import org.gradle.tooling.model.idea.IdeaDependency;
+import org.gradle.tooling.model.idea.IdeaDependencyScope;
+import org.gradle.tooling.model.idea.IdeaLanguageLevel;
+import org.gradle.tooling.model.idea.IdeaModule;
+import org.gradle.tooling.model.idea.IdeaModuleDependency;
+import org.gradle.tooling.model.idea.IdeaProject;
+import org.gradle.tooling.model.idea.IdeaSingleEntryLibraryDependency;
+import org.gradle.tooling.model.idea.IdeaSourceDirectory;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.netbeans.gradle.model.java.JavaSourceSet;
+import org.netbeans.gradle.project.java.model.NbJavaModel;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class IdeaJavaModelUtilsTest {
+    private static final Logger LOGGER = Logger.getLogger(IdeaJavaModelUtilsTest.class.getName());
+
+    private static final int MODULE_COUNT = 400;
+    private static final int LIBRARY_COUNT = 50;
+    private static final int LIBRARIES_PER_MODULE = 20;
+
+    private static final File ROOT_DIR = new File("generated-idea-project").getAbsoluteFile();
+    private static final File LIB_DIR = new File(ROOT_DIR, "libs");
+
+    private static <T> DomainObjectSet<T> domainSet(Collection<? extends T> elements) {
+        return new TestDomainObjectSet<T>(elements);
+    }
+
+    private static File getModuleDir(int index) {
+        return index == 0 ? ROOT_DIR : new File(ROOT_DIR, "module" + index);
+    }
+
+    private static File getMainClassesDir(File moduleDir) {
+        return new File(new File(new File(moduleDir, "build"), "classes"), "main");
+    }
+
+    private static IdeaDependencyScope scope(String name) {
+        IdeaDependencyScope result = mock(IdeaDependencyScope.class);
+        when(result.getScope()).thenReturn(name);
+        return result;
+    }
+
+    // Like the Tooling API, returns a new File instance on every call.
+    private static IdeaDependency libraryDependency(final int libraryIndex, IdeaDependencyScope scope) {
+        IdeaSingleEntryLibraryDependency result = mock(IdeaSingleEntryLibraryDependency.class);
+        doReturn(scope).when(result).getScope();
+        when(result.getFile()).thenAnswer(new Answer<File>() {
+            @Override
+            public File answer(InvocationOnMock invocation) {
+                return new File(LIB_DIR, "lib" + libraryIndex + ".jar");
+            }
+        });
+        return result;
+    }
+
+    private static IdeaDependency moduleDependency(IdeaModule module, IdeaDependencyScope scope) {
+        IdeaModuleDependency result = mock(IdeaModuleDependency.class);
+        doReturn(scope).when(result).getScope();
+        doReturn(module).when(result).getDependencyModule();
+        return result;
+    }
+
+    // Every module depends on the previous two modules and on some of the
+    // libraries shared by all modules.
+    private static IdeaProject createIdeaProject() {
+        IdeaProject project = mock(IdeaProject.class);
+
+        IdeaLanguageLevel languageLevel = mock(IdeaLanguageLevel.class);
+        when(languageLevel.getLevel()).thenReturn("JDK_1_7");
+        doReturn(languageLevel).when(project).getLanguageLevel();
+        doReturn("1.7").when(project).getJdkName();
+
+        IdeaDependencyScope compileScope = scope("COMPILE");
+
+        List<IdeaModule> modules = new ArrayList<IdeaModule>(MODULE_COUNT);
+        for (int i = 0; i < MODULE_COUNT; i++) {
+            File moduleDir = getModuleDir(i);
+
+            GradleProject gradleProject = mock(GradleProject.class);
+            when(gradleProject.getPath()).thenReturn(i == 0 ? ":" : ":module" + i);
+
+            IdeaContentRoot contentRoot = mock(IdeaContentRoot.class);
+            doReturn(moduleDir).when(contentRoot).getRootDirectory();
+            doReturn(domainSet(Collections.<IdeaSourceDirectory>emptyList())).when(contentRoot).getSourceDirectories();
+            doReturn(domainSet(Collections.<IdeaSourceDirectory>emptyList())).when(contentRoot).getTestDirectories();
+
+            List<IdeaDependency> dependencies = new ArrayList<IdeaDependency>();
+            for (int j = Math.max(1, i - 2); j < i; j++) {
+                dependencies.add(moduleDependency(modules.get(j), compileScope));
+            }
+            for (int j = 0; j < LIBRARIES_PER_MODULE; j++) {
+                dependencies.add(libraryDependency((i + j) % LIBRARY_COUNT, compileScope));
+            }
+
+            IdeaModule module = mock(IdeaModule.class);
+            doReturn("module" + i).when(module).getName();
+            doReturn(gradleProject).when(module).getGradleProject();
+            doReturn(project).when(module).getProject();
+            doReturn(domainSet(Collections.singleton(contentRoot))).when(module).getContentRoots();
+            doReturn(domainSet(dependencies)).when(module).getDependencies();
+
+            modules.add(module);
+        }
+
+        doReturn(domainSet(modules)).when(project).getModules();
+        return project;
+    }
+
+    @Test
+    public void testParseManyModules() throws Exception {
+        IdeaProject ideaProject = createIdeaProject();
+
+        long startTime = System.nanoTime();
+        Map<File, NbJavaModel> models = IdeaJavaModelUtils.parseFromIdeaModel(ROOT_DIR, ideaProject);
+        long parseTimeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        assertEquals(MODULE_COUNT, models.size());
+
+        Map<File, Boolean> distinctInstances = new IdentityHashMap<File, Boolean>();
+        Set<File> distinctPaths = new HashSet<File>();
+
+        for (int i = 1; i < MODULE_COUNT; i++) {
+            NbJavaModel model = models.get(getModuleDir(i));
+            assertNotNull("Model of module " + i, model);
+
+            JavaSourceSet mainSourceSet = model.getMainModule().getMainSourceSet();
+            Set<File> compileClassPath = mainSourceSet.getClasspaths().getCompileClasspaths();
+
+            for (int j = 0; j < LIBRARIES_PER_MODULE; j++) {
+                File library = new File(LIB_DIR, "lib" + ((i + j) % LIBRARY_COUNT) + ".jar");
+                assertTrue("Library " + library + " of module " + i, compileClassPath.contains(library));
+            }
+            for (int j = Math.max(1, i - 2); j < i; j++) {
+                File dependencyOutput = getMainClassesDir(getModuleDir(j));
+                assertTrue("Output of module " + j + " for module " + i, compileClassPath.contains(dependencyOutput));
+            }
+
+            for (File file: compileClassPath) {
+                distinctInstances.put(file, Boolean.TRUE);
+                distinctPaths.add(file);
+            }
+        }
+
+        LOGGER.log(Level.INFO, "Parsed {0} IDEA modules in {1} ms, class paths contain {2} File instances for {3} paths.",
+                new Object[]{MODULE_COUNT, parseTimeMillis, distinctInstances.size(), distinctPaths.size()});
+
+        // The same path must not be represented by multiple File instances,
+        // otherwise every module would retain its own copies.
+        assertEquals(distinctPaths.size(), distinctInstances.size());
+    }
+
+    private static final class TestDomainObjectSet<T> extends LinkedHashSet<T> implements DomainObjectSet<T> {
+        private static final long serialVersionUID = 1L;
+
+        public TestDomainObjectSet(Collection<? extends T> elements) {
+            super(elements);
+        }
+
+        @Override
+        public List<T> getAll() {
+            return new ArrayList<T>(this);
+        }
+
+        @Override
+        public T getAt(int index) {
+            return getAll().get(index);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import org.netbeans.gradle.model.GenericProjectProperties;
+import org.netbeans.gradle.model.GradleTaskID;
+
+import static org.junit.Assert.*;
+
+public class GradleModelCacheTest {
+    private static final File ROOT_DIR = new File("root").getAbsoluteFile();
+
+    private static NbGradleProjectTree project(String path, File projectDir, List<NbGradleProjectTree> children) {
+        String name = projectDir.getName();
+        String pathPrefix = path.equals(":") ? ":" : path + ":";
+        return new NbGradleProjectTree(
+                new GenericProjectProperties(name, path, projectDir),
+                Collections.singletonList(new GradleTaskID("build", pathPrefix + "build")),
+                children);
+    }
+
+    private static List<NbGradleModel> buildModels(int subprojectCount) {
+        List<NbGradleProjectTree> children = new ArrayList<NbGradleProjectTree>(subprojectCount);
+        for (int i = 0; i < subprojectCount; i++) {
+            children.add(project(":sub" + i, new File(ROOT_DIR, "sub" + i),
+                    Collections.<NbGradleProjectTree>emptyList()));
+        }
+
+        NbGradleProjectTree root = project(":", ROOT_DIR, children);
+
+        List<NbGradleModel> result = new ArrayList<NbGradleModel>(subprojectCount);
+        for (NbGradleProjectTree child: children) {
+            NbGradleMultiProjectDef projectDef = new NbGradleMultiProjectDef(root, child);
+            result.add(new NbGradleModel(new NbGenericModelInfo(projectDef, null, null),
+                    Collections.<String, Object>emptyMap()));
+        }
+        return result;
+    }
+
+    private static long weight(NbGradleModel model) {
+        return ModelWeigher.estimateRetainedSize(model);
+    }
+
+    private static boolean isCached(GradleModelCache cache, NbGradleModel model) {
+        return cache.tryGetFromMemory(model.getProjectDir(), null) == model;
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedOverBudget() {
+        List<NbGradleModel> models = buildModels(3);
+        long budget = weight(models.get(0)) * 5 / 2;
+
+        GradleModelCache cache = new GradleModelCache(Integer.MAX_VALUE, budget, null);
+        cache.replaceEntry(models.get(0));
+        cache.replaceEntry(models.get(1));
+
+        assertTrue(isCached(cache, models.get(0)));
+        cache.replaceEntry(models.get(2));
+
+        assertTrue(isCached(cache, models.get(0)));
+        assertFalse(isCached(cache, models.get(1)));
+        assertTrue(isCached(cache, models.get(2)));
+    }
+
+    @Test
+    public void testKeepsMostRecentModelExceedingTheBudget() {
+        List<NbGradleModel> models = buildModels(2);
+
+        GradleModelCache cache = new GradleModelCache(Integer.MAX_VALUE, 1, null);
+        cache.replaceEntry(models.get(0));
+        assertTrue(isCached(cache, models.get(0)));
+
+        cache.replaceEntry(models.get(1));
+        assertFalse(isCached(cache, models.get(0)));
+        assertTrue(isCached(cache, models.get(1)));
+    }
+
+    @Test
+    public void testLoweringTheBudgetEvicts() {
+        List<NbGradleModel> models = buildModels(4);
+
+        GradleModelCache cache = new GradleModelCache(Integer.MAX_VALUE, Long.MAX_VALUE, null);
+        for (NbGradleModel model: models) {
+            cache.replaceEntry(model);
+        }
+
+        cache.setMaxWeight(weight(models.get(0)) * 2);
+
+        assertFalse(isCached(cache, models.get(0)));
+        assertFalse(isCached(cache, models.get(1)));
+        assertTrue(isCached(cache, models.get(2)));
+        assertTrue(isCached(cache, models.get(3)));
+    }
+
+    @Test
+    public void testWholeLargeBuildFitsIntoLinearBudget() {
+        int projectCount = 300;
+        List<NbGradleModel> models = buildModels(projectCount);
+
+        long maxWeight = 0;
+        for (NbGradleModel model: models) {
+            maxWeight = Math.max(maxWeight, weight(model));
+        }
+
+        GradleModelCache cache = new GradleModelCache(Integer.MAX_VALUE, projectCount * maxWeight, null);
+        for (NbGradleModel model: models) {
+            cache.replaceEntry(model);
+        }
+
+        for (NbGradleModel model: models) {
+            assertTrue(isCached(cache, model));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.prefs.AbstractPreferences;
+import java.util.prefs.Preferences;
+import org.gradle.util.GradleVersion;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ModelLoadTuningTest {
+    private static final File ROOT_DIR = new File("root-build");
+    private static final GradleVersion GRADLE_1_8 = GradleVersion.version("1.8");
+
+    @Test
+    public void testSmallBuildsAreNotTuned() {
+        ModelLoadTuning tuning = new ModelLoadTuning(10);
+        assertEquals(Collections.emptyList(), tuning.getTunedArguments(ROOT_DIR, 9, GRADLE_1_8));
+    }
+
+    @Test
+    public void testArgumentsDependOnGradleVersion() {
+        ModelLoadTuning tuning = new ModelLoadTuning(10);
+
+        assertEquals(Arrays.asList("--parallel", "--configure-on-demand"),
+                tuning.getTunedArguments(ROOT_DIR, 10, GRADLE_1_8));
+        assertEquals(Arrays.asList("--parallel"),
+                tuning.getTunedArguments(ROOT_DIR, 10, GradleVersion.version("1.3")));
+        assertEquals(Collections.emptyList(),
+                tuning.getTunedArguments(ROOT_DIR, 10, GradleVersion.version("1.1")));
+    }
+
+    @Test
+    public void testTuningIsAbandonedIfSlower() {
+        ModelLoadTuning tuning = new ModelLoadTuning(10);
+        tuning.recordLoad(ROOT_DIR, false, 1000);
+        tuning.recordLoad(ROOT_DIR, true, 1500);
+        tuning.recordLoad(ROOT_DIR, true, 1500);
+        assertTrue(tuning.isTuningUseful(ROOT_DIR));
+
+        tuning.recordLoad(ROOT_DIR, true, 1500);
+        assertFalse(tuning.isTuningUseful(ROOT_DIR));
+        assertEquals(Collections.emptyList(), tuning.getTunedArguments(ROOT_DIR, 10, GRADLE_1_8));
+
+        assertTrue(tuning.isTuningUseful(new File("other-build")));
+    }
+
+    @Test
+    public void testTuningIsKeptIfFaster() {
+        ModelLoadTuning tuning = new ModelLoadTuning(10);
+        tuning.recordLoad(ROOT_DIR, false, 2000);
+        for (int i = 0; i < 5; i++) {
+            tuning.recordLoad(ROOT_DIR, true, 1200);
+        }
+
+        assertTrue(tuning.isTuningUseful(ROOT_DIR));
+        assertEquals("tuned: 1200 ms on average of 5 load(s), untuned: 2000 ms on average of 1 load(s)",
+                tuning.tryDescribe(ROOT_DIR));
+    }
+
+    @Test
+    public void testBaselineIsLoadedPeriodically() {
+        ModelLoadTuning tuning = new ModelLoadTuning(10);
+        for (int i = 0; i < 5; i++) {
+            assertFalse(tuning.getTunedArguments(ROOT_DIR, 10, GRADLE_1_8).isEmpty());
+            tuning.recordLoad(ROOT_DIR, true, 1000);
+        }
+
+        assertEquals(Collections.emptyList(), tuning.getTunedArguments(ROOT_DIR, 10, GRADLE_1_8));
+        tuning.recordLoad(ROOT_DIR, false, 2000);
+
+        assertFalse(tuning.getTunedArguments(ROOT_DIR, 10, GRADLE_1_8).isEmpty());
+        assertEquals("tuned: 1000 ms on average of 5 load(s), untuned: 2000 ms on average of 1 load(s)",
+                tuning.tryDescribe(ROOT_DIR));
+    }
+
+    @Test
+    public void testStatsArePersisted() {
+        Preferences statsStore = new MemoryPreferences();
+
+        ModelLoadTuning tuning1 = new ModelLoadTuning(10, statsStore);
+        tuning1.recordLoad(ROOT_DIR, false, 1000);
+        for (int i = 0; i < 3; i++) {
+            tuning1.recordLoad(ROOT_DIR, true, 1500);
+        }
+
+        ModelLoadTuning tuning2 = new ModelLoadTuning(10, statsStore);
+        assertFalse(tuning2.isTuningUseful(ROOT_DIR));
+        assertEquals(tuning1.tryDescribe(ROOT_DIR), tuning2.tryDescribe(ROOT_DIR));
+        assertNull(tuning2.tryDescribe(new File("other-build")));
+    }
+
+    private static final class MemoryPreferences extends AbstractPreferences {
+        private final Map<String, String> values;
+
+        public MemoryPreferences() {
+            super(null, "");
+            this.values = new HashMap<String, String>();
+        }
+
+        @Override
+        protected void putSpi(String key, String value) {
+            values.put(key, value);
+        }
+
+        @Override
+        protected String getSpi(String key) {
+            return values.get(key);
+        }
+
+        @Override
+        protected void removeSpi(String key) {
+            values.remove(key);
+        }
+
+        @Override
+        protected void removeNodeSpi() {
+        }
+
+        @Override
+        protected String[] keysSpi() {
+            return values.keySet().toArray(new String[values.size()]);
+        }
+
+        @Override
+        protected String[] childrenNamesSpi() {
+            return new String[0];
+        }
+
+        @Override
+        protected AbstractPreferences childSpi(String name) {
+            throw new UnsupportedOperationException("Child nodes are not supported.");
+        }
+
+        @Override
+        protected void syncSpi() {
+        }
+
+        @Override
+        protected void flushSpi() {
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import org.netbeans.gradle.model.GenericProjectProperties;
+import org.netbeans.gradle.model.GradleTaskID;
+
+import static org.junit.Assert.*;
+
+public class ModelWeigherTest {
+    private static final File ROOT_DIR = new File("root").getAbsoluteFile();
+
+    private static List<GradleTaskID> tasks(String projectPath, int taskCount) {
+        String pathPrefix = projectPath.equals(":") ? ":" : projectPath + ":";
+
+        List<GradleTaskID> result = new ArrayList<GradleTaskID>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            result.add(new GradleTaskID("task" + i, pathPrefix + "task" + i));
+        }
+        return result;
+    }
+
+    private static NbGradleProjectTree leaf(String path, File projectDir, int taskCount) {
+        String name = path.substring(path.lastIndexOf(':') + 1);
+        return new NbGradleProjectTree(
+                new GenericProjectProperties(name, path, projectDir),
+                tasks(path, taskCount),
+                Collections.<NbGradleProjectTree>emptyList());
+    }
+
+    private static NbGradleProjectTree build(int subprojectCount, int taskCount) {
+        List<NbGradleProjectTree> children = new ArrayList<NbGradleProjectTree>(subprojectCount);
+        for (int i = 0; i < subprojectCount; i++) {
+            children.add(leaf(":sub" + i, new File(ROOT_DIR, "sub" + i), taskCount));
+        }
+
+        return new NbGradleProjectTree(
+                new GenericProjectProperties(ROOT_DIR.getName(), ":", ROOT_DIR),
+                tasks(":", taskCount),
+                children);
+    }
+
+    private static NbGradleProjectTree child(NbGradleProjectTree root, int index) {
+        return new ArrayList<NbGradleProjectTree>(root.getChildren()).get(index);
+    }
+
+    private static NbGradleModel model(NbGradleProjectTree root, NbGradleProjectTree mainProject, Object extensionModel) {
+        NbGradleMultiProjectDef projectDef = new NbGradleMultiProjectDef(root, mainProject);
+        NbGradleModel.Builder builder = new NbGradleModel.Builder(new NbGenericModelInfo(projectDef, null, null));
+        if (extensionModel != null) {
+            builder.setModelForExtension("ext", extensionModel);
+        }
+        return builder.create();
+    }
+
+    private static long weight(NbGradleModel model) {
+        return ModelWeigher.estimateRetainedSize(model);
+    }
+
+    @Test
+    public void testWeightDoesNotDependOnTheSizeOfTheBuild() {
+        NbGradleProjectTree smallBuild = build(1, 10);
+        NbGradleProjectTree largeBuild = build(500, 10);
+
+        long smallWeight = weight(model(smallBuild, child(smallBuild, 0), null));
+        long largeWeight = weight(model(largeBuild, child(largeBuild, 0), null));
+
+        assertEquals(smallWeight, largeWeight);
+    }
+
+    @Test
+    public void testWeightGrowsWithTheTasksOfTheProject() {
+        NbGradleProjectTree fewTasks = build(1, 1);
+        NbGradleProjectTree manyTasks = build(1, 100);
+
+        long fewTasksWeight = weight(model(fewTasks, child(fewTasks, 0), null));
+        long manyTasksWeight = weight(model(manyTasks, child(manyTasks, 0), null));
+
+        assertTrue(manyTasksWeight > fewTasksWeight);
+    }
+
+    @Test
+    public void testWeightGrowsWithExtensionModels() {
+        NbGradleProjectTree root = build(1, 1);
+
+        long withoutExtension = weight(model(root, child(root, 0), null));
+        long withExtension = weight(model(root, child(root, 0), "model"));
+
+        assertTrue(withExtension > withoutExtension);
+    }
+
+    @Test
+    public void testModelsOfABuildFitIntoLinearBudget() {
+        int projectCount = 200;
+        NbGradleProjectTree root = build(projectCount, 10);
+
+        NbGradleProjectTree singleProject = build(0, 10);
+        long singleWeight = weight(model(singleProject, singleProject, null));
+
+        long totalWeight = 0;
+        for (NbGradleProjectTree project: root.getChildren()) {
+            totalWeight += weight(model(root, project, null));
+        }
+
+        assertTrue("Weight of the build: " + totalWeight, totalWeight <= projectCount * singleWeight);
+    }
+}
@@ -0,0 +1,118 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.netbeans.gradle.model.GenericProjectProperties;
+import org.netbeans.gradle.model.GradleTaskID;
+
+import static org.junit.Assert.*;
+
+public class NbGradleModelDiffTest {
+    private static final File ROOT_DIR = new File("root").getAbsoluteFile();
+    private static final File SUB_DIR = new File(ROOT_DIR, "sub");
+
+    private static NbGradleProjectTree project(String path, File projectDir, String... taskNames) {
+        return project(path, projectDir, Arrays.asList(taskNames));
+    }
+
+    private static NbGradleProjectTree project(
+            String path,
+            File projectDir,
+            Iterable<String> taskNames,
+            NbGradleProjectTree... children) {
+        String name = path.equals(":") ? projectDir.getName() : path.substring(path.lastIndexOf(':') + 1);
+        String pathPrefix = path.equals(":") ? ":" : path + ":";
+
+        List<GradleTaskID> tasks = new ArrayList<GradleTaskID>();
+        for (String taskName: taskNames) {
+            tasks.add(new GradleTaskID(taskName, pathPrefix + taskName));
+        }
+
+        return new NbGradleProjectTree(
+                new GenericProjectProperties(name, path, projectDir),
+                tasks,
+                Arrays.asList(children));
+    }
+
+    private static NbGradleModel model(NbGradleProjectTree root, Map<String, Object> extensionModels) {
+        NbGradleMultiProjectDef projectDef = new NbGradleMultiProjectDef(root, root);
+        return new NbGradleModel(new NbGenericModelInfo(projectDef, null, null), extensionModels);
+    }
+
+    private static NbGradleProjectTree rootWithSub(String... subTaskNames) {
+        return project(":", ROOT_DIR, Arrays.asList("build"), project(":sub", SUB_DIR, subTaskNames));
+    }
+
+    private static Map<String, Object> extensions(Object... nameModelPairs) {
+        Map<String, Object> result = new HashMap<String, Object>();
+        for (int i = 0; i < nameModelPairs.length; i += 2) {
+            result.put((String)nameModelPairs[i], nameModelPairs[i + 1]);
+        }
+        return result;
+    }
+
+    @Test
+    public void testEverythingChangedWithoutOldModel() {
+        NbGradleModelDiff diff = NbGradleModelDiff.compute(null, model(rootWithSub("build"), extensions("java", "model")));
+
+        assertTrue(diff.hasProjectTreeChanged());
+        assertTrue(diff.hasTasksChanged());
+        assertEquals(Collections.singleton("java"), diff.getChangedExtensions());
+        assertFalse(diff.isEmpty());
+    }
+
+    @Test
+    public void testSameModelsAreEmptyDiff() {
+        Object extensionModel = "model";
+        NbGradleModel oldModel = model(rootWithSub("build"), extensions("java", extensionModel));
+        NbGradleModel newModel = model(rootWithSub("build"), extensions("java", extensionModel));
+
+        NbGradleModelDiff diff = NbGradleModelDiff.compute(oldModel, newModel);
+        assertTrue(diff.toString(), diff.isEmpty());
+    }
+
+    @Test
+    public void testChangedTasks() {
+        NbGradleModel oldModel = model(rootWithSub("build"), extensions());
+        NbGradleModel newModel = model(rootWithSub("build", "test"), extensions());
+
+        NbGradleModelDiff diff = NbGradleModelDiff.compute(oldModel, newModel);
+        assertFalse(diff.hasProjectTreeChanged());
+        assertTrue(diff.hasTasksChanged());
+        assertTrue(diff.getChangedExtensions().isEmpty());
+    }
+
+    @Test
+    public void testChangedProjectTree() {
+        NbGradleModel oldModel = model(rootWithSub("build"), extensions());
+        NbGradleModel newModel = model(project(":", ROOT_DIR, "build"), extensions());
+
+        NbGradleModelDiff diff = NbGradleModelDiff.compute(oldModel, newModel);
+        assertTrue(diff.hasProjectTreeChanged());
+        assertTrue(diff.hasTasksChanged());
+    }
+
+    @Test
+    public void testChangedExtensions() {
+        NbGradleModel oldModel = model(rootWithSub("build"),
+                extensions("same", "model", "changed", "old", "removed", "model", "nullModel", null));
+        NbGradleModel newModel = model(rootWithSub("build"),
+                extensions("same", "model", "changed", "new", "added", "model", "nullModel", null));
+
+        NbGradleModelDiff diff = NbGradleModelDiff.compute(oldModel, newModel);
+        assertFalse(diff.hasProjectTreeChanged());
+        assertFalse(diff.hasTasksChanged());
+        assertEquals(
+                new HashSet<String>(Arrays.asList("changed", "removed", "added")),
+                diff.getChangedExtensions());
+        assertTrue(diff.hasExtensionChanged("added"));
+        assertFalse(diff.hasExtensionChanged("same"));
+    }
+}
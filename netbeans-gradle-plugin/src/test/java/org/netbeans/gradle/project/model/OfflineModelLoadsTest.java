@@ -0,0 +1,114 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.netbeans.gradle.project.model.issue.ModelLoadIssue;
+
+import static org.junit.Assert.*;
+
+public class OfflineModelLoadsTest {
+    @Test
+    public void testNestedConnectivityFailureIsDetected() {
+        Throwable error = new RuntimeException("Could not resolve all dependencies.",
+                new IOException("Could not GET 'http://repo.example.com/lib.pom'.",
+                new UnknownHostException("repo.example.com")));
+
+        assertTrue(OfflineModelLoads.isConnectivityFailure(error));
+    }
+
+    @Test
+    public void testTransferredConnectivityFailureIsDetected() {
+        // The Tooling API might only transfer the description of the cause.
+        Throwable error = new RuntimeException("Could not resolve all dependencies.",
+                new RuntimeException("java.net.ConnectException: Connection refused"));
+
+        assertTrue(OfflineModelLoads.isConnectivityFailure(error));
+    }
+
+    @Test
+    public void testDaemonConnectionFailureIsNotConnectivityFailure() {
+        Throwable error = new RuntimeException("Could not connect to the Gradle daemon.",
+                new ConnectException("Connection refused"));
+
+        assertFalse(OfflineModelLoads.isConnectivityFailure(error));
+    }
+
+    @Test
+    public void testConnectivityFailureOutsideResolutionIsIgnored() {
+        Throwable error = new RuntimeException("Could not resolve all dependencies.",
+                new IllegalStateException("Unexpected token"));
+        Throwable wrapper = new RuntimeException("Build failed.", new SocketTimeoutException("Read timed out"));
+
+        assertFalse(OfflineModelLoads.isConnectivityFailure(error));
+        assertFalse(OfflineModelLoads.isConnectivityFailure(wrapper));
+    }
+
+    @Test
+    public void testOtherFailuresAreNotConnectivityFailures() {
+        Throwable error = new RuntimeException("Could not compile build file.",
+                new IllegalStateException("Unexpected token"));
+
+        assertFalse(OfflineModelLoads.isConnectivityFailure(error));
+    }
+
+    @Test
+    public void testOfflineIsPreferredOnlyAfterFailure() {
+        OfflineModelLoads offlineLoads = new OfflineModelLoads(1, TimeUnit.HOURS);
+        assertFalse(offlineLoads.isOfflinePreferred());
+
+        offlineLoads.recordConnectivityFailure();
+        assertTrue(offlineLoads.isOfflinePreferred());
+    }
+
+    @Test
+    public void testOfflinePeriodExpires() throws InterruptedException {
+        OfflineModelLoads offlineLoads = new OfflineModelLoads(1, TimeUnit.MILLISECONDS);
+
+        offlineLoads.recordConnectivityFailure();
+        Thread.sleep(20);
+        assertFalse(offlineLoads.isOfflinePreferred());
+    }
+
+    @Test
+    public void testOnlineSuccessEndsOfflinePeriod() {
+        OfflineModelLoads offlineLoads = new OfflineModelLoads(1, TimeUnit.HOURS);
+
+        offlineLoads.recordConnectivityFailure();
+        offlineLoads.recordOnlineSuccess();
+        assertFalse(offlineLoads.isOfflinePreferred());
+    }
+
+    private static ModelLoadIssue issue(final Throwable stackTrace) {
+        return new ModelLoadIssue() {
+            @Override
+            public ModelLoadIssue.Severity getSeverity() {
+                return ModelLoadIssue.Severity.EXTENSION_ERROR;
+            }
+
+            @Override
+            public String getIssueDescription() {
+                return String.valueOf(stackTrace);
+            }
+
+            @Override
+            public Throwable getStackTrace() {
+                return stackTrace;
+            }
+        };
+    }
+
+    @Test
+    public void testUnresolvedOfflineDependencyIsDetected() {
+        Throwable error = new RuntimeException("Could not resolve all dependencies for configuration ':compile'.",
+                new RuntimeException("No cached version of org.example:lib:1.0 available for offline mode."));
+
+        assertTrue(OfflineModelLoads.hasUnresolvedOfflineDependency(Arrays.asList(issue(null), issue(error))));
+        assertFalse(OfflineModelLoads.hasUnresolvedOfflineDependency(Arrays.asList(
+                issue(new IllegalStateException("Unexpected token")))));
+    }
+}
@@ -0,0 +1,200 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ParallelExtensionParserTest {
+    private static final Executor SYNC_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private static List<File> createProjectDirs(int projectCount) {
+        List<File> result = new ArrayList<File>(projectCount);
+        for (int i = 0; i < projectCount; i++) {
+            result.add(new File("project" + i));
+        }
+        return result;
+    }
+
+    // Every groupSize-th project provides the models of the next
+    // (groupSize - 1) projects as well, similar to how the Java extension
+    // parses multiple projects at once.
+    private static ParallelExtensionParser.ProjectParser groupingParser(
+            final String extensionName,
+            final List<File> projectDirs,
+            final int groupSize) {
+
+        return new ParallelExtensionParser.ProjectParser() {
+            @Override
+            public Object parseModel(File projectDir, Map<File, Object> otherModels) {
+                int index = projectDirs.indexOf(projectDir);
+                int groupEnd = Math.min(index + groupSize, projectDirs.size());
+                for (int i = index + 1; i < groupEnd; i++) {
+                    File otherDir = projectDirs.get(i);
+                    otherModels.put(otherDir, extensionName + ":" + otherDir.getName() + ":by:" + projectDir.getName());
+                }
+
+                // Make the scheduling of the threads less predictable.
+                Thread.yield();
+                return extensionName + ":" + projectDir.getName();
+            }
+        };
+    }
+
+    private static Map<String, ParallelExtensionParser.ProjectParser> createParsers(
+            int extensionCount,
+            List<File> projectDirs) {
+
+        Map<String, ParallelExtensionParser.ProjectParser> result
+                = new LinkedHashMap<String, ParallelExtensionParser.ProjectParser>();
+        for (int i = 0; i < extensionCount; i++) {
+            String extensionName = "extension" + i;
+            result.put(extensionName, groupingParser(extensionName, projectDirs, i + 1));
+        }
+        return result;
+    }
+
+    @Test
+    public void testParallelResultIsTheSameAsSerial() throws Exception {
+        List<File> projectDirs = createProjectDirs(300);
+        Map<String, ParallelExtensionParser.ProjectParser> parsers = createParsers(8, projectDirs);
+
+        Map<String, Map<File, Object>> serialResult
+                = new ParallelExtensionParser(SYNC_EXECUTOR).parseAll(projectDirs, parsers);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int attempt = 0; attempt < 10; attempt++) {
+                Map<String, Map<File, Object>> parallelResult
+                        = new ParallelExtensionParser(executor).parseAll(projectDirs, parsers);
+
+                assertEquals(serialResult, parallelResult);
+                assertEquals(new ArrayList<String>(serialResult.keySet()),
+                        new ArrayList<String>(parallelResult.keySet()));
+                for (String extensionName: serialResult.keySet()) {
+                    assertEquals(new ArrayList<File>(serialResult.get(extensionName).keySet()),
+                            new ArrayList<File>(parallelResult.get(extensionName).keySet()));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testModelsProvidedByOtherProjectsAreNotParsedAgain() throws Exception {
+        List<File> projectDirs = createProjectDirs(4);
+        Map<String, ParallelExtensionParser.ProjectParser> parsers
+                = new LinkedHashMap<String, ParallelExtensionParser.ProjectParser>();
+        parsers.put("ext", groupingParser("ext", projectDirs, 2));
+
+        Map<File, Object> result = new ParallelExtensionParser(SYNC_EXECUTOR)
+                .parseAll(projectDirs, parsers)
+                .get("ext");
+
+        assertEquals("ext:project0", result.get(projectDirs.get(0)));
+        assertEquals("ext:project1:by:project0", result.get(projectDirs.get(1)));
+        assertEquals("ext:project2", result.get(projectDirs.get(2)));
+        assertEquals("ext:project3:by:project2", result.get(projectDirs.get(3)));
+    }
+
+    @Test(timeout = 30000)
+    public void testProjectsOfTheSameExtensionAreParsedConcurrently() throws Exception {
+        List<File> projectDirs = createProjectDirs(3);
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+
+        Map<String, ParallelExtensionParser.ProjectParser> parsers
+                = new LinkedHashMap<String, ParallelExtensionParser.ProjectParser>();
+        parsers.put("ext", new ParallelExtensionParser.ProjectParser() {
+            @Override
+            public Object parseModel(File projectDir, Map<File, Object> otherModels) {
+                if (!projectDir.getName().equals("project0")) {
+                    // Only completes if the two other projects are parsed
+                    // at the same time.
+                    try {
+                        barrier.await();
+                    } catch (Exception ex) {
+                        throw new RuntimeException(ex);
+                    }
+                }
+                return projectDir.getName();
+            }
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Map<File, Object> result = new ParallelExtensionParser(executor)
+                    .parseAll(projectDirs, parsers)
+                    .get("ext");
+            assertEquals(Arrays.<Object>asList("project0", "project1", "project2"),
+                    new ArrayList<Object>(result.values()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testProjectsProvidedByTheFirstProjectAreNotParsed() throws Exception {
+        final List<File> projectDirs = createProjectDirs(50);
+        final AtomicInteger parseCount = new AtomicInteger(0);
+
+        Map<String, ParallelExtensionParser.ProjectParser> parsers
+                = new LinkedHashMap<String, ParallelExtensionParser.ProjectParser>();
+        parsers.put("ext", new ParallelExtensionParser.ProjectParser() {
+            @Override
+            public Object parseModel(File projectDir, Map<File, Object> otherModels) {
+                parseCount.incrementAndGet();
+                for (File otherDir: projectDirs) {
+                    otherModels.put(otherDir, otherDir.getName());
+                }
+                return projectDir.getName();
+            }
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Map<File, Object> result = new ParallelExtensionParser(executor)
+                    .parseAll(projectDirs, parsers)
+                    .get("ext");
+            assertEquals(projectDirs.size(), result.size());
+            assertEquals(1, parseCount.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testParserExceptionIsRethrown() throws Exception {
+        List<File> projectDirs = createProjectDirs(2);
+        Map<String, ParallelExtensionParser.ProjectParser> parsers = createParsers(3, projectDirs);
+        parsers.put("failing", new ParallelExtensionParser.ProjectParser() {
+            @Override
+            public Object parseModel(File projectDir, Map<File, Object> otherModels) {
+                throw new IllegalStateException("test failure");
+            }
+        });
+        parsers.put("last", groupingParser("last", projectDirs, 1));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            new ParallelExtensionParser(executor).parseAll(projectDirs, parsers);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
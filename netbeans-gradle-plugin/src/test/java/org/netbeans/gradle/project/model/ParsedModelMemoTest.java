@@ -0,0 +1,142 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ParsedModelMemoTest {
+    private static final File ROOT_DIR = new File("root").getAbsoluteFile();
+    private static final File PROJECT1_DIR = new File(ROOT_DIR, "project1");
+    private static final File PROJECT2_DIR = new File(ROOT_DIR, "project2");
+    private static final String EXTENSION_NAME = "test-extension";
+
+    private static List<Object> rawModels(String... values) {
+        return Arrays.<Object>asList(values);
+    }
+
+    private static String digest(List<Object> rawModels) {
+        String result = ParsedModelMemo.tryDigestInputs(rawModels);
+        assertNotNull(result);
+        return result;
+    }
+
+    @Test
+    public void testSameInputsHaveTheSameDigest() {
+        assertEquals(digest(rawModels("a", "b")), digest(rawModels("a", "b")));
+        assertFalse(digest(rawModels("a", "b")).equals(digest(rawModels("a", "c"))));
+    }
+
+    @Test
+    public void testUnserializableInputs() {
+        assertNull(ParsedModelMemo.tryDigestInputs(Collections.singletonList(new Object())));
+    }
+
+    @Test
+    public void testUnchangedProjectIsReusedWhenAnotherChanges() {
+        ParsedModelMemo memo = new ParsedModelMemo(Long.MAX_VALUE);
+
+        String digest1 = digest(rawModels("project1"));
+        memo.putModel(ROOT_DIR, EXTENSION_NAME, PROJECT1_DIR, digest1, "parsed1");
+        memo.putModel(ROOT_DIR, EXTENSION_NAME, PROJECT2_DIR, digest(rawModels("project2")), "parsed2");
+
+        ParsedModelMemo.MemoizedModel model1 = memo.tryGetModel(ROOT_DIR, EXTENSION_NAME, PROJECT1_DIR, digest1);
+        assertNotNull(model1);
+        assertEquals("parsed1", model1.getParsedModel());
+
+        String changedDigest2 = digest(rawModels("project2", "new-dependency"));
+        assertNull(memo.tryGetModel(ROOT_DIR, EXTENSION_NAME, PROJECT2_DIR, changedDigest2));
+    }
+
+    @Test
+    public void testNullModelIsMemoized() {
+        ParsedModelMemo memo = new ParsedModelMemo(Long.MAX_VALUE);
+
+        String digest1 = digest(rawModels("project1"));
+        memo.putModel(ROOT_DIR, EXTENSION_NAME, PROJECT1_DIR, digest1, null);
+
+        ParsedModelMemo.MemoizedModel model1 = memo.tryGetModel(ROOT_DIR, EXTENSION_NAME, PROJECT1_DIR, digest1);
+        assertNotNull(model1);
+        assertNull(model1.getParsedModel());
+    }
+
+    @Test
+    public void testOtherExtensionIsNotReused() {
+        ParsedModelMemo memo = new ParsedModelMemo(Long.MAX_VALUE);
+
+        String digest1 = digest(rawModels("project1"));
+        memo.putModel(ROOT_DIR, EXTENSION_NAME, PROJECT1_DIR, digest1, "parsed1");
+
+        assertNull(memo.tryGetModel(ROOT_DIR, "other-extension", PROJECT1_DIR, digest1));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        ParsedModelMemo memo = new ParsedModelMemo(1);
+
+        String digest1 = digest(rawModels("project1"));
+        String digest2 = digest(rawModels("project2"));
+        memo.putModel(ROOT_DIR, EXTENSION_NAME, PROJECT1_DIR, digest1, "parsed1");
+        memo.putModel(ROOT_DIR, EXTENSION_NAME, PROJECT2_DIR, digest2, "parsed2");
+
+        assertNull(memo.tryGetModel(ROOT_DIR, EXTENSION_NAME, PROJECT1_DIR, digest1));
+        assertNotNull(memo.tryGetModel(ROOT_DIR, EXTENSION_NAME, PROJECT2_DIR, digest2));
+    }
+
+    @Test
+    public void testReferencedDigestsAreRemembered() {
+        ParsedModelMemo memo = new ParsedModelMemo(Long.MAX_VALUE);
+
+        String digest1 = digest(rawModels("project1"));
+        Map<File, String> referencedDigests = Collections.singletonMap(PROJECT2_DIR, digest(rawModels("project2")));
+        memo.putModel(ROOT_DIR, EXTENSION_NAME, PROJECT1_DIR, digest1, referencedDigests, "parsed1");
+
+        ParsedModelMemo.MemoizedModel model1 = memo.tryGetModel(ROOT_DIR, EXTENSION_NAME, PROJECT1_DIR, digest1);
+        assertNotNull(model1);
+        assertEquals(referencedDigests, model1.getReferencedDigests());
+    }
+
+    @Test
+    public void testNoReferencedProjectsOfUnknownModels() {
+        assertTrue(ParsedModelMemo.getReferencedProjectDirs("parsed1").isEmpty());
+        assertTrue(ParsedModelMemo.getReferencedProjectDirs(null).isEmpty());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvictedOverBudget() {
+        long modelWeight = ModelWeigher.estimateExtensionModelSize("parsed");
+        ParsedModelMemo memo = new ParsedModelMemo(2 * modelWeight);
+
+        String digest1 = digest(rawModels("project1"));
+        String digest2 = digest(rawModels("project2"));
+        String digest3 = digest(rawModels("project3"));
+        memo.putModel(ROOT_DIR, EXTENSION_NAME, PROJECT1_DIR, digest1, "parsed1");
+        memo.putModel(ROOT_DIR, EXTENSION_NAME, PROJECT2_DIR, digest2, "parsed2");
+
+        assertNotNull(memo.tryGetModel(ROOT_DIR, EXTENSION_NAME, PROJECT1_DIR, digest1));
+        memo.putModel(ROOT_DIR, "other-extension", PROJECT1_DIR, digest3, "parsed3");
+
+        assertNotNull(memo.tryGetModel(ROOT_DIR, EXTENSION_NAME, PROJECT1_DIR, digest1));
+        assertNull(memo.tryGetModel(ROOT_DIR, EXTENSION_NAME, PROJECT2_DIR, digest2));
+        assertNotNull(memo.tryGetModel(ROOT_DIR, "other-extension", PROJECT1_DIR, digest3));
+    }
+
+    @Test
+    public void testLoweringTheBudgetEvicts() {
+        ParsedModelMemo memo = new ParsedModelMemo(Long.MAX_VALUE);
+
+        String digest1 = digest(rawModels("project1"));
+        String digest2 = digest(rawModels("project2"));
+        memo.putModel(ROOT_DIR, EXTENSION_NAME, PROJECT1_DIR, digest1, "parsed1");
+        memo.putModel(ROOT_DIR, EXTENSION_NAME, PROJECT2_DIR, digest2, "parsed2");
+
+        memo.setMaxWeight(ModelWeigher.estimateExtensionModelSize("parsed2"));
+
+        assertNull(memo.tryGetModel(ROOT_DIR, EXTENSION_NAME, PROJECT1_DIR, digest1));
+        assertNotNull(memo.tryGetModel(ROOT_DIR, EXTENSION_NAME, PROJECT2_DIR, digest2));
+    }
+}
@@ -0,0 +1,233 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ProjectLoadSchedulerTest {
+    private static final long TIMEOUT_SEC = 10;
+
+    private ExecutorService workerExecutor;
+
+    @Before
+    public void setUp() {
+        workerExecutor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        workerExecutor.shutdownNow();
+        workerExecutor.awaitTermination(TIMEOUT_SEC, TimeUnit.SECONDS);
+    }
+
+    private static File key(String name) {
+        return new File(name);
+    }
+
+    private static void await(CountDownLatch latch) throws InterruptedException {
+        assertTrue("Timeout", latch.await(TIMEOUT_SEC, TimeUnit.SECONDS));
+    }
+
+    private static Runnable blockingTask(final CountDownLatch started, final CountDownLatch release) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+
+    private static Runnable recordingTask(final String name, final List<String> order, final CountDownLatch done) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                order.add(name);
+                done.countDown();
+            }
+        };
+    }
+
+    @Test
+    public void testQueuedTasksAreStartedByPriority() throws InterruptedException {
+        ProjectLoadScheduler scheduler = new ProjectLoadScheduler(workerExecutor, 1);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(key("blocker"), ModelLoadPriority.BACKGROUND, blockingTask(started, release));
+        await(started);
+
+        List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        CountDownLatch done = new CountDownLatch(6);
+        scheduler.submit(key("b"), ModelLoadPriority.BACKGROUND, recordingTask("background1", order, done));
+        scheduler.submit(key("c"), ModelLoadPriority.BACKGROUND, recordingTask("background2", order, done));
+        scheduler.submit(key("d"), ModelLoadPriority.OPENED, recordingTask("opened1", order, done));
+        scheduler.submit(key("e"), ModelLoadPriority.VISIBLE, recordingTask("visible", order, done));
+        scheduler.submit(key("f"), ModelLoadPriority.OPENED, recordingTask("opened2", order, done));
+        scheduler.submit(key("g"), ModelLoadPriority.BACKGROUND, recordingTask("background3", order, done));
+
+        release.countDown();
+        await(done);
+
+        assertEquals(
+                Arrays.asList("visible", "opened1", "opened2", "background1", "background2", "background3"),
+                order);
+    }
+
+    @Test
+    public void testPriorityAppliesWithinTheSameRootBuild() throws InterruptedException {
+        ProjectLoadScheduler scheduler = new ProjectLoadScheduler(workerExecutor, 4);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(key("a"), ModelLoadPriority.OPENED, blockingTask(started, release));
+        await(started);
+
+        List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        CountDownLatch done = new CountDownLatch(3);
+        scheduler.submit(key("a"), ModelLoadPriority.BACKGROUND, recordingTask("background", order, done));
+        scheduler.submit(key("a"), ModelLoadPriority.OPENED, recordingTask("opened", order, done));
+        scheduler.submit(key("a"), ModelLoadPriority.VISIBLE, recordingTask("visible", order, done));
+
+        release.countDown();
+        await(done);
+
+        assertEquals(Arrays.asList("visible", "opened", "background"), order);
+    }
+
+    @Test
+    public void testRaisedPriorityAppliesToQueuedTasks() throws InterruptedException {
+        ProjectLoadScheduler scheduler = new ProjectLoadScheduler(workerExecutor, 1);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(key("blocker"), ModelLoadPriority.BACKGROUND, blockingTask(started, release));
+        await(started);
+
+        List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        CountDownLatch done = new CountDownLatch(4);
+        ProjectLoadScheduler.PrioritizedExecutor raisedExecutor
+                = scheduler.forRootBuild(key("a"), ModelLoadPriority.BACKGROUND);
+        raisedExecutor.execute(recordingTask("raised1", order, done));
+        scheduler.submit(key("a"), ModelLoadPriority.OPENED, recordingTask("opened-same-build", order, done));
+        scheduler.submit(key("b"), ModelLoadPriority.OPENED, recordingTask("opened-other-build", order, done));
+
+        raisedExecutor.raisePriority(ModelLoadPriority.VISIBLE);
+        raisedExecutor.raisePriority(ModelLoadPriority.BACKGROUND);
+        raisedExecutor.execute(recordingTask("raised2", order, done));
+
+        release.countDown();
+        await(done);
+
+        assertEquals(
+                Arrays.asList("raised1", "raised2", "opened-same-build", "opened-other-build"),
+                order);
+    }
+
+    @Test
+    public void testBusyRootBuildDoesNotBlockOtherBuilds() throws InterruptedException {
+        ProjectLoadScheduler scheduler = new ProjectLoadScheduler(workerExecutor, 2);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(key("a"), ModelLoadPriority.BACKGROUND, blockingTask(started, release));
+        await(started);
+
+        List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        CountDownLatch visibleDone = new CountDownLatch(1);
+        CountDownLatch backgroundDone = new CountDownLatch(1);
+        scheduler.submit(key("a"), ModelLoadPriority.VISIBLE, recordingTask("visible", order, visibleDone));
+        scheduler.submit(key("b"), ModelLoadPriority.BACKGROUND, recordingTask("background", order, backgroundDone));
+
+        // The visible task must wait for the task of the same build but
+        // the other build must not wait for it.
+        await(backgroundDone);
+        assertEquals(1, visibleDone.getCount());
+
+        release.countDown();
+        await(visibleDone);
+    }
+
+    @Test
+    public void testLimitsAreRespectedUnderContention() throws InterruptedException {
+        final int maxParallelism = 3;
+        final int buildCount = 5;
+        final int taskCount = 500;
+
+        ProjectLoadScheduler scheduler = new ProjectLoadScheduler(workerExecutor, maxParallelism);
+
+        final AtomicInteger running = new AtomicInteger(0);
+        final AtomicInteger maxRunning = new AtomicInteger(0);
+        final AtomicInteger[] runningPerBuild = new AtomicInteger[buildCount];
+        final AtomicInteger violations = new AtomicInteger(0);
+        for (int i = 0; i < buildCount; i++) {
+            runningPerBuild[i] = new AtomicInteger(0);
+        }
+
+        final CountDownLatch done = new CountDownLatch(taskCount);
+        ModelLoadPriority[] priorities = ModelLoadPriority.values();
+        for (int i = 0; i < taskCount; i++) {
+            final int buildIndex = i % buildCount;
+            scheduler.submit(key("build" + buildIndex), priorities[i % priorities.length], new Runnable() {
+                @Override
+                public void run() {
+                    int currentlyRunning = running.incrementAndGet();
+                    int prevMax = maxRunning.get();
+                    while (currentlyRunning > prevMax && !maxRunning.compareAndSet(prevMax, currentlyRunning)) {
+                        prevMax = maxRunning.get();
+                    }
+
+                    if (runningPerBuild[buildIndex].incrementAndGet() != 1) {
+                        violations.incrementAndGet();
+                    }
+
+                    Thread.yield();
+
+                    runningPerBuild[buildIndex].decrementAndGet();
+                    running.decrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+
+        await(done);
+
+        assertEquals("Concurrently running tasks of the same build", 0, violations.get());
+        assertTrue("Max running: " + maxRunning.get(), maxRunning.get() <= maxParallelism);
+    }
+
+    @Test
+    public void testIncreasingParallelismStartsQueuedTasks() throws InterruptedException {
+        ProjectLoadScheduler scheduler = new ProjectLoadScheduler(workerExecutor, 1);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(key("a"), ModelLoadPriority.OPENED, blockingTask(started, release));
+        await(started);
+
+        List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        CountDownLatch done = new CountDownLatch(1);
+        scheduler.submit(key("b"), ModelLoadPriority.OPENED, recordingTask("b", order, done));
+
+        scheduler.setMaxParallelism(2);
+        await(done);
+
+        release.countDown();
+    }
+}
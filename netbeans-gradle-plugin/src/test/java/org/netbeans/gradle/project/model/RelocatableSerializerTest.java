@@ -0,0 +1,146 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RelocatableSerializerTest {
+    private static File file(File base, String... names) {
+        File result = base;
+        for (String name: names) {
+            result = new File(result, name);
+        }
+        return result;
+    }
+
+    private static RelocatableSerializer serializer(File rootDir, File userHome) {
+        Map<String, File> baseDirs = new LinkedHashMap<String, File>();
+        baseDirs.put("root", rootDir);
+        baseDirs.put("home", userHome);
+        return new RelocatableSerializer(baseDirs);
+    }
+
+    @Test
+    public void testFilesAreRelocated() throws Exception {
+        File tmpDir = new File(System.getProperty("java.io.tmpdir")).getAbsoluteFile();
+        File oldRoot = file(tmpDir, "old", "project");
+        File oldHome = file(tmpDir, "old", "gradle-home");
+        File newRoot = file(tmpDir, "new", "workspace", "project");
+        File newHome = file(tmpDir, "new", "gradle-home");
+        File outside = file(tmpDir, "jdk", "lib", "tools.jar");
+
+        FileHolder original = new FileHolder(
+                oldRoot,
+                file(oldRoot, "sub", "src", "main", "java"),
+                Arrays.asList(file(oldHome, "caches", "lib.jar"), outside));
+
+        byte[] serialized = serializer(oldRoot, oldHome).serialize(original);
+        FileHolder relocated = (FileHolder)serializer(newRoot, newHome)
+                .deserialize(serialized, getClass().getClassLoader());
+
+        assertEquals(newRoot, relocated.projectDir);
+        assertEquals(file(newRoot, "sub", "src", "main", "java"), relocated.sourceDir);
+        assertEquals(Arrays.asList(file(newHome, "caches", "lib.jar"), outside), relocated.classPath);
+    }
+
+    @Test
+    public void testSiblingWithCommonPrefixIsNotRelocated() throws Exception {
+        File tmpDir = new File(System.getProperty("java.io.tmpdir")).getAbsoluteFile();
+        File oldRoot = file(tmpDir, "project");
+        File sibling = file(tmpDir, "project2", "lib.jar");
+
+        FileHolder original = new FileHolder(oldRoot, sibling, Arrays.<File>asList());
+
+        byte[] serialized = serializer(oldRoot, file(tmpDir, "home")).serialize(original);
+        FileHolder relocated = (FileHolder)serializer(file(tmpDir, "moved"), file(tmpDir, "home"))
+                .deserialize(serialized, getClass().getClassLoader());
+
+        assertEquals(file(tmpDir, "moved"), relocated.projectDir);
+        assertEquals(sibling, relocated.sourceDir);
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnknownClassesAreRejected() throws Exception {
+        File tmpDir = new File(System.getProperty("java.io.tmpdir")).getAbsoluteFile();
+        RelocatableSerializer serializer = serializer(file(tmpDir, "project"), file(tmpDir, "home"));
+
+        byte[] serialized = serializer.serialize(new StringBuilder("not a model"));
+        serializer.deserialize(serialized, getClass().getClassLoader());
+    }
+
+    @Test
+    public void testCollectionsOfModelsAreDeserialized() throws Exception {
+        File tmpDir = new File(System.getProperty("java.io.tmpdir")).getAbsoluteFile();
+        RelocatableSerializer serializer = serializer(file(tmpDir, "project"), file(tmpDir, "home"));
+
+        Map<String, Object> original = new LinkedHashMap<String, Object>();
+        original.put("list", Collections.unmodifiableList(new ArrayList<String>(Arrays.asList("a", "b"))));
+        original.put("set", Collections.unmodifiableSet(new HashSet<String>(Arrays.asList("c"))));
+        original.put("map", Collections.unmodifiableMap(Collections.singletonMap("d", "e")));
+        original.put("empty", Collections.emptyList());
+
+        byte[] serialized = serializer.serialize(original);
+        assertEquals(original, serializer.deserialize(serialized, getClass().getClassLoader()));
+    }
+
+    @Test(expected = IOException.class)
+    public void testConcurrentCollectionsAreRejected() throws Exception {
+        File tmpDir = new File(System.getProperty("java.io.tmpdir")).getAbsoluteFile();
+        RelocatableSerializer serializer = serializer(file(tmpDir, "project"), file(tmpDir, "home"));
+
+        byte[] serialized = serializer.serialize(new ConcurrentHashMap<String, String>());
+        serializer.deserialize(serialized, getClass().getClassLoader());
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptInput() throws Exception {
+        File tmpDir = new File(System.getProperty("java.io.tmpdir")).getAbsoluteFile();
+        RelocatableSerializer serializer = serializer(file(tmpDir, "project"), file(tmpDir, "home"));
+
+        byte[] serialized = serializer.serialize(Arrays.asList("a", "b"));
+        serializer.deserialize(Arrays.copyOf(serialized, serialized.length / 2), getClass().getClassLoader());
+    }
+
+    @Test
+    public void testAllowedClasses() {
+        assertTrue(RelocatableSerializer.isAllowedClass("java.lang.String"));
+        assertTrue(RelocatableSerializer.isAllowedClass("java.util.ArrayList"));
+        assertTrue(RelocatableSerializer.isAllowedClass("[Ljava.io.File;"));
+        assertTrue(RelocatableSerializer.isAllowedClass("[[B"));
+        assertTrue(RelocatableSerializer.isAllowedClass("org.netbeans.gradle.model.java.JavaSourceSet"));
+
+        assertTrue(RelocatableSerializer.isAllowedClass("java.util.Collections$UnmodifiableRandomAccessList"));
+
+        assertFalse(RelocatableSerializer.isAllowedClass("java.util.concurrent.ConcurrentHashMap"));
+        assertFalse(RelocatableSerializer.isAllowedClass("java.util.PriorityQueue"));
+        assertFalse(RelocatableSerializer.isAllowedClass("java.lang.StringBuilder"));
+        assertFalse(RelocatableSerializer.isAllowedClass("[Ljava.net.URL;"));
+        assertFalse(RelocatableSerializer.isAllowedClass("org.apache.commons.collections.functors.InvokerTransformer"));
+        assertFalse(RelocatableSerializer.isAllowedClass("B"));
+    }
+
+    private static final class FileHolder implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final File projectDir;
+        private final File sourceDir;
+        private final List<File> classPath;
+
+        public FileHolder(File projectDir, File sourceDir, List<File> classPath) {
+            this.projectDir = projectDir;
+            this.sourceDir = sourceDir;
+            this.classPath = classPath;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.netbeans.gradle.project.GradleProjectConstants;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+
+import static org.junit.Assert.*;
+
+public class SettingsGradleCacheTest {
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private File rootDir;
+    private File subDir;
+    private File subSubDir;
+    private File settingsFile;
+
+    @Before
+    public void setUp() throws IOException {
+        rootDir = FileUtil.normalizeFile(tempFolder.newFolder("root"));
+        subDir = new File(rootDir, "sub");
+        subSubDir = new File(subDir, "subsub");
+        assertTrue(subSubDir.mkdirs());
+
+        settingsFile = new File(rootDir, GradleProjectConstants.SETTINGS_FILE_NAME);
+    }
+
+    private FileObject createSettingsFile() throws IOException {
+        FileObject rootDirObj = FileUtil.toFileObject(rootDir);
+        assertNotNull(rootDirObj);
+        return rootDirObj.createData(GradleProjectConstants.SETTINGS_FILE_NAME);
+    }
+
+    @Test
+    public void testCreatingSettingsInvalidates() throws IOException {
+        SettingsGradleCache cache = new SettingsGradleCache();
+
+        assertFalse(settingsFile.equals(cache.findSettingsGradle(subDir)));
+        assertTrue(cache.isCached(subDir));
+
+        createSettingsFile();
+
+        assertFalse(cache.isCached(subDir));
+        assertEquals(settingsFile, cache.findSettingsGradle(subDir));
+    }
+
+    @Test
+    public void testDeletingSettingsInvalidates() throws IOException {
+        FileObject settingsFileObj = createSettingsFile();
+
+        SettingsGradleCache cache = new SettingsGradleCache();
+        assertEquals(settingsFile, cache.findSettingsGradle(subDir));
+        assertTrue(cache.isCached(subDir));
+
+        settingsFileObj.delete();
+
+        assertFalse(cache.isCached(subDir));
+        assertFalse(settingsFile.equals(cache.findSettingsGradle(subDir)));
+    }
+
+    @Test
+    public void testLookupRacingWithInvalidationIsNotStored() {
+        SettingsGradleCache cache = new SettingsGradleCache();
+
+        // A lookup remembers the generation before it starts looking for
+        // the settings file, then a settings file is added or removed.
+        long startGeneration = cache.getGeneration();
+        cache.invalidate();
+
+        cache.storeResult(Arrays.asList(subDir, rootDir), settingsFile, startGeneration);
+        assertFalse(cache.isCached(subDir));
+        assertFalse(cache.isCached(rootDir));
+
+        cache.storeResult(Collections.singletonList(subDir), settingsFile, cache.getGeneration());
+        assertTrue(cache.isCached(subDir));
+    }
+
+    @Test
+    public void testSubdirectoriesReuseTheEntryOfTheirParent() {
+        SettingsGradleCache cache = new SettingsGradleCache();
+
+        // There is no such settings file, so it can only be returned if the
+        // cached entry of the parent is used.
+        File cachedSettingsFile = new File(rootDir, "cached-" + GradleProjectConstants.SETTINGS_FILE_NAME);
+        cache.storeResult(Collections.singletonList(subDir), cachedSettingsFile, cache.getGeneration());
+
+        assertEquals(cachedSettingsFile, cache.findSettingsGradle(subSubDir));
+        assertTrue(cache.isCached(subSubDir));
+        assertFalse(cache.isCached(rootDir));
+    }
+}
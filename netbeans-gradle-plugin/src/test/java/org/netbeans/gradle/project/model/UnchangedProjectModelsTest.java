@@ -0,0 +1,97 @@
+package org.netbeans.gradle.project.model;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.netbeans.gradle.model.GenericProjectProperties;
+import org.netbeans.gradle.model.GradleProjectTree;
+import org.netbeans.gradle.model.GradleTaskID;
+
+import static org.junit.Assert.*;
+
+public class UnchangedProjectModelsTest {
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private File rootDir;
+    private File libDir;
+    private File libChildDir;
+    private File appDir;
+    private File noScriptDir;
+    private GradleProjectTree rootProject;
+
+    private static void writeScript(File projectDir, String content) throws IOException {
+        projectDir.mkdirs();
+        OutputStream output = new FileOutputStream(new File(projectDir, "build.gradle"));
+        try {
+            output.write(content.getBytes("UTF-8"));
+        } finally {
+            output.close();
+        }
+    }
+
+    private static GradleProjectTree project(String path, File projectDir, GradleProjectTree... children) {
+        String name = path.equals(":") ? projectDir.getName() : path.substring(path.lastIndexOf(':') + 1);
+        return new GradleProjectTree(
+                new GenericProjectProperties(name, path, projectDir),
+                Collections.<GradleTaskID>emptyList(),
+                Arrays.asList(children));
+    }
+
+    // :lib and :lib:child are depended on by :app, while :noScript has no
+    // build script at all.
+    @Before
+    public void setUp() throws IOException {
+        rootDir = tempFolder.newFolder("root");
+        libDir = new File(rootDir, "lib");
+        libChildDir = new File(libDir, "child");
+        appDir = new File(rootDir, "app");
+        noScriptDir = new File(rootDir, "noScript");
+
+        writeScript(rootDir, "subprojects { apply plugin: 'java' }");
+        writeScript(libDir, "");
+        writeScript(libChildDir, "");
+        writeScript(appDir, "dependencies { compile project(':lib') }");
+        noScriptDir.mkdirs();
+
+        rootProject = project(":", rootDir,
+                project(":lib", libDir, project(":lib:child", libChildDir)),
+                project(":app", appDir),
+                project(":noScript", noScriptDir));
+    }
+
+    private Set<File> findAffected(File... changedDirs) {
+        return UnchangedProjectModels.findAffectedProjectDirs(rootProject, Arrays.asList(changedDirs));
+    }
+
+    @Test
+    public void testChangedLeaf() {
+        assertEquals(Collections.singleton(appDir), findAffected(appDir));
+    }
+
+    @Test
+    public void testChangedLeafWithoutBuildScript() {
+        assertEquals(Collections.singleton(noScriptDir), findAffected(noScriptDir));
+    }
+
+    @Test
+    public void testChangedDependency() {
+        Set<File> expected = new HashSet<File>(Arrays.asList(libDir, libChildDir, appDir));
+        assertEquals(expected, findAffected(libDir));
+    }
+
+    @Test
+    public void testChangedRoot() {
+        Set<File> expected = new HashSet<File>(Arrays.asList(rootDir, libDir, libChildDir, appDir, noScriptDir));
+        assertEquals(expected, findAffected(rootDir));
+    }
+}